@@ -0,0 +1,90 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of sampling from a categorical distribution by AliasTable.
+ * <p>
+ * Binary search of the cumulative distribution is the baseline.
+ * </p>
+ *
+ * @author M. Saito
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AliasTableBenchmark {
+    /** seed of generators. */
+    private static final long SEED = 1234;
+    /** number of bulk samples. */
+    private static final int BULK_SIZE = 1024;
+    /** number of outcomes. */
+    @Param({"1000", "100000", "10000000" })
+    private int outcomes;
+    /** generator. */
+    private TinyMT64 tiny64;
+    /** alias table. */
+    private AliasTable table;
+    /** cumulative weights. */
+    private double[] cumulative;
+    /** array of samples. */
+    private int[] samples;
+
+    /**
+     * creates generator and tables.
+     */
+    @Setup
+    public void setup() {
+        tiny64 = TinyMT64.getDefault(SEED);
+        double[] weights = new double[outcomes];
+        cumulative = new double[outcomes];
+        double sum = 0;
+        for (int i = 0; i < outcomes; i++) {
+            weights[i] = tiny64.nextDouble();
+            sum += weights[i];
+            cumulative[i] = sum;
+        }
+        table = new AliasTable(weights);
+        samples = new int[BULK_SIZE];
+    }
+
+    /** @return random outcome */
+    @Benchmark
+    public int aliasSample() {
+        return table.sample(tiny64);
+    }
+
+    /** @return filled array */
+    @Benchmark
+    public int[] aliasSamples() {
+        table.sample(tiny64, samples);
+        return samples;
+    }
+
+    /** @return random outcome */
+    @Benchmark
+    public int binarySearchSample() {
+        double u = tiny64.nextDouble() * cumulative[outcomes - 1];
+        int index = Arrays.binarySearch(cumulative, u);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,77 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of generating one number by BufferedTinyMT32 and
+ * BufferedTinyMT64.
+ * <p>
+ * Unbuffered results are in {@link GenerateBenchmark}.
+ * </p>
+ *
+ * @author M. Saito
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BufferedBenchmark {
+    /** seed of generators. */
+    private static final long SEED = 1234;
+    /** size of block. */
+    @Param({"16", "256", "4096" })
+    private int blockSize;
+    /** buffered TinyMT32. */
+    private BufferedTinyMT32 buffered32;
+    /** buffered TinyMT64. */
+    private BufferedTinyMT64 buffered64;
+
+    /**
+     * creates generators.
+     */
+    @Setup
+    public void setup() {
+        buffered32 = new BufferedTinyMT32(TinyMT32.getDefault(SEED),
+                blockSize);
+        buffered64 = new BufferedTinyMT64(TinyMT64.getDefault(SEED),
+                blockSize);
+    }
+
+    /** @return random number */
+    @Benchmark
+    public int buffered32NextInt() {
+        return buffered32.nextInt();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public double buffered32NextDouble() {
+        return buffered32.nextDouble();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public long buffered64NextLong() {
+        return buffered64.nextLong();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public double buffered64NextDouble() {
+        return buffered64.nextDouble();
+    }
+}
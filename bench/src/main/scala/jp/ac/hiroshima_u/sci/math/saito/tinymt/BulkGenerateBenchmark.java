@@ -0,0 +1,169 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of filling arrays, each thread has its own generator.
+ *
+ * @author M. Saito
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BulkGenerateBenchmark {
+    /** seed of generators. */
+    private static final long SEED = 1234;
+    /** bound of bounded integers, which is not a power of two. */
+    private static final int BOUND = 1000000;
+    /** array size. */
+    @Param({"16", "1024", "65536" })
+    private int size;
+    /** TinyMT32. */
+    private TinyMT32 tiny32;
+    /** TinyMT64. */
+    private TinyMT64 tiny64;
+    /** baseline. */
+    private SplittableRandom splittable;
+    /** int array to be filled. */
+    private int[] ints;
+    /** long array to be filled. */
+    private long[] longs;
+    /** double array to be filled. */
+    private double[] doubles;
+
+    /**
+     * creates generators and arrays.
+     */
+    @Setup
+    public void setup() {
+        tiny32 = TinyMT32.getDefault(SEED);
+        tiny64 = TinyMT64.getDefault(SEED);
+        splittable = new SplittableRandom(SEED);
+        ints = new int[size];
+        longs = new long[size];
+        doubles = new double[size];
+    }
+
+    /** @return filled array */
+    @Benchmark
+    public int[] tinyMT32NextInts() {
+        tiny32.nextInts(ints);
+        return ints;
+    }
+
+    /** @return filled array */
+    @Benchmark
+    public int[] tinyMT32NextIntLoop() {
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = tiny32.nextInt();
+        }
+        return ints;
+    }
+
+    /** @return filled array */
+    @Benchmark
+    public int[] tinyMT32NextIntsBounded() {
+        tiny32.nextInts(ints, BOUND);
+        return ints;
+    }
+
+    /** @return filled array */
+    @Benchmark
+    public int[] tinyMT32NextIntBoundedLoop() {
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = tiny32.nextInt(BOUND);
+        }
+        return ints;
+    }
+
+    /** @return filled array */
+    @Benchmark
+    public long[] tinyMT32NextLongs() {
+        tiny32.nextLongs(longs);
+        return longs;
+    }
+
+    /** @return filled array */
+    @Benchmark
+    public double[] tinyMT32NextDoubles() {
+        tiny32.nextDoubles(doubles);
+        return doubles;
+    }
+
+    /** @return filled array */
+    @Benchmark
+    public long[] tinyMT64NextLongs() {
+        tiny64.nextLongs(longs);
+        return longs;
+    }
+
+    /** @return filled array */
+    @Benchmark
+    public long[] tinyMT64NextLongLoop() {
+        for (int i = 0; i < longs.length; i++) {
+            longs[i] = tiny64.nextLong();
+        }
+        return longs;
+    }
+
+    /** @return filled array */
+    @Benchmark
+    public double[] tinyMT64NextDoubles() {
+        tiny64.nextDoubles(doubles);
+        return doubles;
+    }
+
+    /** @return filled array */
+    @Benchmark
+    public int[] splittableRandomNextIntBoundedLoop() {
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = splittable.nextInt(BOUND);
+        }
+        return ints;
+    }
+
+    /** @return filled array */
+    @Benchmark
+    public long[] splittableRandomNextLongLoop() {
+        for (int i = 0; i < longs.length; i++) {
+            longs[i] = splittable.nextLong();
+        }
+        return longs;
+    }
+
+    /** @return filled array */
+    @Benchmark
+    public double[] splittableRandomNextDoubleLoop() {
+        for (int i = 0; i < doubles.length; i++) {
+            doubles[i] = splittable.nextDouble();
+        }
+        return doubles;
+    }
+
+    /** @return filled array */
+    @Benchmark
+    public long[] threadLocalRandomNextLongLoop() {
+        ThreadLocalRandom r = ThreadLocalRandom.current();
+        for (int i = 0; i < longs.length; i++) {
+            longs[i] = r.nextLong();
+        }
+        return longs;
+    }
+}
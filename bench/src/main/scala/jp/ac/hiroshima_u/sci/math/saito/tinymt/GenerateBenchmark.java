@@ -0,0 +1,199 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of generating one number, each thread has its own generator.
+ * <p>
+ * SplittableRandom and java.util.concurrent.ThreadLocalRandom are
+ * baselines.
+ * </p>
+ *
+ * @author M. Saito
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GenerateBenchmark {
+    /** seed of generators. */
+    private static final long SEED = 1234;
+    /** bound of bounded integers, which is not a power of two. */
+    private static final int BOUND = 1000000;
+    /** TinyMT32. */
+    private TinyMT32 tiny32;
+    /** TinyMT64. */
+    private TinyMT64 tiny64;
+    /** baseline. */
+    private SplittableRandom splittable;
+
+    /**
+     * creates generators.
+     */
+    @Setup
+    public void setup() {
+        tiny32 = TinyMT32.getDefault(SEED);
+        tiny64 = TinyMT64.getDefault(SEED);
+        splittable = new SplittableRandom(SEED);
+    }
+
+    /** @return random number */
+    @Benchmark
+    public int tinyMT32NextInt() {
+        return tiny32.nextInt();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public long tinyMT32NextLong() {
+        return tiny32.nextLong();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public double tinyMT32NextDouble() {
+        return tiny32.nextDouble();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public float tinyMT32NextFloat() {
+        return tiny32.nextFloat();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public int tinyMT32NextIntBounded() {
+        return tiny32.nextInt(BOUND);
+    }
+
+    /** @return random number */
+    @Benchmark
+    public double tinyMT32NextGaussian() {
+        return tiny32.nextGaussian();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public double tinyMT32NextGaussianZiggurat() {
+        return tiny32.nextGaussianZiggurat();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public int tinyMT64NextInt() {
+        return tiny64.nextInt();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public long tinyMT64NextLong() {
+        return tiny64.nextLong();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public long tinyMT64NextLongBounded() {
+        return tiny64.nextLong(BOUND);
+    }
+
+    /** @return random number */
+    @Benchmark
+    public double tinyMT64NextDouble() {
+        return tiny64.nextDouble();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public float tinyMT64NextFloat() {
+        return tiny64.nextFloat();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public double tinyMT64NextGaussian() {
+        return tiny64.nextGaussian();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public double tinyMT64NextGaussianZiggurat() {
+        return tiny64.nextGaussianZiggurat();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public double tinyMT64NextExponential() {
+        return tiny64.nextExponential();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public int threadLocalTinyMTNextInt() {
+        return jp.ac.hiroshima_u.sci.math.saito.tinymt.ThreadLocalRandom
+                .currentTinyMT().nextInt();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public int splittableRandomNextInt() {
+        return splittable.nextInt();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public int splittableRandomNextIntBounded() {
+        return splittable.nextInt(BOUND);
+    }
+
+    /** @return random number */
+    @Benchmark
+    public long splittableRandomNextLong() {
+        return splittable.nextLong();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public double splittableRandomNextDouble() {
+        return splittable.nextDouble();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public double splittableRandomNextGaussian() {
+        return splittable.nextGaussian();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public int threadLocalRandomNextInt() {
+        return ThreadLocalRandom.current().nextInt();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public long threadLocalRandomNextLong() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public double threadLocalRandomNextDouble() {
+        return ThreadLocalRandom.current().nextDouble();
+    }
+}
@@ -0,0 +1,98 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of InterleavedTinyMT32 and InterleavedTinyMT64 against a single
+ * generator.
+ *
+ * @author M. Saito
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InterleavedBenchmark {
+    /** seed of generators. */
+    private static final long SEED = 1234;
+    /** array size. */
+    private static final int SIZE = 4096;
+    /** TinyMT32. */
+    private TinyMT32 tiny32;
+    /** TinyMT64. */
+    private TinyMT64 tiny64;
+    /** interleaved TinyMT32. */
+    private InterleavedTinyMT32 interleaved32;
+    /** interleaved TinyMT64. */
+    private InterleavedTinyMT64 interleaved64;
+    /** int array to be filled. */
+    private int[] ints;
+    /** long array to be filled. */
+    private long[] longs;
+
+    /**
+     * creates generators and arrays.
+     */
+    @Setup
+    public void setup() {
+        tiny32 = TinyMT32.getDefault(SEED);
+        tiny64 = TinyMT64.getDefault(SEED);
+        interleaved32 = InterleavedTinyMT32.ofJumped(tiny32, 1);
+        interleaved64 = InterleavedTinyMT64.ofJumped(tiny64, 1);
+        ints = new int[SIZE];
+        longs = new long[SIZE];
+    }
+
+    /** @return random number */
+    @Benchmark
+    public int tinyMT32NextInt() {
+        return tiny32.nextInt();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public int interleaved32NextInt() {
+        return interleaved32.nextInt();
+    }
+
+    /** @return filled array */
+    @Benchmark
+    public int[] tinyMT32NextInts() {
+        tiny32.nextInts(ints);
+        return ints;
+    }
+
+    /** @return filled array */
+    @Benchmark
+    public int[] interleaved32NextInts() {
+        interleaved32.nextInts(ints, 0, SIZE);
+        return ints;
+    }
+
+    /** @return filled array */
+    @Benchmark
+    public long[] tinyMT64NextLongs() {
+        tiny64.nextLongs(longs);
+        return longs;
+    }
+
+    /** @return filled array */
+    @Benchmark
+    public long[] interleaved64NextLongs() {
+        interleaved64.nextLongs(longs, 0, SIZE);
+        return longs;
+    }
+}
@@ -0,0 +1,209 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the time per output of the generation kernel.
+ * <p>
+ * TinyMT32 and TinyMT64 select mat1, mat2 and tmat by masks made from the
+ * lowest bit. The branching kernels here select them by branches on that
+ * random bit, and read them from the parameter at every step, as TinyMT
+ * did before. Specialized generators by {@link SpecializedTinyMT} hold the
+ * parameter in static final fields. Multiply the time by the clock
+ * frequency to get cycles per output.
+ * </p>
+ *
+ * @author M. Saito
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KernelBenchmark {
+    /** seed of generators. */
+    private static final long SEED = 1234;
+    /** TinyMT32. */
+    private TinyMT32 tiny32;
+    /** TinyMT64. */
+    private TinyMT64 tiny64;
+    /** TinyMT32 kernel with branches. */
+    private Branching32 branching32;
+    /** TinyMT64 kernel with branches. */
+    private Branching64 branching64;
+    /** TinyMT32 specialized for its parameter. */
+    private RandomGenerator specialized32;
+    /** TinyMT64 specialized for its parameter. */
+    private RandomGenerator specialized64;
+
+    /**
+     * creates generators.
+     */
+    @Setup
+    public void setup() {
+        tiny32 = TinyMT32.getDefault(SEED);
+        tiny64 = TinyMT64.getDefault(SEED);
+        branching32 = new Branching32(tiny32);
+        branching64 = new Branching64(tiny64);
+        specialized32 = SpecializedTinyMT.of(tiny32);
+        specialized64 = SpecializedTinyMT.of(tiny64);
+    }
+
+    /** @return random number */
+    @Benchmark
+    public int tinyMT32NextInt() {
+        return tiny32.nextInt();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public int branching32NextInt() {
+        return branching32.nextInt();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public int specialized32NextInt() {
+        return specialized32.nextInt();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public long tinyMT64NextLong() {
+        return tiny64.nextLong();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public long branching64NextLong() {
+        return branching64.nextLong();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public long specialized64NextLong() {
+        return specialized64.nextLong();
+    }
+
+    /**
+     * TinyMT32 kernel which branches on the lowest bit.
+     */
+    private static final class Branching32 {
+        /** parameter. */
+        private final TinyMT32Parameter parameter;
+        /** internal state 0. */
+        private int st0;
+        /** internal state 1. */
+        private int st1;
+        /** internal state 2. */
+        private int st2;
+        /** internal state 3. */
+        private int st3;
+
+        /**
+         * Constructor.
+         *
+         * @param tiny
+         *            generator which gives parameter and state
+         */
+        Branching32(final TinyMT32 tiny) {
+            parameter = tiny.getParameter();
+            int[] status = tiny.getStatus();
+            st0 = status[0];
+            st1 = status[1];
+            st2 = status[2];
+            st3 = status[3];
+        }
+
+        /**
+         * returns 32-bit integer.
+         *
+         * @return next int
+         */
+        int nextInt() {
+            int y = st3;
+            int x = (st0 & 0x7fffffff) ^ st1 ^ st2;
+            x ^= (x << 1);
+            y ^= (y >>> 1) ^ x;
+            st0 = st1;
+            st1 = st2;
+            st2 = x ^ (y << 10);
+            st3 = y;
+            if ((y & 1) != 0) {
+                st1 ^= parameter.getMat1();
+                st2 ^= parameter.getMat2();
+            }
+            int t0 = st3;
+            int t1 = st0 + (st2 >>> 8);
+            t0 ^= t1;
+            if ((t1 & 1) != 0) {
+                t0 ^= parameter.getTmat();
+            }
+            return t0;
+        }
+    }
+
+    /**
+     * TinyMT64 kernel which branches on the lowest bit.
+     */
+    private static final class Branching64 {
+        /** parameter. */
+        private final TinyMT64Parameter parameter;
+        /** internal state 0. */
+        private long st0;
+        /** internal state 1. */
+        private long st1;
+
+        /**
+         * Constructor.
+         *
+         * @param tiny
+         *            generator which gives parameter and state
+         */
+        Branching64(final TinyMT64 tiny) {
+            parameter = tiny.getParameter();
+            long[] status = tiny.getStatus();
+            st0 = status[0];
+            st1 = status[1];
+        }
+
+        /**
+         * returns 64-bit integer.
+         *
+         * @return next long
+         */
+        long nextLong() {
+            st0 &= 0x7fffffffffffffffL;
+            long x = st0 ^ st1;
+            x ^= x << 12;
+            x ^= x >>> 32;
+            x ^= x << 32;
+            x ^= x << 11;
+            st0 = st1;
+            st1 = x;
+            if ((x & 1) != 0) {
+                st0 ^= parameter.getMat1();
+                st1 ^= parameter.getMat2() << 32;
+            }
+            long y = st0 + st1;
+            y ^= st0 >>> 8;
+            if ((y & 1) != 0) {
+                y ^= parameter.getTmat();
+            }
+            return y;
+        }
+    }
+}
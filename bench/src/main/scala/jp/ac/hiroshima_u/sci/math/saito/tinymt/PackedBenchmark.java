@@ -0,0 +1,68 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of small values, TinyMT64 compared with {@link PackedTinyMT64}
+ * which serves them from the unused bits of outputs.
+ *
+ * @author M. Saito
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PackedBenchmark {
+    /** seed of generators. */
+    private static final long SEED = 1234;
+    /** TinyMT64. */
+    private TinyMT64 tiny64;
+    /** packed TinyMT64. */
+    private PackedTinyMT64 packed;
+
+    /**
+     * creates generators.
+     */
+    @Setup
+    public void setup() {
+        tiny64 = TinyMT64.getDefault(SEED);
+        packed = new PackedTinyMT64(TinyMT64.getDefault(SEED));
+    }
+
+    /** @return random number */
+    @Benchmark
+    public int tinyMT64NextInt() {
+        return tiny64.nextInt();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public int packedNextInt() {
+        return packed.nextInt();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public boolean tinyMT64NextBoolean() {
+        return tiny64.nextBoolean();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public boolean packedNextBoolean() {
+        return packed.nextBoolean();
+    }
+}
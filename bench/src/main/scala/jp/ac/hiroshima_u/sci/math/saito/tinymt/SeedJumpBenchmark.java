@@ -0,0 +1,137 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of seeding, jumping and loading parameters.
+ *
+ * @author M. Saito
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SeedJumpBenchmark {
+    /** seed of generators. */
+    private static final long SEED = 1234;
+    /** jump step of getJumpedArray. */
+    private static final long JUMP = 1L << 40;
+    /** number of generators or parameters. */
+    @Param({"1", "16", "256" })
+    private int count;
+    /** TinyMT32. */
+    private TinyMT32 tiny32;
+    /** TinyMT64. */
+    private TinyMT64 tiny64;
+    /** seed of TinyMT32. */
+    private int[] seeds32;
+    /** seed of TinyMT64. */
+    private long[] seeds64;
+
+    /**
+     * creates generators and seeds.
+     */
+    @Setup
+    public void setup() {
+        tiny32 = TinyMT32.getDefault(SEED);
+        tiny64 = TinyMT64.getDefault(SEED);
+        seeds32 = new int[count];
+        seeds64 = new long[count];
+        for (int i = 0; i < count; i++) {
+            seeds32[i] = tiny32.nextInt();
+            seeds64[i] = tiny64.nextLong();
+        }
+    }
+
+    /** @return seeded generator */
+    @Benchmark
+    public TinyMT32 tinyMT32SetSeedArray() {
+        tiny32.setSeed(seeds32);
+        return tiny32;
+    }
+
+    /** @return seeded generator */
+    @Benchmark
+    public TinyMT32 tinyMT32SetSeedLong() {
+        tiny32.setSeed(SEED);
+        return tiny32;
+    }
+
+    /** @return seeded generator */
+    @Benchmark
+    public TinyMT64 tinyMT64SetSeedArray() {
+        tiny64.setSeed(seeds64);
+        return tiny64;
+    }
+
+    /** @return jumped generators */
+    @Benchmark
+    public TinyMT32[] tinyMT32GetJumpedArray() {
+        return tiny32.getJumpedArray(count, JUMP);
+    }
+
+    /** @return jumped generators */
+    @Benchmark
+    public TinyMT64[] tinyMT64GetJumpedArray() {
+        return tiny64.getJumpedArray(count, JUMP);
+    }
+
+    /** @return jumped generator */
+    @Benchmark
+    public TinyMT32 tinyMT32Jump() {
+        tiny32.jump();
+        return tiny32;
+    }
+
+    /** @return jumped generator */
+    @Benchmark
+    public TinyMT64 tinyMT64Jump() {
+        tiny64.jump();
+        return tiny64;
+    }
+
+    /** @return split generator */
+    @Benchmark
+    public TinyMT32 tinyMT32Split() {
+        return tiny32.copy().split();
+    }
+
+    /** @return split generator */
+    @Benchmark
+    public TinyMT32 tinyMT32SplitRandom() {
+        return tiny32.split(tiny64);
+    }
+
+    /**
+     * @return parameters
+     * @throws IOException when fails to read resource file
+     */
+    @Benchmark
+    public TinyMT32Parameter[] tinyMT32GetParameters() throws IOException {
+        return TinyMT32Parameter.getParameters(0, count);
+    }
+
+    /**
+     * @return parameters
+     * @throws IOException when fails to read resource file
+     */
+    @Benchmark
+    public TinyMT64Parameter[] tinyMT64GetParameters() throws IOException {
+        return TinyMT64Parameter.getParameters(0, count);
+    }
+}
@@ -0,0 +1,92 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of generating one number, all threads share one generator.
+ * <p>
+ * TinyMTs are not synchronized, so the shared generator is locked on each
+ * call. This shows the cost of sharing compared with
+ * {@link GenerateBenchmark}, where each thread has its own generator, and
+ * with {@link StripedRandom}, which lends pooled generators. Run with
+ * {@code -t} to change the number of threads.
+ * </p>
+ *
+ * @author M. Saito
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class SharedGenerateBenchmark {
+    /** seed of generators. */
+    private static final long SEED = 1234;
+    /** TinyMT32. */
+    private TinyMT32 tiny32;
+    /** TinyMT64. */
+    private TinyMT64 tiny64;
+    /** baseline. */
+    private SplittableRandom splittable;
+
+    /**
+     * creates generators.
+     */
+    @Setup
+    public void setup() {
+        tiny32 = TinyMT32.getDefault(SEED);
+        tiny64 = TinyMT64.getDefault(SEED);
+        splittable = new SplittableRandom(SEED);
+    }
+
+    /** @return random number */
+    @Benchmark
+    public int tinyMT32NextInt() {
+        synchronized (tiny32) {
+            return tiny32.nextInt();
+        }
+    }
+
+    /** @return random number */
+    @Benchmark
+    public long tinyMT64NextLong() {
+        synchronized (tiny64) {
+            return tiny64.nextLong();
+        }
+    }
+
+    /** @return random number */
+    @Benchmark
+    public long splittableRandomNextLong() {
+        synchronized (splittable) {
+            return splittable.nextLong();
+        }
+    }
+
+    /** @return random number */
+    @Benchmark
+    public int stripedRandomNextInt() {
+        return StripedRandom.current().nextInt();
+    }
+
+    /** @return random number */
+    @Benchmark
+    public long threadLocalRandomNextLong() {
+        return ThreadLocalRandom.currentTinyMT().nextLong();
+    }
+}
@@ -0,0 +1,72 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of shuffling and sampling by RandomSampling.
+ *
+ * @author M. Saito
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShuffleBenchmark {
+    /** seed of generators. */
+    private static final long SEED = 1234;
+    /** number of sampled indices. */
+    private static final int SAMPLE_SIZE = 1000;
+    /** array size. */
+    @Param({"1048576", "16777216" })
+    private int size;
+    /** generator. */
+    private TinyMT64 tiny64;
+    /** array to be shuffled. */
+    private int[] array;
+
+    /**
+     * creates generator and array.
+     */
+    @Setup
+    public void setup() {
+        tiny64 = TinyMT64.getDefault(SEED);
+        array = new int[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = i;
+        }
+    }
+
+    /** @return shuffled array */
+    @Benchmark
+    public int[] shuffle() {
+        RandomSampling.shuffle(tiny64, array);
+        return array;
+    }
+
+    /** @return shuffled array */
+    @Benchmark
+    public int[] parallelShuffle() {
+        RandomSampling.parallelShuffle(tiny64, array);
+        return array;
+    }
+
+    /** @return sampled indices */
+    @Benchmark
+    public int[] sampleIndices() {
+        return RandomSampling.sampleIndices(tiny64, size, SAMPLE_SIZE);
+    }
+}
@@ -0,0 +1,68 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of TinyMT32Gang against the same number of scalar TinyMT32.
+ *
+ * @author M. Saito
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class GangBenchmark {
+    /** seed of generators. */
+    private static final long SEED = 1234;
+    /** number of outputs of each lane. */
+    private static final int STEPS = 1024;
+    /** number of lanes. */
+    @Param({"8", "16", "64" })
+    private int lanes;
+    /** scalar generators. */
+    private TinyMT32[] tiny;
+    /** gang. */
+    private TinyMT32Gang gang;
+    /** array to be filled. */
+    private int[] array;
+
+    /**
+     * creates generators and array.
+     */
+    @Setup
+    public void setup() {
+        tiny = TinyMT32.getDefault(SEED).getJumpedArray(lanes, 1);
+        gang = new TinyMT32Gang(tiny);
+        array = new int[lanes * STEPS];
+    }
+
+    /** @return filled array */
+    @Benchmark
+    public int[] gangNextInts() {
+        gang.nextInts(array);
+        return array;
+    }
+
+    /** @return filled array */
+    @Benchmark
+    public int[] scalarNextInts() {
+        for (int i = 0; i < lanes; i++) {
+            tiny[i].nextInts(array, i * STEPS, STEPS);
+        }
+        return array;
+    }
+}
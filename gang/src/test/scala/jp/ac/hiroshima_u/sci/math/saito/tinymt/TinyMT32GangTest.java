@@ -0,0 +1,71 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class TinyMT32GangTest {
+
+    private static void check(final TinyMT32[] tiny, final TinyMT32Gang gang,
+            final int steps) {
+        int lanes = tiny.length;
+        assertEquals(lanes, gang.lanes());
+        int[] array = new int[lanes * steps + 2];
+        gang.nextInts(array, 1, lanes * steps);
+        assertEquals(0, array[0]);
+        assertEquals(0, array[array.length - 1]);
+        for (int k = 0; k < steps; k++) {
+            for (int j = 0; j < lanes; j++) {
+                assertEquals("lane:" + j + " step:" + k, tiny[j].nextInt(),
+                        array[1 + k * lanes + j]);
+            }
+        }
+    }
+
+    @Test
+    public void testJumped() {
+        int[] counts = {1, 3, TinyMT32Gang.vectorLength(),
+                TinyMT32Gang.vectorLength() * 2 + 5 };
+        for (int count : counts) {
+            TinyMT32 tiny = TinyMT32.getDefault(1);
+            TinyMT32Gang gang = TinyMT32Gang.ofJumped(tiny, count, 1);
+            TinyMT32[] expected = tiny.getJumpedArray(count, 1);
+            check(expected, gang, 100);
+            check(expected, gang, 7);
+        }
+    }
+
+    @Test
+    public void testDistinctParameters() {
+        TinyMT32[] tiny = new TinyMT32[20];
+        for (int i = 0; i < tiny.length; i++) {
+            tiny[i] = TinyMT32.getThreadLlocal(i);
+            tiny[i].setSeed(i);
+        }
+        TinyMT32Gang gang = new TinyMT32Gang(tiny);
+        TinyMT32[] expected = new TinyMT32[tiny.length];
+        for (int i = 0; i < tiny.length; i++) {
+            expected[i] = tiny[i].copy();
+        }
+        check(expected, gang, 50);
+        for (int i = 0; i < tiny.length; i++) {
+            TinyMT32 lane = gang.getGenerator(i);
+            for (int k = 0; k < 10; k++) {
+                assertEquals(expected[i].nextInt(), lane.nextInt());
+            }
+        }
+    }
+
+    @Test
+    public void testLength() {
+        TinyMT32Gang gang = TinyMT32Gang.ofJumped(TinyMT32.getDefault(1), 3,
+                1);
+        try {
+            gang.nextInts(new int[4]);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
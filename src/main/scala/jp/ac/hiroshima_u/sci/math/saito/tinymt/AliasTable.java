@@ -0,0 +1,305 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * AliasTable samples integers 0, 1, ..., n - 1 with given weights by the
+ * alias method of Walker, and the table is built by the method of Vose in
+ * O(n) time.
+ * <p>
+ * The table is padded to a power of two columns, and padded columns have
+ * weight 0. A sample uses one {@link RandomGenerator#nextLong()}: the upper
+ * bits select a column without bias, and the rest of bits are compared
+ * once with the threshold of the column to choose the column or its alias.
+ * So TinyMT64 gives a sample by one output and TinyMT32 by two outputs.
+ * </p>
+ * <p>
+ * Weights can be changed by {@link #setWeight(int, double)} or
+ * {@link #setWeights(double[])}. The table is rebuilt before the next
+ * sample, in the arrays allocated by the constructor, so changing some
+ * weights between samples costs one O(n) rebuild and no allocation.
+ * </p>
+ * <p>
+ * This class is not synchronized.
+ * </p>
+ *
+ * @author M. Saito
+ * @see <a href="https://doi.org/10.1109/32.92917">M. D. Vose, A linear
+ *      algorithm for generating random numbers with a given distribution</a>
+ */
+public final class AliasTable {
+    /** minimum number of columns. */
+    private static final int MIN_COLUMNS = 2;
+    /** weights of outcomes. */
+    private final double[] weights;
+    /** threshold of each column, the column is chosen below this. */
+    private final long[] threshold;
+    /** alias of each column. */
+    private final int[] alias;
+    /** scaled weights, used while building. */
+    private final double[] scaled;
+    /** worklists of small and large columns, used while building. */
+    private final int[] work;
+    /** shift to get column from random integer. */
+    private final int columnShift;
+    /** mask to get the part compared with threshold. */
+    private final long valueMask;
+    /** true if weights are changed after the table is built. */
+    private boolean dirty;
+
+    /**
+     * Constructor.
+     *
+     * @param pweights
+     *            weights of outcomes, which need not be normalized
+     * @throws IllegalArgumentException
+     *             when weights are empty, negative, not finite, or sum of
+     *             weights is not positive and finite
+     */
+    public AliasTable(final double[] pweights) {
+        if (pweights.length == 0) {
+            throw new IllegalArgumentException("no weight");
+        }
+        int columns = Math.max(MIN_COLUMNS,
+                Integer.highestOneBit(pweights.length - 1) << 1);
+        if (columns < pweights.length) {
+            throw new IllegalArgumentException("too many weights");
+        }
+        int bits = Integer.numberOfTrailingZeros(columns);
+        weights = new double[pweights.length];
+        threshold = new long[columns];
+        alias = new int[columns];
+        scaled = new double[columns];
+        work = new int[columns];
+        columnShift = Long.SIZE - bits;
+        valueMask = (1L << columnShift) - 1;
+        setWeights(pweights);
+        if (!isValidSum(sum())) {
+            throw new IllegalArgumentException(
+                    "sum of weights must be positive and finite");
+        }
+        build();
+    }
+
+    /**
+     * returns number of outcomes.
+     *
+     * @return number of outcomes
+     */
+    public int size() {
+        return weights.length;
+    }
+
+    /**
+     * returns weight of an outcome.
+     *
+     * @param index
+     *            outcome
+     * @return weight
+     */
+    public double getWeight(final int index) {
+        return weights[index];
+    }
+
+    /**
+     * changes weight of an outcome. The table is rebuilt before the next
+     * sample.
+     *
+     * @param index
+     *            outcome
+     * @param weight
+     *            new weight
+     * @throws IllegalArgumentException
+     *             when weight is negative or not finite
+     */
+    public void setWeight(final int index, final double weight) {
+        checkWeight(weight);
+        weights[index] = weight;
+        dirty = true;
+    }
+
+    /**
+     * changes all weights. The table is rebuilt before the next sample.
+     *
+     * @param pweights
+     *            new weights, length must be {@link #size()}
+     * @throws IllegalArgumentException
+     *             when length differs, or weight is negative or not finite
+     */
+    public void setWeights(final double[] pweights) {
+        if (pweights.length != weights.length) {
+            throw new IllegalArgumentException("length must be "
+                    + weights.length);
+        }
+        for (double w : pweights) {
+            checkWeight(w);
+        }
+        System.arraycopy(pweights, 0, weights, 0, weights.length);
+        dirty = true;
+    }
+
+    /**
+     * returns a random outcome.
+     *
+     * @param rng
+     *            generator
+     * @return outcome, 0 <= r < size()
+     * @throws IllegalStateException
+     *             when sum of weights is not positive and finite
+     */
+    public int sample(final RandomGenerator rng) {
+        if (dirty) {
+            build();
+        }
+        final long r = rng.nextLong();
+        final int column = (int) (r >>> columnShift);
+        if ((r & valueMask) < threshold[column]) {
+            return column;
+        } else {
+            return alias[column];
+        }
+    }
+
+    /**
+     * fills array with random outcomes.
+     *
+     * @param rng
+     *            generator
+     * @param array
+     *            array to be filled
+     */
+    public void sample(final RandomGenerator rng, final int[] array) {
+        sample(rng, array, 0, array.length);
+    }
+
+    /**
+     * fills the specified range of array with random outcomes.
+     * The result is same as calling {@link #sample(RandomGenerator)}
+     * {@code len} times.
+     *
+     * @param rng
+     *            generator
+     * @param array
+     *            array to be filled
+     * @param off
+     *            index of the first element to be filled
+     * @param len
+     *            number of elements to be filled
+     * @throws IllegalStateException
+     *             when sum of weights is not positive and finite
+     */
+    public void sample(final RandomGenerator rng, final int[] array,
+            final int off, final int len) {
+        if (off < 0 || len < 0 || off > array.length - len) {
+            throw new IndexOutOfBoundsException("off:" + off + " len:" + len
+                    + " length:" + array.length);
+        }
+        if (dirty) {
+            build();
+        }
+        final long[] t = threshold;
+        final int[] a = alias;
+        final int shift = columnShift;
+        final long mask = valueMask;
+        final int end = off + len;
+        for (int i = off; i < end; i++) {
+            final long r = rng.nextLong();
+            final int column = (int) (r >>> shift);
+            if ((r & mask) < t[column]) {
+                array[i] = column;
+            } else {
+                array[i] = a[column];
+            }
+        }
+    }
+
+    /**
+     * checks a weight.
+     *
+     * @param weight
+     *            weight
+     */
+    private static void checkWeight(final double weight) {
+        if (!(weight >= 0 && weight < Double.POSITIVE_INFINITY)) {
+            throw new IllegalArgumentException(
+                    "weight must be non-negative and finite");
+        }
+    }
+
+    /**
+     * returns sum of weights.
+     *
+     * @return sum of weights
+     */
+    private double sum() {
+        double sum = 0;
+        for (double w : weights) {
+            sum += w;
+        }
+        return sum;
+    }
+
+    /**
+     * checks sum of weights.
+     *
+     * @param sum
+     *            sum of weights
+     * @return true if sum is positive and finite
+     */
+    private static boolean isValidSum(final double sum) {
+        return sum > 0 && sum < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * builds the table from weights by the method of Vose.
+     */
+    private void build() {
+        final int columns = threshold.length;
+        final double sum = sum();
+        if (!isValidSum(sum)) {
+            throw new IllegalStateException(
+                    "sum of weights must be positive and finite");
+        }
+        final double factor = columns / sum;
+        // small columns are pushed from the head, large ones from the tail
+        int small = 0;
+        int large = columns;
+        for (int i = 0; i < columns; i++) {
+            if (i < weights.length) {
+                scaled[i] = weights[i] * factor;
+            } else {
+                scaled[i] = 0;
+            }
+            if (scaled[i] < 1.0) {
+                work[small++] = i;
+            } else {
+                work[--large] = i;
+            }
+        }
+        final double one = valueMask + 1.0;
+        while (small > 0 && large < columns) {
+            final int s = work[--small];
+            final int l = work[large++];
+            threshold[s] = (long) (scaled[s] * one);
+            alias[s] = l;
+            scaled[l] = (scaled[l] + scaled[s]) - 1.0;
+            if (scaled[l] < 1.0) {
+                work[small++] = l;
+            } else {
+                work[--large] = l;
+            }
+        }
+        // remaining columns are full except for rounding errors
+        while (small > 0) {
+            final int s = work[--small];
+            threshold[s] = valueMask + 1;
+            alias[s] = s;
+        }
+        while (large < columns) {
+            final int l = work[large++];
+            threshold[l] = valueMask + 1;
+            alias[l] = l;
+        }
+        dirty = false;
+    }
+}
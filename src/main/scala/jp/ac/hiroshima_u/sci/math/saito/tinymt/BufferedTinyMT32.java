@@ -0,0 +1,311 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.util.random.RandomGenerator;
+
+import org.apache.commons.math.random.AbstractRandomGenerator;
+
+/**
+ * BufferedTinyMT32 generates a block of 32-bit integers by TinyMT32 at once,
+ * and returns them one by one.
+ * <p>
+ * Blocks are filled by {@link TinyMT32#nextInts(int[])}, whose tight loop
+ * keeps the state in local variables, so the cost of state transition is
+ * amortized over a block and most calls are an array read.
+ * </p>
+ * <p>
+ * The sequence is exactly same as the wrapped TinyMT32:
+ * {@link #nextInt()}, {@link #nextLong()}, their bounded variants,
+ * {@link #nextDouble()}, {@link #nextFloat()}, {@link #nextGaussian()},
+ * {@link #nextGaussianZiggurat()} and {@link #nextExponential()} return the
+ * same values as TinyMT32 does for the same order of calls. Seeding this
+ * generator reseeds the wrapped generator and discards the buffer. The
+ * wrapped generator should not be used directly while it is wrapped, if it
+ * is, call {@link #discardBuffer()} after that.
+ * </p>
+ * <p>
+ * This class is not synchronized.
+ * </p>
+ *
+ * @author M. Saito
+ */
+public final class BufferedTinyMT32 extends AbstractRandomGenerator
+        implements RandomGenerator {
+    /** default size of block. */
+    public static final int DEFAULT_BLOCK_SIZE = 256;
+    /** bit size of int. */
+    private static final int INT_SIZE = 32;
+    /** int to unsigned long mask. */
+    private static final long INT_TO_LONG_MASK = 0xffffffffL;
+    /** long to double shift. */
+    private static final int LONG_TO_DOUBLE_SHIFT = 12;
+    /** long to double mask. */
+    private static final long LONG_TO_DOUBLE_MASK = 0x3ff0000000000000L;
+    /** int to float shift. */
+    private static final int INT_TO_FLOAT_SHIFT = 9;
+    /** int to float mask. */
+    private static final int INT_TO_FLOAT_MASK = 0x3f800000;
+    /** wrapped generator. */
+    private final TinyMT32 generator;
+    /** block of generated numbers. */
+    private final int[] block;
+    /** index of the next number in block. */
+    private int position;
+
+    /**
+     * Constructor with default block size.
+     *
+     * @param pgenerator
+     *            generator to be wrapped
+     */
+    public BufferedTinyMT32(final TinyMT32 pgenerator) {
+        this(pgenerator, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param pgenerator
+     *            generator to be wrapped
+     * @param blockSize
+     *            number of integers generated at once
+     * @throws IllegalArgumentException
+     *             when blockSize is not positive
+     */
+    public BufferedTinyMT32(final TinyMT32 pgenerator, final int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException(
+                    "block size must be positive");
+        }
+        this.generator = pgenerator;
+        this.block = new int[blockSize];
+        this.position = blockSize;
+    }
+
+    /**
+     * returns wrapped generator.
+     *
+     * @return wrapped generator
+     */
+    public TinyMT32 getGenerator() {
+        return generator;
+    }
+
+    /**
+     * discards numbers in the buffer. Next call generates a new block from
+     * the current state of the wrapped generator.
+     */
+    public void discardBuffer() {
+        position = block.length;
+    }
+
+    /**
+     * returns 32-bit integer.
+     *
+     * @return next int
+     */
+    @Override
+    public int nextInt() {
+        if (position == block.length) {
+            generator.nextInts(block);
+            position = 0;
+        }
+        return block[position++];
+    }
+
+    /**
+     * returns 64-bit integer.
+     *
+     * @return next long
+     */
+    @Override
+    public long nextLong() {
+        long x = nextInt();
+        x = x << INT_SIZE;
+        x |= nextInt() & INT_TO_LONG_MASK;
+        return x;
+    }
+
+    /**
+     * returns double r, 0 <= r < 1.0.
+     *
+     * @return next double
+     */
+    @Override
+    public double nextDouble() {
+        long x = (nextLong() >>> LONG_TO_DOUBLE_SHIFT) | LONG_TO_DOUBLE_MASK;
+        return Double.longBitsToDouble(x) - 1.0;
+    }
+
+    /**
+     * returns float r, 0 <= r < 1.0.
+     *
+     * @return next float
+     */
+    @Override
+    public float nextFloat() {
+        int x = (nextInt() >>> INT_TO_FLOAT_SHIFT) | INT_TO_FLOAT_MASK;
+        return Float.intBitsToFloat(x) - 1.0f;
+    }
+
+    /**
+     * returns 32-bit integer r, 0 <= r < bound, same as the wrapped
+     * generator.
+     *
+     * @param bound
+     *            upper bound (exclusive)
+     * @return next int
+     * @throws IllegalArgumentException
+     *             if bound is not positive
+     */
+    @Override
+    public int nextInt(final int bound) {
+        return MultiplyShift.nextInt(this, bound);
+    }
+
+    /**
+     * returns 32-bit integer r, origin <= r < bound, same as the wrapped
+     * generator.
+     *
+     * @param origin
+     *            least value
+     * @param bound
+     *            upper bound (exclusive)
+     * @return next int
+     * @throws IllegalArgumentException
+     *             if origin is not less than bound
+     */
+    @Override
+    public int nextInt(final int origin, final int bound) {
+        return MultiplyShift.nextInt(this, origin, bound);
+    }
+
+    /**
+     * returns 64-bit integer r, 0 <= r < bound, same as the wrapped
+     * generator.
+     *
+     * @param bound
+     *            upper bound (exclusive)
+     * @return next long
+     * @throws IllegalArgumentException
+     *             if bound is not positive
+     */
+    @Override
+    public long nextLong(final long bound) {
+        return MultiplyShift.nextLong(this, bound);
+    }
+
+    /**
+     * returns 64-bit integer r, origin <= r < bound, same as the wrapped
+     * generator.
+     *
+     * @param origin
+     *            least value
+     * @param bound
+     *            upper bound (exclusive)
+     * @return next long
+     * @throws IllegalArgumentException
+     *             if origin is not less than bound
+     */
+    @Override
+    public long nextLong(final long origin, final long bound) {
+        return MultiplyShift.nextLong(this, origin, bound);
+    }
+
+    /**
+     * returns normal random number by the Ziggurat method, same as the
+     * wrapped generator.
+     *
+     * @return next normal random number
+     * @see TinyMT32#nextGaussianZiggurat()
+     */
+    public double nextGaussianZiggurat() {
+        return Ziggurat.normal(this);
+    }
+
+    /**
+     * returns exponential random number, same as the wrapped generator.
+     *
+     * @return next exponential random number
+     */
+    @Override
+    public double nextExponential() {
+        return Ziggurat.exponential(this);
+    }
+
+    /**
+     * fills the specified range of array with 32-bit integers.
+     * The result is same as calling {@link #nextInt()} {@code len} times.
+     *
+     * @param array
+     *            array to be filled
+     * @param off
+     *            index of the first element to be filled
+     * @param len
+     *            number of elements to be filled
+     */
+    public void nextInts(final int[] array, final int off, final int len) {
+        if (off < 0 || len < 0 || off > array.length - len) {
+            throw new IndexOutOfBoundsException("off:" + off + " len:" + len
+                    + " length:" + array.length);
+        }
+        int n = Math.min(len, block.length - position);
+        System.arraycopy(block, position, array, off, n);
+        position += n;
+        generator.nextInts(array, off + n, len - n);
+    }
+
+    /**
+     * reseeds the wrapped generator and discards the buffer.
+     *
+     * @param seed
+     *            seed
+     * @see TinyMT32#setSeed(long)
+     */
+    @Override
+    public void setSeed(final long seed) {
+        generator.setSeed(seed);
+        discardBuffer();
+        clear();
+    }
+
+    /**
+     * reseeds the wrapped generator and discards the buffer.
+     *
+     * @param seed
+     *            seed
+     * @see TinyMT32#setSeed(int)
+     */
+    @Override
+    public void setSeed(final int seed) {
+        generator.setSeed(seed);
+        discardBuffer();
+        clear();
+    }
+
+    /**
+     * reseeds the wrapped generator and discards the buffer.
+     *
+     * @param seeds
+     *            seeds
+     * @see TinyMT32#setSeed(int[])
+     */
+    @Override
+    public void setSeed(final int[] seeds) {
+        generator.setSeed(seeds);
+        discardBuffer();
+        clear();
+    }
+
+    /**
+     * reseeds the wrapped generator and discards the buffer.
+     *
+     * @param seed
+     *            seed
+     * @see TinyMT32#setSeed(String)
+     */
+    public void setSeed(final String seed) {
+        generator.setSeed(seed);
+        discardBuffer();
+        clear();
+    }
+}
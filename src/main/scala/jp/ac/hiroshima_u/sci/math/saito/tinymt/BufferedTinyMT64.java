@@ -0,0 +1,300 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.util.random.RandomGenerator;
+
+import org.apache.commons.math.random.AbstractRandomGenerator;
+
+/**
+ * BufferedTinyMT64 generates a block of 64-bit integers by TinyMT64 at once,
+ * and returns them one by one.
+ * <p>
+ * Blocks are filled by {@link TinyMT64#nextLongs(long[])}, whose tight loop
+ * keeps the state in local variables, so the cost of state transition is
+ * amortized over a block and most calls are an array read.
+ * </p>
+ * <p>
+ * The sequence is exactly same as the wrapped TinyMT64:
+ * {@link #nextInt()}, {@link #nextLong()}, their bounded variants,
+ * {@link #nextDouble()}, {@link #nextFloat()}, {@link #nextGaussian()},
+ * {@link #nextGaussianZiggurat()} and {@link #nextExponential()} return the
+ * same values as TinyMT64 does for the same order of calls. Seeding this
+ * generator reseeds the wrapped generator and discards the buffer. The
+ * wrapped generator should not be used directly while it is wrapped, if it
+ * is, call {@link #discardBuffer()} after that.
+ * </p>
+ * <p>
+ * This class is not synchronized.
+ * </p>
+ *
+ * @author M. Saito
+ */
+public final class BufferedTinyMT64 extends AbstractRandomGenerator
+        implements RandomGenerator {
+    /** default size of block. */
+    public static final int DEFAULT_BLOCK_SIZE = 256;
+    /** bit size of int. */
+    private static final int INT_SIZE = 32;
+    /** long to double shift. */
+    private static final int LONG_TO_DOUBLE_SHIFT = 12;
+    /** long to double mask. */
+    private static final long LONG_TO_DOUBLE_MASK = 0x3ff0000000000000L;
+    /** wrapped generator. */
+    private final TinyMT64 generator;
+    /** block of generated numbers. */
+    private final long[] block;
+    /** index of the next number in block. */
+    private int position;
+
+    /**
+     * Constructor with default block size.
+     *
+     * @param pgenerator
+     *            generator to be wrapped
+     */
+    public BufferedTinyMT64(final TinyMT64 pgenerator) {
+        this(pgenerator, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param pgenerator
+     *            generator to be wrapped
+     * @param blockSize
+     *            number of integers generated at once
+     * @throws IllegalArgumentException
+     *             when blockSize is not positive
+     */
+    public BufferedTinyMT64(final TinyMT64 pgenerator, final int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException(
+                    "block size must be positive");
+        }
+        this.generator = pgenerator;
+        this.block = new long[blockSize];
+        this.position = blockSize;
+    }
+
+    /**
+     * returns wrapped generator.
+     *
+     * @return wrapped generator
+     */
+    public TinyMT64 getGenerator() {
+        return generator;
+    }
+
+    /**
+     * discards numbers in the buffer. Next call generates a new block from
+     * the current state of the wrapped generator.
+     */
+    public void discardBuffer() {
+        position = block.length;
+    }
+
+    /**
+     * returns 64-bit integer.
+     *
+     * @return next long
+     */
+    @Override
+    public long nextLong() {
+        if (position == block.length) {
+            generator.nextLongs(block);
+            position = 0;
+        }
+        return block[position++];
+    }
+
+    /**
+     * returns upper 32 bits of {@link #nextLong()}.
+     *
+     * @return next int
+     */
+    @Override
+    public int nextInt() {
+        return (int) (nextLong() >>> INT_SIZE);
+    }
+
+    /**
+     * returns double r, 0 <= r < 1.0.
+     *
+     * @return next double
+     */
+    @Override
+    public double nextDouble() {
+        long x = (nextLong() >>> LONG_TO_DOUBLE_SHIFT) | LONG_TO_DOUBLE_MASK;
+        return Double.longBitsToDouble(x) - 1.0;
+    }
+
+    /**
+     * returns float r, 0 <= r < 1.0.
+     *
+     * @return next float
+     */
+    @Override
+    public float nextFloat() {
+        return (float) nextDouble();
+    }
+
+    /**
+     * returns 32-bit integer r, 0 <= r < bound, same as the wrapped
+     * generator.
+     *
+     * @param bound
+     *            upper bound (exclusive)
+     * @return next int
+     * @throws IllegalArgumentException
+     *             if bound is not positive
+     */
+    @Override
+    public int nextInt(final int bound) {
+        return MultiplyShift.nextInt(this, bound);
+    }
+
+    /**
+     * returns 32-bit integer r, origin <= r < bound, same as the wrapped
+     * generator.
+     *
+     * @param origin
+     *            least value
+     * @param bound
+     *            upper bound (exclusive)
+     * @return next int
+     * @throws IllegalArgumentException
+     *             if origin is not less than bound
+     */
+    @Override
+    public int nextInt(final int origin, final int bound) {
+        return MultiplyShift.nextInt(this, origin, bound);
+    }
+
+    /**
+     * returns 64-bit integer r, 0 <= r < bound, same as the wrapped
+     * generator.
+     *
+     * @param bound
+     *            upper bound (exclusive)
+     * @return next long
+     * @throws IllegalArgumentException
+     *             if bound is not positive
+     */
+    @Override
+    public long nextLong(final long bound) {
+        return MultiplyShift.nextLong(this, bound);
+    }
+
+    /**
+     * returns 64-bit integer r, origin <= r < bound, same as the wrapped
+     * generator.
+     *
+     * @param origin
+     *            least value
+     * @param bound
+     *            upper bound (exclusive)
+     * @return next long
+     * @throws IllegalArgumentException
+     *             if origin is not less than bound
+     */
+    @Override
+    public long nextLong(final long origin, final long bound) {
+        return MultiplyShift.nextLong(this, origin, bound);
+    }
+
+    /**
+     * returns normal random number by the Ziggurat method, same as the
+     * wrapped generator.
+     *
+     * @return next normal random number
+     * @see TinyMT64#nextGaussianZiggurat()
+     */
+    public double nextGaussianZiggurat() {
+        return Ziggurat.normal(this);
+    }
+
+    /**
+     * returns exponential random number, same as the wrapped generator.
+     *
+     * @return next exponential random number
+     */
+    @Override
+    public double nextExponential() {
+        return Ziggurat.exponential(this);
+    }
+
+    /**
+     * fills the specified range of array with 64-bit integers.
+     * The result is same as calling {@link #nextLong()} {@code len} times.
+     *
+     * @param array
+     *            array to be filled
+     * @param off
+     *            index of the first element to be filled
+     * @param len
+     *            number of elements to be filled
+     */
+    public void nextLongs(final long[] array, final int off, final int len) {
+        if (off < 0 || len < 0 || off > array.length - len) {
+            throw new IndexOutOfBoundsException("off:" + off + " len:" + len
+                    + " length:" + array.length);
+        }
+        int n = Math.min(len, block.length - position);
+        System.arraycopy(block, position, array, off, n);
+        position += n;
+        generator.nextLongs(array, off + n, len - n);
+    }
+
+    /**
+     * reseeds the wrapped generator and discards the buffer.
+     *
+     * @param seed
+     *            seed
+     * @see TinyMT64#setSeed(long)
+     */
+    @Override
+    public void setSeed(final long seed) {
+        generator.setSeed(seed);
+        discardBuffer();
+        clear();
+    }
+
+    /**
+     * reseeds the wrapped generator and discards the buffer.
+     *
+     * @param seeds
+     *            seeds
+     * @see TinyMT64#setSeed(int[])
+     */
+    @Override
+    public void setSeed(final int[] seeds) {
+        generator.setSeed(seeds);
+        discardBuffer();
+        clear();
+    }
+
+    /**
+     * reseeds the wrapped generator and discards the buffer.
+     *
+     * @param seeds
+     *            seeds
+     * @see TinyMT64#setSeed(long[])
+     */
+    public void setSeed(final long[] seeds) {
+        generator.setSeed(seeds);
+        discardBuffer();
+        clear();
+    }
+
+    /**
+     * reseeds the wrapped generator and discards the buffer.
+     *
+     * @param seed
+     *            seed
+     * @see TinyMT64#setSeed(String)
+     */
+    public void setSeed(final String seed) {
+        generator.setSeed(seed);
+        discardBuffer();
+        clear();
+    }
+}
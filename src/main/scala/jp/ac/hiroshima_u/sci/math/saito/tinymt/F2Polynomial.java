@@ -1,19 +1,48 @@
 package jp.ac.hiroshima_u.sci.math.saito.tinymt;
 
 import java.math.BigInteger;
+import java.util.Arrays;
 
 /**
  * Polynomial over the field of two elements. <b>F</b><sub>2</sub>[t]
  * 
  * This class is immutable.
  * 
- * Caution: This class is not efficient for large polynomial.
+ * Coefficients are kept in an array of long, and arithmetic is done by
+ * word-level xor and shift (carry-less multiplication). Residue
+ * calculation in {@link #powerMod(BigInteger, F2Polynomial)} is
+ * specialized for divisors whose degree is less than 128, which covers
+ * the characteristic polynomials of TinyMT.
  * 
  * @author M. Saito
  */
 final class F2Polynomial {
-    /** internal representation of polynomial. */
-    private final BigInteger pol;
+    /** bit size of a word. */
+    private static final int WORD_SIZE = 64;
+    /** log<sub>2</sub> of WORD_SIZE. */
+    private static final int LOG_WORD_SIZE = 6;
+    /** mask to get bit position in a word. */
+    private static final int WORD_MASK = WORD_SIZE - 1;
+    /** bit size of half word. */
+    private static final int HALF_WORD_SIZE = 32;
+    /** mask of lower half word. */
+    private static final long HALF_WORD_MASK = 0xffffffffL;
+    /** bit size of a byte. */
+    private static final int BYTE_SIZE = 8;
+    /** masks to spread bits of half word, used for squaring. */
+    private static final long[] SPREAD_MASK = {
+        0x0000ffff0000ffffL, 0x00ff00ff00ff00ffL, 0x0f0f0f0f0f0f0f0fL,
+        0x3333333333333333L, 0x5555555555555555L };
+    /** empty array, which represents zero polynomial. */
+    private static final long[] ZERO = new long[0];
+
+    /** internal representation of polynomial, least significant word first.
+     * The most significant word is not zero.
+     */
+    private final long[] words;
+
+    /** cached hash code, zero if not calculated yet. */
+    private int hash;
 
     /**
      * Polynomial X<sup>1</sup> + 0.
@@ -27,7 +56,7 @@ final class F2Polynomial {
      *            a string consists of 0 and 1
      */
     public F2Polynomial(final String val) {
-        pol = new BigInteger(val, 2);
+        this(new BigInteger(val, 2));
     }
 
     /**
@@ -39,7 +68,7 @@ final class F2Polynomial {
      *            radix of the number of val
      */
     public F2Polynomial(final String val, final int radix) {
-        pol = new BigInteger(val, radix);
+        this(new BigInteger(val, radix));
     }
 
     /**
@@ -49,7 +78,53 @@ final class F2Polynomial {
      *            BigInteger which represents polynomial
      */
     private F2Polynomial(final BigInteger big) {
-        pol = big;
+        if (big.signum() < 0) {
+            throw new NumberFormatException("negative value");
+        }
+        long[] w = new long[(big.bitLength() + WORD_MASK) >>> LOG_WORD_SIZE];
+        for (int i = 0; i < w.length; i++) {
+            w[i] = big.shiftRight(i * WORD_SIZE).longValue();
+        }
+        words = w;
+    }
+
+    /**
+     * Constructor from array of words. The array is not copied.
+     * 
+     * @param w
+     *            coefficients, least significant word first
+     */
+    private F2Polynomial(final long[] w) {
+        words = trim(w);
+    }
+
+    /**
+     * returns polynomial of degree less than 128 from two words.
+     * 
+     * @param high
+     *            coefficients of t<sup>64</sup> to t<sup>127</sup>
+     * @param low
+     *            coefficients of t<sup>0</sup> to t<sup>63</sup>
+     * @return polynomial
+     */
+    static F2Polynomial valueOf(final long high, final long low) {
+        return new F2Polynomial(new long[] {low, high});
+    }
+
+    /**
+     * returns coefficients of t<sup>64 * index</sup> to
+     * t<sup>64 * index + 63</sup> as a word.
+     * 
+     * @param index
+     *            index of word, least significant word is 0
+     * @return word of coefficients
+     */
+    long getWord(final int index) {
+        if (index < words.length) {
+            return words[index];
+        } else {
+            return 0;
+        }
     }
 
     /**
@@ -59,23 +134,23 @@ final class F2Polynomial {
      * @return degree of this polynomial
      */
     public int degree() {
-        return degree(pol);
+        return degree(words);
     }
 
     /**
      * If zero, this method returns -1, otherwise, returns the degree of
      * polynomial.
      * 
-     * @param pol
-     *            polynomial
-     * @return degree of polynomial pol
+     * @param w
+     *            trimmed words of polynomial
+     * @return degree of polynomial w
      */
-    private static int degree(final BigInteger pol) {
-        if (pol.equals(BigInteger.ZERO)) {
+    private static int degree(final long[] w) {
+        if (w.length == 0) {
             return -1;
-        } else {
-            return pol.bitLength() - 1;
         }
+        return w.length * WORD_SIZE - 1
+                - Long.numberOfLeadingZeros(w[w.length - 1]);
     }
 
     /**
@@ -86,7 +161,17 @@ final class F2Polynomial {
      * @return result of addition
      */
     public F2Polynomial add(final F2Polynomial that) {
-        return new F2Polynomial(this.pol.xor(that.pol));
+        long[] a = this.words;
+        long[] b = that.words;
+        if (a.length < b.length) {
+            a = that.words;
+            b = this.words;
+        }
+        long[] z = a.clone();
+        for (int i = 0; i < b.length; i++) {
+            z[i] ^= b[i];
+        }
+        return new F2Polynomial(z);
     }
 
     /**
@@ -97,11 +182,7 @@ final class F2Polynomial {
      * @return result of multiplication
      */
     public F2Polynomial mul(final F2Polynomial that) {
-        if (this.degree() >= that.degree()) {
-            return new F2Polynomial(mul(this.pol, that.pol));
-        } else {
-            return new F2Polynomial(mul(that.pol, this.pol));
-        }
+        return new F2Polynomial(mul(this.words, that.words));
     }
 
     /**
@@ -112,37 +193,96 @@ final class F2Polynomial {
      * @return coefficient of specified term
      */
     public int getCoefficient(final int index) {
-        if (pol.testBit(index)) {
-            return 1;
-        } else {
+        int pos = index >>> LOG_WORD_SIZE;
+        if (pos >= words.length) {
             return 0;
         }
+        return (int) (words[pos] >>> (index & WORD_MASK)) & 1;
     }
 
     /**
-     * Multiplication of BigIntegers which represents coefficient of
+     * Multiplication of arrays of words which represent coefficient of
      * polynomials.
      * 
      * @param x
      *            polynomial
      * @param y
      *            polynomial
-     * @return the result of multiplication
-     */
-    private static BigInteger mul(final BigInteger x, final BigInteger y) {
-        BigInteger z = BigInteger.ZERO;
-        BigInteger v = x;
-        BigInteger w = y;
-        while (!w.equals(BigInteger.ZERO)) {
-            if (w.and(BigInteger.ONE).testBit(0)) {
-                z = z.xor(v);
+     * @return the result of multiplication, not trimmed
+     */
+    private static long[] mul(final long[] x, final long[] y) {
+        if (x.length == 0 || y.length == 0) {
+            return ZERO;
+        }
+        long[] z = new long[x.length + y.length];
+        for (int i = 0; i < x.length; i++) {
+            for (int j = 0; j < y.length; j++) {
+                clmul(x[i], y[j], z, i + j);
             }
-            w = w.shiftRight(1);
-            v = v.shiftLeft(1);
         }
         return z;
     }
 
+    /**
+     * Carry-less multiplication of two words. The 128-bit product is added
+     * to {@code z[off]} and {@code z[off + 1]}.
+     * 
+     * @param x
+     *            word
+     * @param y
+     *            word
+     * @param z
+     *            array to which the product is added
+     * @param off
+     *            index of lower word of the product
+     */
+    private static void clmul(final long x, final long y, final long[] z,
+            final int off) {
+        long lo = x & -(y & 1);
+        long hi = 0;
+        for (int i = 1; i < WORD_SIZE; i++) {
+            long m = -((y >>> i) & 1);
+            lo ^= (x << i) & m;
+            hi ^= (x >>> (WORD_SIZE - i)) & m;
+        }
+        z[off] ^= lo;
+        z[off + 1] ^= hi;
+    }
+
+    /**
+     * Square of array of words. Squaring over <b>F<sub>2</sub></b>[t]
+     * moves coefficient of t<sup>i</sup> to t<sup>2i</sup>.
+     * 
+     * @param x
+     *            polynomial
+     * @return the result of square, not trimmed
+     */
+    private static long[] square(final long[] x) {
+        long[] z = new long[x.length * 2];
+        for (int i = 0; i < x.length; i++) {
+            z[2 * i] = spread(x[i]);
+            z[2 * i + 1] = spread(x[i] >>> HALF_WORD_SIZE);
+        }
+        return z;
+    }
+
+    /**
+     * Spread lower 32 bits of x to even bits of the result.
+     * 
+     * @param x
+     *            word
+     * @return spread bits
+     */
+    private static long spread(final long x) {
+        long v = x & HALF_WORD_MASK;
+        int shift = HALF_WORD_SIZE / 2;
+        for (int i = 0; i < SPREAD_MASK.length; i++) {
+            v = (v | (v << shift)) & SPREAD_MASK[i];
+            shift >>>= 1;
+        }
+        return v;
+    }
+
     /**
      * Calculate residue of this polynomial divided by that polynomial. Using
      * means return this % that if this and that were int.
@@ -152,7 +292,7 @@ final class F2Polynomial {
      * @return residue
      */
     public F2Polynomial mod(final F2Polynomial that) {
-        return new F2Polynomial(mod(this.pol, that.pol));
+        return new F2Polynomial(mod(this.words, that.words));
     }
 
     /**
@@ -160,63 +300,64 @@ final class F2Polynomial {
      * return y % that if y and that were int.
      * 
      * @param y
-     *            dividee
+     *            dividee, not changed
      * @param that
-     *            divider
-     * @return residue
+     *            divider, trimmed
+     * @return residue, not trimmed
      */
-    private static BigInteger mod(final BigInteger y, final BigInteger that) {
+    private static long[] mod(final long[] y, final long[] that) {
         int deg = degree(that);
-        int diff = degree(y) - deg;
-        if (diff < 0) {
-            return y;
-        } else if (diff == 0) {
-            return y.xor(that);
-        }
-        BigInteger z = y;
-        BigInteger x = that.shiftLeft(diff);
-        z = z.xor(x);
-        int zdeg = z.bitLength() - 1;
-        while (zdeg >= deg) {
-            x = x.shiftRight(x.bitLength() - 1 - zdeg);
-            z = z.xor(x);
-            zdeg = z.bitLength() - 1;
+        if (deg < 0) {
+            throw new ArithmeticException("division by zero polynomial");
+        }
+        long[] z = y.clone();
+        for (int i = z.length * WORD_SIZE - 1; i >= deg; i--) {
+            if (((z[i >>> LOG_WORD_SIZE] >>> (i & WORD_MASK)) & 1) != 0) {
+                xorShifted(z, that, i - deg);
+            }
         }
         return z;
     }
 
     /**
-     * power of this polynomial, this<sup>pow</sup>.
+     * Add x * t<sup>shift</sup> to z.
      * 
-     * @param pow
-     *            exponent
-     * @return this<sup>pow</sup>
+     * @param z
+     *            polynomial to be changed
+     * @param x
+     *            polynomial
+     * @param shift
+     *            degree of shift
      */
-    public F2Polynomial power(final BigInteger pow) {
-        return new F2Polynomial(power(this.pol, pow));
+    private static void xorShifted(final long[] z, final long[] x,
+            final int shift) {
+        int wordShift = shift >>> LOG_WORD_SIZE;
+        int bitShift = shift & WORD_MASK;
+        for (int i = 0; i < x.length; i++) {
+            z[i + wordShift] ^= x[i] << bitShift;
+            if (bitShift != 0 && i + wordShift + 1 < z.length) {
+                z[i + wordShift + 1] ^= x[i] >>> (WORD_SIZE - bitShift);
+            }
+        }
     }
 
     /**
-     * power of polynomial x, x<sup>pow</sup>.
+     * power of this polynomial, this<sup>pow</sup>.
      * 
-     * @param x
-     *            polynomial
-     * @param power
+     * @param pow
      *            exponent
-     * @return the result of power
-     */
-    private BigInteger power(final BigInteger x, final BigInteger power) {
-        BigInteger z = BigInteger.ONE;
-        BigInteger v = x;
-        BigInteger pow = power;
-        while (!pow.equals(BigInteger.ZERO)) {
-            if (pow.and(BigInteger.ONE).testBit(0)) {
-                z = mul(z, v);
+     * @return this<sup>pow</sup>
+     */
+    public F2Polynomial power(final BigInteger pow) {
+        checkExponent(pow);
+        long[] z = {1};
+        for (int i = pow.bitLength() - 1; i >= 0; i--) {
+            z = trim(square(z));
+            if (pow.testBit(i)) {
+                z = trim(mul(z, words));
             }
-            v = mul(v, v);
-            pow = pow.shiftRight(1);
         }
-        return z;
+        return new F2Polynomial(z);
     }
 
     /**
@@ -229,37 +370,194 @@ final class F2Polynomial {
      * @return polynomial whose degree is less than mod polynomial
      */
     public F2Polynomial powerMod(final BigInteger pow, final F2Polynomial mod) {
-        return new F2Polynomial(powerMod(this.pol, pow, mod.pol));
+        checkExponent(pow);
+        int deg = mod.degree();
+        if (deg < 0) {
+            throw new ArithmeticException("division by zero polynomial");
+        }
+        if (pow.signum() == 0) {
+            return new F2Polynomial(new long[] {1});
+        }
+        if (deg == 0) {
+            return new F2Polynomial(ZERO);
+        }
+        if (deg < 2 * WORD_SIZE) {
+            return new F2Polynomial(powerMod128(words, pow, mod.words));
+        }
+        long[] s = trim(mod(words, mod.words));
+        long[] z = {1};
+        for (int i = pow.bitLength() - 1; i >= 0; i--) {
+            z = trim(mod(square(z), mod.words));
+            if (pow.testBit(i)) {
+                z = trim(mod(mul(z, s), mod.words));
+            }
+        }
+        return new F2Polynomial(z);
     }
 
     /**
-     * returns x<sup>pow</sup> % mod.
+     * returns x<sup>pow</sup> % mod, where degree of mod is between 1 and
+     * 127. Intermediate values are kept in two words, and residues are
+     * calculated using the table of t<sup>k</sup> % mod.
      * 
      * @param x
      *            polynomial
-     * @param power
-     *            exponent
+     * @param pow
+     *            positive exponent
      * @param mod
      *            polynomial
      * @return polynomial whose degree is less than mod polynomial
      */
-    private static BigInteger powerMod(final BigInteger x,
-            final BigInteger power, final BigInteger mod) {
-        BigInteger z = BigInteger.ONE;
-        BigInteger s = x;
-        BigInteger pow = power;
-        while (!pow.equals(BigInteger.ZERO)) {
-            if (pow.and(BigInteger.ONE).testBit(0)) {
-                z = mul(z, s);
-                z = mod(z, mod);
+    private static long[] powerMod128(final long[] x, final BigInteger pow,
+            final long[] mod) {
+        final int deg = degree(mod);
+        final long[] table = reductionTable(mod, deg);
+        final long[] s = new long[2];
+        long[] r = mod(x, mod);
+        System.arraycopy(r, 0, s, 0, Math.min(r.length, 2));
+        final long[] z = {1, 0};
+        final long[] work = new long[4];
+        for (int i = pow.bitLength() - 1; i >= 0; i--) {
+            work[0] = spread(z[0]);
+            work[1] = spread(z[0] >>> HALF_WORD_SIZE);
+            work[2] = spread(z[1]);
+            work[3] = spread(z[1] >>> HALF_WORD_SIZE);
+            reduce(work, table, deg, z);
+            if (pow.testBit(i)) {
+                Arrays.fill(work, 0);
+                clmul(z[0], s[0], work, 0);
+                clmul(z[0], s[1], work, 1);
+                clmul(z[1], s[0], work, 1);
+                clmul(z[1], s[1], work, 2);
+                reduce(work, table, deg, z);
             }
-            s = mul(s, s);
-            s = mod(s, mod);
-            pow = pow.shiftRight(1);
         }
         return z;
     }
 
+    /**
+     * make table of t<sup>deg + k</sup> % mod for 0 &lt;= k &lt; deg - 1.
+     * Each element has two words.
+     * 
+     * @param mod
+     *            polynomial
+     * @param deg
+     *            degree of mod
+     * @return table of residues
+     */
+    private static long[] reductionTable(final long[] mod, final int deg) {
+        long[] table = new long[2 * Math.max(deg - 1, 1)];
+        long lo = mod[0];
+        long hi = 0;
+        if (mod.length > 1) {
+            hi = mod[1];
+        }
+        final long modLo = lo;
+        final long modHi = hi;
+        // remove leading term, t^deg % mod
+        if (deg < WORD_SIZE) {
+            lo ^= 1L << deg;
+        } else {
+            hi ^= 1L << (deg - WORD_SIZE);
+        }
+        for (int k = 0; k < deg - 1; k++) {
+            table[2 * k] = lo;
+            table[2 * k + 1] = hi;
+            hi = (hi << 1) | (lo >>> WORD_MASK);
+            lo <<= 1;
+            long top;
+            if (deg < WORD_SIZE) {
+                top = (lo >>> deg) & 1;
+            } else {
+                top = (hi >>> (deg - WORD_SIZE)) & 1;
+            }
+            lo ^= modLo & -top;
+            hi ^= modHi & -top;
+        }
+        return table;
+    }
+
+    /**
+     * Calculate residue of product of two residues.
+     * 
+     * @param work
+     *            four words of product, whose degree is less than
+     *            2 * deg - 1
+     * @param table
+     *            table made by {@link #reductionTable(long[], int)}
+     * @param deg
+     *            degree of divider
+     * @param z
+     *            two words to which the residue is written
+     */
+    private static void reduce(final long[] work, final long[] table,
+            final int deg, final long[] z) {
+        long lo = work[0];
+        long hi = work[1];
+        if (deg < WORD_SIZE) {
+            lo &= (1L << deg) - 1;
+            hi = 0;
+        } else if (deg < 2 * WORD_SIZE) {
+            hi &= (1L << (deg - WORD_SIZE)) - 1;
+        }
+        for (int k = 0; k < deg - 1; k++) {
+            int i = deg + k;
+            long m = -((work[i >>> LOG_WORD_SIZE] >>> (i & WORD_MASK)) & 1);
+            lo ^= table[2 * k] & m;
+            hi ^= table[2 * k + 1] & m;
+        }
+        z[0] = lo;
+        z[1] = hi;
+    }
+
+    /**
+     * check if the exponent is not negative.
+     * 
+     * @param pow
+     *            exponent
+     */
+    private static void checkExponent(final BigInteger pow) {
+        if (pow.signum() < 0) {
+            throw new IllegalArgumentException("negative exponent");
+        }
+    }
+
+    /**
+     * remove leading zero words.
+     * 
+     * @param w
+     *            words
+     * @return w itself or trimmed copy of w
+     */
+    private static long[] trim(final long[] w) {
+        int len = w.length;
+        while (len > 0 && w[len - 1] == 0) {
+            len--;
+        }
+        if (len == w.length) {
+            return w;
+        }
+        if (len == 0) {
+            return ZERO;
+        }
+        return Arrays.copyOf(w, len);
+    }
+
+    /**
+     * return BigInteger whose bits are coefficients of this polynomial.
+     * 
+     * @return BigInteger representation
+     */
+    private BigInteger toBigInteger() {
+        byte[] bytes = new byte[words.length * (WORD_SIZE / BYTE_SIZE)];
+        for (int i = 0; i < bytes.length; i++) {
+            int bit = (bytes.length - 1 - i) * BYTE_SIZE;
+            bytes[i] = (byte) (words[bit >>> LOG_WORD_SIZE]
+                    >>> (bit & WORD_MASK));
+        }
+        return new BigInteger(1, bytes);
+    }
+
     /**
      * return binary format representation of polynomial.
      * 
@@ -277,7 +575,7 @@ final class F2Polynomial {
      * @return base format string
      */
     public String toString(final int base) {
-        return pol.toString(base);
+        return toBigInteger().toString(base);
     }
     /**
      * return hash code.
@@ -286,7 +584,12 @@ final class F2Polynomial {
      */
     @Override
     public int hashCode() {
-        return pol.hashCode();
+        int h = hash;
+        if (h == 0) {
+            h = toBigInteger().hashCode();
+            hash = h;
+        }
+        return h;
     }
 
     /**
@@ -301,7 +604,7 @@ final class F2Polynomial {
         }
         if (o instanceof F2Polynomial) {
             F2Polynomial p = (F2Polynomial) o;
-            return this.pol.equals(p.pol);
+            return Arrays.equals(this.words, p.words);
         } else {
             return false;
         }
@@ -0,0 +1,375 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.io.IOException;
+import java.util.random.RandomGenerator;
+
+/**
+ * InterleavedTinyMT32 runs four TinyMT32 generators in turn, so that CPU can
+ * execute their independent state transitions in parallel.
+ * <p>
+ * The output sequence is fixed: the k-th output is the
+ * (k / 4)-th output of lane (k % 4). That is, outputs are lane 0, lane 1,
+ * lane 2, lane 3, lane 0, lane 1 and so on, and each lane generates the
+ * same sequence as the TinyMT32 given to the constructor. Four lanes are
+ * stepped together and their outputs are kept in a buffer, so the latency
+ * of one state transition is hidden by the other lanes.
+ * </p>
+ * <p>
+ * Lanes should be jumped copies of one generator by
+ * {@link TinyMT32#getJumpedArray(int, long)}, or generators with distinct
+ * parameters by {@link TinyMT32#getTinyMTArray(int, long)}.
+ * </p>
+ * <p>
+ * {@link #nextLong()}, {@link #nextDouble()} and {@link #nextFloat()}
+ * are made from the interleaved 32-bit sequence in the same way as
+ * TinyMT32. This class is not synchronized.
+ * </p>
+ *
+ * @author M. Saito
+ */
+public final class InterleavedTinyMT32 implements RandomGenerator {
+    /** number of lanes. */
+    public static final int LANES = 4;
+    /** bit size of int. */
+    private static final int INT_SIZE = 32;
+    /** int to unsigned long mask. */
+    private static final long INT_TO_LONG_MASK = 0xffffffffL;
+    /** long to double shift. */
+    private static final int LONG_TO_DOUBLE_SHIFT = 12;
+    /** long to double mask. */
+    private static final long LONG_TO_DOUBLE_MASK = 0x3ff0000000000000L;
+    /** int to float shift. */
+    private static final int INT_TO_FLOAT_SHIFT = 9;
+    /** int to float mask. */
+    private static final int INT_TO_FLOAT_MASK = 0x3f800000;
+    /** mask pattern. */
+    private static final int MASK = 0x7fffffff;
+    /** shift value for state transition. */
+    private static final int SH0 = 1;
+    /** shift value for state transition. */
+    private static final int SH1 = 10;
+    /** shift value for output. */
+    private static final int SH8 = 8;
+    /** internal state of lane 0. */
+    private int a0;
+    /** internal state of lane 0. */
+    private int a1;
+    /** internal state of lane 0. */
+    private int a2;
+    /** internal state of lane 0. */
+    private int a3;
+    /** internal state of lane 1. */
+    private int b0;
+    /** internal state of lane 1. */
+    private int b1;
+    /** internal state of lane 1. */
+    private int b2;
+    /** internal state of lane 1. */
+    private int b3;
+    /** internal state of lane 2. */
+    private int c0;
+    /** internal state of lane 2. */
+    private int c1;
+    /** internal state of lane 2. */
+    private int c2;
+    /** internal state of lane 2. */
+    private int c3;
+    /** internal state of lane 3. */
+    private int d0;
+    /** internal state of lane 3. */
+    private int d1;
+    /** internal state of lane 3. */
+    private int d2;
+    /** internal state of lane 3. */
+    private int d3;
+    /** parameter mat1 of lane 0. */
+    private final int amat1;
+    /** parameter mat2 of lane 0. */
+    private final int amat2;
+    /** parameter tmat of lane 0. */
+    private final int atmat;
+    /** parameter mat1 of lane 1. */
+    private final int bmat1;
+    /** parameter mat2 of lane 1. */
+    private final int bmat2;
+    /** parameter tmat of lane 1. */
+    private final int btmat;
+    /** parameter mat1 of lane 2. */
+    private final int cmat1;
+    /** parameter mat2 of lane 2. */
+    private final int cmat2;
+    /** parameter tmat of lane 2. */
+    private final int ctmat;
+    /** parameter mat1 of lane 3. */
+    private final int dmat1;
+    /** parameter mat2 of lane 3. */
+    private final int dmat2;
+    /** parameter tmat of lane 3. */
+    private final int dtmat;
+    /** outputs of the last step of lanes. */
+    private final int[] buffer = new int[LANES];
+    /** index of the next output in buffer. */
+    private int cursor = LANES;
+
+    /**
+     * Constructor from four generators. Lanes start from the current states
+     * of generators, and generators are not changed.
+     *
+     * @param lanes
+     *            generators of lanes, the length must be {@link #LANES}
+     * @throws IllegalArgumentException
+     *             when the length of lanes is not {@link #LANES}
+     */
+    public InterleavedTinyMT32(final TinyMT32[] lanes) {
+        if (lanes.length != LANES) {
+            throw new IllegalArgumentException("number of lanes must be "
+                    + LANES);
+        }
+        int[] as = lanes[0].getStatus();
+        a0 = as[0];
+        a1 = as[1];
+        a2 = as[2];
+        a3 = as[3];
+        amat1 = lanes[0].getParameter().getMat1();
+        amat2 = lanes[0].getParameter().getMat2();
+        atmat = lanes[0].getParameter().getTmat();
+        int[] bs = lanes[1].getStatus();
+        b0 = bs[0];
+        b1 = bs[1];
+        b2 = bs[2];
+        b3 = bs[3];
+        bmat1 = lanes[1].getParameter().getMat1();
+        bmat2 = lanes[1].getParameter().getMat2();
+        btmat = lanes[1].getParameter().getTmat();
+        int[] cs = lanes[2].getStatus();
+        c0 = cs[0];
+        c1 = cs[1];
+        c2 = cs[2];
+        c3 = cs[3];
+        cmat1 = lanes[2].getParameter().getMat1();
+        cmat2 = lanes[2].getParameter().getMat2();
+        ctmat = lanes[2].getParameter().getTmat();
+        int[] ds = lanes[3].getStatus();
+        d0 = ds[0];
+        d1 = ds[1];
+        d2 = ds[2];
+        d3 = ds[3];
+        dmat1 = lanes[3].getParameter().getMat1();
+        dmat2 = lanes[3].getParameter().getMat2();
+        dtmat = lanes[3].getParameter().getTmat();
+    }
+
+    /**
+     * returns generator whose lanes are jumped copies of tiny.
+     *
+     * @param tiny
+     *            generator of lane 0
+     * @param jump
+     *            jump step between lanes is {@code jump} * 2<sup>64</sup>
+     * @return interleaved generator
+     */
+    public static InterleavedTinyMT32 ofJumped(final TinyMT32 tiny,
+            final long jump) {
+        return new InterleavedTinyMT32(tiny.getJumpedArray(LANES, jump));
+    }
+
+    /**
+     * returns generator whose lanes have distinct parameters. The lanes are
+     * the generators of {@link TinyMT32#getTinyMTArray(int, long)}, which
+     * use the first {@link #LANES} parameters of tinymt32dc.0.65536.txt.
+     *
+     * @param seed
+     *            seed of each lane
+     * @return interleaved generator
+     * @throws IOException
+     *             when can't read resource file
+     */
+    public static InterleavedTinyMT32 ofParameters(final long seed)
+            throws IOException {
+        return new InterleavedTinyMT32(TinyMT32.getTinyMTArray(LANES, seed));
+    }
+
+    /**
+     * returns 32-bit integer.
+     *
+     * @return next int
+     */
+    @Override
+    public int nextInt() {
+        if (cursor == LANES) {
+            step(buffer, 0, 1);
+            cursor = 0;
+        }
+        return buffer[cursor++];
+    }
+
+    /**
+     * returns 64-bit integer made from two 32-bit integers, the first one is
+     * upper.
+     *
+     * @return next long
+     */
+    @Override
+    public long nextLong() {
+        long x = nextInt();
+        x = x << INT_SIZE;
+        x |= nextInt() & INT_TO_LONG_MASK;
+        return x;
+    }
+
+    /**
+     * returns double r, 0 <= r < 1.0, made from {@link #nextLong()}.
+     *
+     * @return next double
+     */
+    @Override
+    public double nextDouble() {
+        long x = (nextLong() >>> LONG_TO_DOUBLE_SHIFT) | LONG_TO_DOUBLE_MASK;
+        return Double.longBitsToDouble(x) - 1.0;
+    }
+
+    /**
+     * returns float r, 0 <= r < 1.0, made from {@link #nextInt()}.
+     *
+     * @return next float
+     */
+    @Override
+    public float nextFloat() {
+        int x = (nextInt() >>> INT_TO_FLOAT_SHIFT) | INT_TO_FLOAT_MASK;
+        return Float.intBitsToFloat(x) - 1.0f;
+    }
+
+    /**
+     * fills the specified range of array with 32-bit integers.
+     * The result is same as calling {@link #nextInt()} {@code len} times.
+     *
+     * @param array
+     *            array to be filled
+     * @param off
+     *            index of the first element to be filled
+     * @param len
+     *            number of elements to be filled
+     */
+    public void nextInts(final int[] array, final int off, final int len) {
+        if (off < 0 || len < 0 || off > array.length - len) {
+            throw new IndexOutOfBoundsException("off:" + off + " len:" + len
+                    + " length:" + array.length);
+        }
+        final int end = off + len;
+        int i = off;
+        while (cursor < LANES && i < end) {
+            array[i++] = buffer[cursor++];
+        }
+        int count = (end - i) / LANES;
+        step(array, i, count);
+        i += count * LANES;
+        while (i < end) {
+            array[i++] = nextInt();
+        }
+    }
+
+    /**
+     * steps all lanes {@code count} times, and stores outputs in order of
+     * lanes.
+     *
+     * @param out
+     *            array to store outputs
+     * @param off
+     *            index of the first output
+     * @param count
+     *            number of steps
+     */
+    private void step(final int[] out, final int off, final int count) {
+        int a0 = this.a0;
+        int a1 = this.a1;
+        int a2 = this.a2;
+        int a3 = this.a3;
+        final int amat1 = this.amat1;
+        final int amat2 = this.amat2;
+        final int atmat = this.atmat;
+        int b0 = this.b0;
+        int b1 = this.b1;
+        int b2 = this.b2;
+        int b3 = this.b3;
+        final int bmat1 = this.bmat1;
+        final int bmat2 = this.bmat2;
+        final int btmat = this.btmat;
+        int c0 = this.c0;
+        int c1 = this.c1;
+        int c2 = this.c2;
+        int c3 = this.c3;
+        final int cmat1 = this.cmat1;
+        final int cmat2 = this.cmat2;
+        final int ctmat = this.ctmat;
+        int d0 = this.d0;
+        int d1 = this.d1;
+        int d2 = this.d2;
+        int d3 = this.d3;
+        final int dmat1 = this.dmat1;
+        final int dmat2 = this.dmat2;
+        final int dtmat = this.dtmat;
+        final int end = off + count * LANES;
+        int x;
+        int y;
+        int odd;
+        int t;
+        for (int i = off; i < end; i += LANES) {
+            x = (a0 & MASK) ^ a1 ^ a2;
+            x ^= x << SH0;
+            y = a3 ^ (a3 >>> SH0) ^ x;
+            odd = -(y & 1);
+            a0 = a1;
+            a1 = a2 ^ (odd & amat1);
+            a2 = x ^ (y << SH1) ^ (odd & amat2);
+            a3 = y;
+            t = a0 + (a2 >>> SH8);
+            out[i] = a3 ^ t ^ (-(t & 1) & atmat);
+            x = (b0 & MASK) ^ b1 ^ b2;
+            x ^= x << SH0;
+            y = b3 ^ (b3 >>> SH0) ^ x;
+            odd = -(y & 1);
+            b0 = b1;
+            b1 = b2 ^ (odd & bmat1);
+            b2 = x ^ (y << SH1) ^ (odd & bmat2);
+            b3 = y;
+            t = b0 + (b2 >>> SH8);
+            out[i + 1] = b3 ^ t ^ (-(t & 1) & btmat);
+            x = (c0 & MASK) ^ c1 ^ c2;
+            x ^= x << SH0;
+            y = c3 ^ (c3 >>> SH0) ^ x;
+            odd = -(y & 1);
+            c0 = c1;
+            c1 = c2 ^ (odd & cmat1);
+            c2 = x ^ (y << SH1) ^ (odd & cmat2);
+            c3 = y;
+            t = c0 + (c2 >>> SH8);
+            out[i + 2] = c3 ^ t ^ (-(t & 1) & ctmat);
+            x = (d0 & MASK) ^ d1 ^ d2;
+            x ^= x << SH0;
+            y = d3 ^ (d3 >>> SH0) ^ x;
+            odd = -(y & 1);
+            d0 = d1;
+            d1 = d2 ^ (odd & dmat1);
+            d2 = x ^ (y << SH1) ^ (odd & dmat2);
+            d3 = y;
+            t = d0 + (d2 >>> SH8);
+            out[i + 3] = d3 ^ t ^ (-(t & 1) & dtmat);
+        }
+        this.a0 = a0;
+        this.a1 = a1;
+        this.a2 = a2;
+        this.a3 = a3;
+        this.b0 = b0;
+        this.b1 = b1;
+        this.b2 = b2;
+        this.b3 = b3;
+        this.c0 = c0;
+        this.c1 = c1;
+        this.c2 = c2;
+        this.c3 = c3;
+        this.d0 = d0;
+        this.d1 = d1;
+        this.d2 = d2;
+        this.d3 = d3;
+    }
+}
@@ -0,0 +1,323 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.io.IOException;
+import java.util.random.RandomGenerator;
+
+/**
+ * InterleavedTinyMT64 runs four TinyMT64 generators in turn, so that CPU can
+ * execute their independent state transitions in parallel.
+ * <p>
+ * The output sequence is fixed: the k-th output is the
+ * (k / 4)-th output of lane (k % 4). That is, outputs are lane 0, lane 1,
+ * lane 2, lane 3, lane 0, lane 1 and so on, and each lane generates the
+ * same sequence as the TinyMT64 given to the constructor. Four lanes are
+ * stepped together and their outputs are kept in a buffer, so the latency
+ * of one state transition is hidden by the other lanes.
+ * </p>
+ * <p>
+ * Lanes should be jumped copies of one generator by
+ * {@link TinyMT64#getJumpedArray(int, long)}, or generators with distinct
+ * parameters by {@link TinyMT64#getTinyMTArray(int, long)}.
+ * </p>
+ * <p>
+ * {@link #nextInt()}, {@link #nextDouble()} and {@link #nextFloat()}
+ * are made from the interleaved 64-bit sequence in the same way as
+ * TinyMT64. This class is not synchronized.
+ * </p>
+ *
+ * @author M. Saito
+ */
+public final class InterleavedTinyMT64 implements RandomGenerator {
+    /** number of lanes. */
+    public static final int LANES = 4;
+    /** bit size of int. */
+    private static final int INT_SIZE = 32;
+    /** long to double shift. */
+    private static final int LONG_TO_DOUBLE_SHIFT = 12;
+    /** long to double mask. */
+    private static final long LONG_TO_DOUBLE_MASK = 0x3ff0000000000000L;
+    /** mask pattern. */
+    private static final long MASK = 0x7fffffffffffffffL;
+    /** shift value for state transition. */
+    private static final int SH0 = 12;
+    /** shift value for state transition. */
+    private static final int SH1 = 11;
+    /** shift value for output. */
+    private static final int SH8 = 8;
+    /** internal state of lane 0. */
+    private long a0;
+    /** internal state of lane 0. */
+    private long a1;
+    /** internal state of lane 1. */
+    private long b0;
+    /** internal state of lane 1. */
+    private long b1;
+    /** internal state of lane 2. */
+    private long c0;
+    /** internal state of lane 2. */
+    private long c1;
+    /** internal state of lane 3. */
+    private long d0;
+    /** internal state of lane 3. */
+    private long d1;
+    /** parameter mat1 of lane 0. */
+    private final long amat1;
+    /** parameter mat2 of lane 0, shifted to upper 32 bits. */
+    private final long amat2;
+    /** parameter tmat of lane 0. */
+    private final long atmat;
+    /** parameter mat1 of lane 1. */
+    private final long bmat1;
+    /** parameter mat2 of lane 1, shifted to upper 32 bits. */
+    private final long bmat2;
+    /** parameter tmat of lane 1. */
+    private final long btmat;
+    /** parameter mat1 of lane 2. */
+    private final long cmat1;
+    /** parameter mat2 of lane 2, shifted to upper 32 bits. */
+    private final long cmat2;
+    /** parameter tmat of lane 2. */
+    private final long ctmat;
+    /** parameter mat1 of lane 3. */
+    private final long dmat1;
+    /** parameter mat2 of lane 3, shifted to upper 32 bits. */
+    private final long dmat2;
+    /** parameter tmat of lane 3. */
+    private final long dtmat;
+    /** outputs of the last step of lanes. */
+    private final long[] buffer = new long[LANES];
+    /** index of the next output in buffer. */
+    private int cursor = LANES;
+
+    /**
+     * Constructor from four generators. Lanes start from the current states
+     * of generators, and generators are not changed.
+     *
+     * @param lanes
+     *            generators of lanes, the length must be {@link #LANES}
+     * @throws IllegalArgumentException
+     *             when the length of lanes is not {@link #LANES}
+     */
+    public InterleavedTinyMT64(final TinyMT64[] lanes) {
+        if (lanes.length != LANES) {
+            throw new IllegalArgumentException("number of lanes must be "
+                    + LANES);
+        }
+        long[] as = lanes[0].getStatus();
+        a0 = as[0];
+        a1 = as[1];
+        amat1 = lanes[0].getParameter().getMat1();
+        amat2 = lanes[0].getParameter().getMat2() << INT_SIZE;
+        atmat = lanes[0].getParameter().getTmat();
+        long[] bs = lanes[1].getStatus();
+        b0 = bs[0];
+        b1 = bs[1];
+        bmat1 = lanes[1].getParameter().getMat1();
+        bmat2 = lanes[1].getParameter().getMat2() << INT_SIZE;
+        btmat = lanes[1].getParameter().getTmat();
+        long[] cs = lanes[2].getStatus();
+        c0 = cs[0];
+        c1 = cs[1];
+        cmat1 = lanes[2].getParameter().getMat1();
+        cmat2 = lanes[2].getParameter().getMat2() << INT_SIZE;
+        ctmat = lanes[2].getParameter().getTmat();
+        long[] ds = lanes[3].getStatus();
+        d0 = ds[0];
+        d1 = ds[1];
+        dmat1 = lanes[3].getParameter().getMat1();
+        dmat2 = lanes[3].getParameter().getMat2() << INT_SIZE;
+        dtmat = lanes[3].getParameter().getTmat();
+    }
+
+    /**
+     * returns generator whose lanes are jumped copies of tiny.
+     *
+     * @param tiny
+     *            generator of lane 0
+     * @param jump
+     *            jump step between lanes is {@code jump} * 2<sup>64</sup>
+     * @return interleaved generator
+     */
+    public static InterleavedTinyMT64 ofJumped(final TinyMT64 tiny,
+            final long jump) {
+        return new InterleavedTinyMT64(tiny.getJumpedArray(LANES, jump));
+    }
+
+    /**
+     * returns generator whose lanes have distinct parameters. The lanes are
+     * the generators of {@link TinyMT64#getTinyMTArray(int, long)}, which
+     * use the first {@link #LANES} parameters of tinymt64dc.0.65536.txt.
+     *
+     * @param seed
+     *            seed of each lane
+     * @return interleaved generator
+     * @throws IOException
+     *             when can't read resource file
+     */
+    public static InterleavedTinyMT64 ofParameters(final long seed)
+            throws IOException {
+        return new InterleavedTinyMT64(TinyMT64.getTinyMTArray(LANES, seed));
+    }
+
+    /**
+     * returns 64-bit integer.
+     *
+     * @return next long
+     */
+    @Override
+    public long nextLong() {
+        if (cursor == LANES) {
+            step(buffer, 0, 1);
+            cursor = 0;
+        }
+        return buffer[cursor++];
+    }
+
+    /**
+     * returns upper 32 bits of {@link #nextLong()}.
+     *
+     * @return next int
+     */
+    @Override
+    public int nextInt() {
+        return (int) (nextLong() >>> INT_SIZE);
+    }
+
+    /**
+     * returns double r, 0 <= r < 1.0, made from {@link #nextLong()}.
+     *
+     * @return next double
+     */
+    @Override
+    public double nextDouble() {
+        long x = (nextLong() >>> LONG_TO_DOUBLE_SHIFT) | LONG_TO_DOUBLE_MASK;
+        return Double.longBitsToDouble(x) - 1.0;
+    }
+
+    /**
+     * returns float r, 0 <= r < 1.0, made from {@link #nextDouble()}.
+     *
+     * @return next float
+     */
+    @Override
+    public float nextFloat() {
+        return (float) nextDouble();
+    }
+
+    /**
+     * fills the specified range of array with 64-bit integers.
+     * The result is same as calling {@link #nextLong()} {@code len} times.
+     *
+     * @param array
+     *            array to be filled
+     * @param off
+     *            index of the first element to be filled
+     * @param len
+     *            number of elements to be filled
+     */
+    public void nextLongs(final long[] array, final int off, final int len) {
+        if (off < 0 || len < 0 || off > array.length - len) {
+            throw new IndexOutOfBoundsException("off:" + off + " len:" + len
+                    + " length:" + array.length);
+        }
+        final int end = off + len;
+        int i = off;
+        while (cursor < LANES && i < end) {
+            array[i++] = buffer[cursor++];
+        }
+        int count = (end - i) / LANES;
+        step(array, i, count);
+        i += count * LANES;
+        while (i < end) {
+            array[i++] = nextLong();
+        }
+    }
+
+    /**
+     * steps all lanes {@code count} times, and stores outputs in order of
+     * lanes.
+     *
+     * @param out
+     *            array to store outputs
+     * @param off
+     *            index of the first output
+     * @param count
+     *            number of steps
+     */
+    private void step(final long[] out, final int off, final int count) {
+        long a0 = this.a0;
+        long a1 = this.a1;
+        final long amat1 = this.amat1;
+        final long amat2 = this.amat2;
+        final long atmat = this.atmat;
+        long b0 = this.b0;
+        long b1 = this.b1;
+        final long bmat1 = this.bmat1;
+        final long bmat2 = this.bmat2;
+        final long btmat = this.btmat;
+        long c0 = this.c0;
+        long c1 = this.c1;
+        final long cmat1 = this.cmat1;
+        final long cmat2 = this.cmat2;
+        final long ctmat = this.ctmat;
+        long d0 = this.d0;
+        long d1 = this.d1;
+        final long dmat1 = this.dmat1;
+        final long dmat2 = this.dmat2;
+        final long dtmat = this.dtmat;
+        final int end = off + count * LANES;
+        long x;
+        long odd;
+        long t;
+        for (int i = off; i < end; i += LANES) {
+            x = (a0 & MASK) ^ a1;
+            x ^= x << SH0;
+            x ^= x >>> INT_SIZE;
+            x ^= x << INT_SIZE;
+            x ^= x << SH1;
+            odd = -(x & 1);
+            a0 = a1 ^ (odd & amat1);
+            a1 = x ^ (odd & amat2);
+            t = (a0 + a1) ^ (a0 >>> SH8);
+            out[i] = t ^ (-(t & 1) & atmat);
+            x = (b0 & MASK) ^ b1;
+            x ^= x << SH0;
+            x ^= x >>> INT_SIZE;
+            x ^= x << INT_SIZE;
+            x ^= x << SH1;
+            odd = -(x & 1);
+            b0 = b1 ^ (odd & bmat1);
+            b1 = x ^ (odd & bmat2);
+            t = (b0 + b1) ^ (b0 >>> SH8);
+            out[i + 1] = t ^ (-(t & 1) & btmat);
+            x = (c0 & MASK) ^ c1;
+            x ^= x << SH0;
+            x ^= x >>> INT_SIZE;
+            x ^= x << INT_SIZE;
+            x ^= x << SH1;
+            odd = -(x & 1);
+            c0 = c1 ^ (odd & cmat1);
+            c1 = x ^ (odd & cmat2);
+            t = (c0 + c1) ^ (c0 >>> SH8);
+            out[i + 2] = t ^ (-(t & 1) & ctmat);
+            x = (d0 & MASK) ^ d1;
+            x ^= x << SH0;
+            x ^= x >>> INT_SIZE;
+            x ^= x << INT_SIZE;
+            x ^= x << SH1;
+            odd = -(x & 1);
+            d0 = d1 ^ (odd & dmat1);
+            d1 = x ^ (odd & dmat2);
+            t = (d0 + d1) ^ (d0 >>> SH8);
+            out[i + 3] = t ^ (-(t & 1) & dtmat);
+        }
+        this.a0 = a0;
+        this.a1 = a1;
+        this.b0 = b0;
+        this.b1 = b1;
+        this.c0 = c0;
+        this.c1 = c1;
+        this.d0 = d0;
+        this.d1 = d1;
+    }
+}
@@ -0,0 +1,220 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class keeps jump polynomials, t<sup>pow</sup> % characteristic
+ * polynomial, so that generators with the same parameter and the same jump
+ * step do not calculate them again.
+ * <p>
+ * Jump polynomials of 2<sup>64</sup> and 2<sup>96</sup> steps for the
+ * default parameters of TinyMT32 and TinyMT64 are precomputed. Other
+ * polynomials are calculated on demand and kept in a bounded cache, the least
+ * recently used one is discarded first.
+ * </p>
+ * <p>
+ * This class is thread safe.
+ * </p>
+ * 
+ * @author M. Saito
+ */
+final class JumpPolynomialCache {
+    /** maximum number of polynomials kept in the cache. */
+    private static final int MAX_SIZE = 256;
+    /** initial capacity of the cache. */
+    private static final int INITIAL_CAPACITY = 16;
+    /** load factor of the cache. */
+    private static final float LOAD_FACTOR = 0.75f;
+    /** hexadecimal format. */
+    private static final int HEX_FORMAT = 16;
+    /** multiplier to combine hash codes. */
+    private static final int HASH_MULTIPLIER = 31;
+    /** 2<sup>64</sup>. */
+    static final BigInteger JUMP_64 = BigInteger.ONE.shiftLeft(64);
+    /** 2<sup>96</sup>. */
+    static final BigInteger JUMP_96 = BigInteger.ONE.shiftLeft(96);
+    /** number of levels of {@link #powerTable(F2Polynomial)}. */
+    static final int POWER_LEVELS = 63;
+    /** 2, exponent of square. */
+    private static final BigInteger TWO = BigInteger.valueOf(2);
+    /** precomputed jump polynomials, which are never discarded. */
+    private static final Map<Key, F2Polynomial> PRECOMPUTED
+        = new HashMap<Key, F2Polynomial>();
+    /** jump polynomials calculated on demand. */
+    private static final Map<Key, F2Polynomial> CACHE
+        = new LinkedHashMap<Key, F2Polynomial>(INITIAL_CAPACITY,
+                LOAD_FACTOR, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(
+                    final Map.Entry<Key, F2Polynomial> eldest) {
+                return size() > MAX_SIZE;
+            }
+        };
+    /** number of requests found in the cache. */
+    private static final AtomicLong HIT_COUNT = new AtomicLong();
+    /** number of requests which needed calculation. */
+    private static final AtomicLong MISS_COUNT = new AtomicLong();
+
+    static {
+        // TinyMT32 default parameter
+        putPrecomputed("d8524022ed8dff4a8dcc50c798faba43", JUMP_64,
+                "c1118b8caf7a3e7b9af8e9bc86806e9");
+        putPrecomputed("d8524022ed8dff4a8dcc50c798faba43", JUMP_96,
+                "bad719ca5746382808aa43b6a459a4e");
+        // TinyMT64 default parameter
+        putPrecomputed("945e0ad4a30ec19432dfa9d5959e5d5d", JUMP_64,
+                "bec2e96022da51d8f84509ec07c2d57");
+        putPrecomputed("945e0ad4a30ec19432dfa9d5959e5d5d", JUMP_96,
+                "70486a50e55062aadd27b80662cdd9ba");
+    }
+
+    /**
+     * killing default constructor.
+     */
+    private JumpPolynomialCache() {
+    }
+
+    /**
+     * register precomputed jump polynomial.
+     * 
+     * @param characteristic
+     *            characteristic polynomial in hexadecimal format
+     * @param pow
+     *            jump step
+     * @param jumpPoly
+     *            jump polynomial in hexadecimal format
+     */
+    private static void putPrecomputed(final String characteristic,
+            final BigInteger pow, final String jumpPoly) {
+        PRECOMPUTED.put(
+                new Key(new F2Polynomial(characteristic, HEX_FORMAT), pow),
+                new F2Polynomial(jumpPoly, HEX_FORMAT));
+    }
+
+    /**
+     * returns jump polynomial t<sup>pow</sup> % characteristic.
+     * 
+     * @param characteristic
+     *            characteristic polynomial of generator
+     * @param pow
+     *            jump step
+     * @return jump polynomial
+     */
+    static F2Polynomial get(final F2Polynomial characteristic,
+            final BigInteger pow) {
+        Key key = new Key(characteristic, pow);
+        F2Polynomial jumpPoly = PRECOMPUTED.get(key);
+        if (jumpPoly == null) {
+            synchronized (CACHE) {
+                jumpPoly = CACHE.get(key);
+            }
+        }
+        if (jumpPoly != null) {
+            HIT_COUNT.incrementAndGet();
+            return jumpPoly;
+        }
+        MISS_COUNT.incrementAndGet();
+        jumpPoly = F2Polynomial.X.powerMod(pow, characteristic);
+        synchronized (CACHE) {
+            CACHE.put(key, jumpPoly);
+        }
+        return jumpPoly;
+    }
+
+    /**
+     * returns jump polynomials of 2<sup>64 + level</sup> steps for level 0
+     * to {@link #POWER_LEVELS} - 1. The polynomial of each level is the
+     * square of the previous one. The result is not kept by this class;
+     * parameters keep it for their generators, so that split and jumps by
+     * powers of two need no lock.
+     *
+     * @param characteristic
+     *            characteristic polynomial of generator
+     * @return jump polynomials indexed by level
+     */
+    static F2Polynomial[] powerTable(final F2Polynomial characteristic) {
+        F2Polynomial[] table = new F2Polynomial[POWER_LEVELS];
+        table[0] = F2Polynomial.X.powerMod(JUMP_64, characteristic);
+        for (int i = 1; i < POWER_LEVELS; i++) {
+            table[i] = table[i - 1].powerMod(TWO, characteristic);
+        }
+        return table;
+    }
+
+    /**
+     * returns number of requests found in the cache.
+     * 
+     * @return hit count
+     */
+    static long getHitCount() {
+        return HIT_COUNT.get();
+    }
+
+    /**
+     * returns number of requests which needed calculation.
+     * 
+     * @return miss count
+     */
+    static long getMissCount() {
+        return MISS_COUNT.get();
+    }
+
+    /**
+     * discards polynomials calculated on demand. Precomputed polynomials
+     * and counters are not changed.
+     */
+    static void clear() {
+        synchronized (CACHE) {
+            CACHE.clear();
+        }
+    }
+
+    /**
+     * key of cache, a pair of characteristic polynomial and jump step.
+     */
+    private static final class Key {
+        /** characteristic polynomial. */
+        private final F2Polynomial characteristic;
+        /** jump step. */
+        private final BigInteger pow;
+
+        /**
+         * constructor.
+         * 
+         * @param pcharacteristic
+         *            characteristic polynomial
+         * @param ppow
+         *            jump step
+         */
+        Key(final F2Polynomial pcharacteristic, final BigInteger ppow) {
+            this.characteristic = pcharacteristic;
+            this.pow = ppow;
+        }
+
+        @Override
+        public int hashCode() {
+            return characteristic.hashCode() * HASH_MULTIPLIER
+                    + pow.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o instanceof Key) {
+                Key k = (Key) o;
+                return characteristic.equals(k.characteristic)
+                        && pow.equals(k.pow);
+            } else {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * This class generates bounded random integers by multiplication and shift
+ * with rejection by D. Lemire.
+ * <p>
+ * A random integer is multiplied by the bound, and the upper half of the
+ * product is the result. The product is rejected if its lower half is less
+ * than 2<sup>32</sup> mod bound (or 2<sup>64</sup> mod bound), which is
+ * computed only when the lower half is less than bound. So the result is
+ * not biased, and one {@link RandomGenerator#nextInt()} or
+ * {@link RandomGenerator#nextLong()} is used in most cases. The same
+ * generator gives the same sequence of bounded integers through every
+ * class of this package which uses this class.
+ * </p>
+ * <p>
+ * This class is thread safe, but generators given to it are not.
+ * </p>
+ *
+ * @author M. Saito
+ * @see <a href="https://doi.org/10.1145/3230636">D. Lemire, Fast Random
+ *      Integer Generation in an Interval</a>
+ */
+final class MultiplyShift {
+    /** bit size of int. */
+    private static final int INT_SIZE = 32;
+    /** int to unsigned long mask. */
+    private static final long INT_TO_LONG_MASK = 0xffffffffL;
+    /** shift to get sign of long as mask. */
+    private static final int SIGN_SHIFT = 63;
+
+    /**
+     * killing default constructor.
+     */
+    private MultiplyShift() {
+    }
+
+    /**
+     * returns 32-bit integer r, 0 <= r < bound.
+     *
+     * @param rng
+     *            generator
+     * @param bound
+     *            upper bound (exclusive)
+     * @return random int
+     * @throws IllegalArgumentException
+     *             if bound is not positive
+     */
+    static int nextInt(final RandomGenerator rng, final int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        return nextUnsignedInt(rng, bound);
+    }
+
+    /**
+     * returns 32-bit integer r, origin <= r < bound.
+     *
+     * @param rng
+     *            generator
+     * @param origin
+     *            least value
+     * @param bound
+     *            upper bound (exclusive)
+     * @return random int
+     * @throws IllegalArgumentException
+     *             if origin is not less than bound
+     */
+    static int nextInt(final RandomGenerator rng, final int origin,
+            final int bound) {
+        RandomSpliterators.checkRange(origin, bound);
+        return origin + nextUnsignedInt(rng, bound - origin);
+    }
+
+    /**
+     * returns 64-bit integer r, 0 <= r < bound.
+     *
+     * @param rng
+     *            generator
+     * @param bound
+     *            upper bound (exclusive)
+     * @return random long
+     * @throws IllegalArgumentException
+     *             if bound is not positive
+     */
+    static long nextLong(final RandomGenerator rng, final long bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        return nextUnsignedLong(rng, bound);
+    }
+
+    /**
+     * returns 64-bit integer r, origin <= r < bound.
+     *
+     * @param rng
+     *            generator
+     * @param origin
+     *            least value
+     * @param bound
+     *            upper bound (exclusive)
+     * @return random long
+     * @throws IllegalArgumentException
+     *             if origin is not less than bound
+     */
+    static long nextLong(final RandomGenerator rng, final long origin,
+            final long bound) {
+        RandomSpliterators.checkRange(origin, bound);
+        return origin + nextUnsignedLong(rng, bound - origin);
+    }
+
+    /**
+     * returns unsigned 32-bit integer r, 0 <= r < bound.
+     *
+     * @param rng
+     *            generator
+     * @param bound
+     *            upper bound (exclusive) as unsigned, not zero
+     * @return random int
+     */
+    private static int nextUnsignedInt(final RandomGenerator rng,
+            final int bound) {
+        final long ubound = bound & INT_TO_LONG_MASK;
+        long m = (rng.nextInt() & INT_TO_LONG_MASK) * ubound;
+        if (Integer.compareUnsigned((int) m, bound) < 0) {
+            final int threshold = Integer.remainderUnsigned(-bound, bound);
+            while (Integer.compareUnsigned((int) m, threshold) < 0) {
+                m = (rng.nextInt() & INT_TO_LONG_MASK) * ubound;
+            }
+        }
+        return (int) (m >>> INT_SIZE);
+    }
+
+    /**
+     * returns unsigned 64-bit integer r, 0 <= r < bound.
+     *
+     * @param rng
+     *            generator
+     * @param bound
+     *            upper bound (exclusive) as unsigned, not zero
+     * @return random long
+     */
+    private static long nextUnsignedLong(final RandomGenerator rng,
+            final long bound) {
+        long r = rng.nextLong();
+        if (Long.compareUnsigned(r * bound, bound) < 0) {
+            final long threshold = Long.remainderUnsigned(-bound, bound);
+            while (Long.compareUnsigned(r * bound, threshold) < 0) {
+                r = rng.nextLong();
+            }
+        }
+        return unsignedMultiplyHigh(r, bound);
+    }
+
+    /**
+     * returns the upper 64 bits of the 128-bit unsigned product.
+     *
+     * @param x
+     *            unsigned multiplier
+     * @param y
+     *            unsigned multiplier
+     * @return upper half of x * y
+     */
+    private static long unsignedMultiplyHigh(final long x, final long y) {
+        return Math.multiplyHigh(x, y) + ((x >> SIGN_SHIFT) & y)
+                + ((y >> SIGN_SHIFT) & x);
+    }
+}
@@ -0,0 +1,342 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.util.random.RandomGenerator;
+
+import org.apache.commons.math.random.AbstractRandomGenerator;
+
+/**
+ * PackedTinyMT64 serves small random values from the bits of 64-bit outputs
+ * of TinyMT64, so that no bit of an output is thrown away.
+ * <p>
+ * TinyMT64 uses one state transition for each {@link TinyMT64#nextInt()}
+ * and {@link TinyMT64#nextBoolean()}, and throws away the rest of the 64-bit
+ * output. This class keeps the unused bits of an output in a bank, and
+ * {@link #nextBits(int)}, {@link #nextInt()}, {@link #nextInt(int)},
+ * {@link #nextInt(int, int)}, {@link #nextShort()}, {@link #nextByte()},
+ * {@link #nextBoolean()}, {@link #nextFloat()} and
+ * {@link #nextBytes(byte[])} take bits from the bank. So two
+ * {@link #nextInt()} or 64 {@link #nextBoolean()} cost one state
+ * transition. Bounded integers are made by multiplication and shift with
+ * rejection, so they are not biased, and a bounded int takes 32 bits from
+ * the bank in most cases.
+ * </p>
+ * <p>
+ * Bits are consumed in a fixed order. A draw of k bits takes the k most
+ * significant unused bits of the bank. When fewer than k bits are left, the
+ * rest of the bank is discarded and the next output of the wrapped
+ * generator is banked. So two calls of {@link #nextInt()} return the upper
+ * and the lower half of one output, and the first one is same as
+ * {@link TinyMT64#nextInt()}. {@link #nextLong()}, {@link #nextLong(long)},
+ * {@link #nextLong(long, long)}, {@link #nextDouble()},
+ * {@link #nextGaussian()} and {@link #nextExponential()} use whole outputs
+ * of the wrapped generator and leave the bank as it is.
+ * </p>
+ * <p>
+ * Seeding this generator reseeds the wrapped generator and empties the bank.
+ * This class is not synchronized.
+ * </p>
+ *
+ * @author M. Saito
+ */
+public final class PackedTinyMT64 extends AbstractRandomGenerator
+        implements RandomGenerator {
+    /** bit size of long. */
+    private static final int LONG_SIZE = 64;
+    /** bit size of int. */
+    private static final int INT_SIZE = 32;
+    /** bit size of short. */
+    private static final int SHORT_SIZE = 16;
+    /** bit size of byte. */
+    private static final int BYTE_SIZE = 8;
+    /** bits of float mantissa including the hidden bit. */
+    private static final int FLOAT_BITS = 24;
+    /** scale of float mantissa, 2<sup>-24</sup>. */
+    private static final float FLOAT_SCALE = 0x1.0p-24f;
+    /** wrapped generator. */
+    private final TinyMT64 generator;
+    /** unused bits, most significant first. */
+    private long bank;
+    /** number of unused bits in bank. */
+    private int available;
+
+    /**
+     * Constructor.
+     *
+     * @param pgenerator
+     *            generator to be wrapped
+     */
+    public PackedTinyMT64(final TinyMT64 pgenerator) {
+        this.generator = pgenerator;
+    }
+
+    /**
+     * returns wrapped generator.
+     *
+     * @return wrapped generator
+     */
+    public TinyMT64 getGenerator() {
+        return generator;
+    }
+
+    /**
+     * discards unused bits. Next draw of bits uses the next output of the
+     * wrapped generator.
+     */
+    public void discardBits() {
+        bank = 0;
+        available = 0;
+    }
+
+    /**
+     * returns random bits.
+     *
+     * @param bits
+     *            number of bits, 1 <= bits <= 32
+     * @return random integer r, 0 <= r < 2<sup>bits</sup>
+     * @throws IllegalArgumentException
+     *             when bits is out of range
+     */
+    public int nextBits(final int bits) {
+        if (bits <= 0 || bits > INT_SIZE) {
+            throw new IllegalArgumentException("bits must be 1 to 32");
+        }
+        return takeBits(bits);
+    }
+
+    /**
+     * returns 32-bit integer from the bank.
+     *
+     * @return next int
+     */
+    @Override
+    public int nextInt() {
+        return takeBits(INT_SIZE);
+    }
+
+    /**
+     * returns 32-bit integer r, 0 <= r < bound, made of 32 bits from the
+     * bank. Another 32 bits are taken when the first ones are rejected.
+     *
+     * @param bound
+     *            upper bound (exclusive)
+     * @return next int
+     * @throws IllegalArgumentException
+     *             if bound is not positive
+     */
+    @Override
+    public int nextInt(final int bound) {
+        return MultiplyShift.nextInt(this, bound);
+    }
+
+    /**
+     * returns 32-bit integer r, origin <= r < bound, made of 32 bits from
+     * the bank. Another 32 bits are taken when the first ones are rejected.
+     *
+     * @param origin
+     *            least value
+     * @param bound
+     *            upper bound (exclusive)
+     * @return next int
+     * @throws IllegalArgumentException
+     *             if origin is not less than bound
+     */
+    @Override
+    public int nextInt(final int origin, final int bound) {
+        return MultiplyShift.nextInt(this, origin, bound);
+    }
+
+    /**
+     * returns 16-bit integer from the bank.
+     *
+     * @return next short
+     */
+    public short nextShort() {
+        return (short) takeBits(SHORT_SIZE);
+    }
+
+    /**
+     * returns 8-bit integer from the bank.
+     *
+     * @return next byte
+     */
+    public byte nextByte() {
+        return (byte) takeBits(BYTE_SIZE);
+    }
+
+    /**
+     * returns one bit from the bank.
+     *
+     * @return next boolean
+     */
+    @Override
+    public boolean nextBoolean() {
+        return takeBits(1) != 0;
+    }
+
+    /**
+     * returns float r, 0 <= r < 1.0, made of 24 bits from the bank.
+     *
+     * @return next float
+     */
+    @Override
+    public float nextFloat() {
+        return takeBits(FLOAT_BITS) * FLOAT_SCALE;
+    }
+
+    /**
+     * fills bytes by {@link #nextByte()}.
+     *
+     * @param bytes
+     *            array to be filled
+     */
+    @Override
+    public void nextBytes(final byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) takeBits(BYTE_SIZE);
+        }
+    }
+
+    /**
+     * returns 64-bit integer, the next output of the wrapped generator.
+     *
+     * @return next long
+     */
+    @Override
+    public long nextLong() {
+        return generator.nextLong();
+    }
+
+    /**
+     * returns 64-bit integer r, 0 <= r < bound, same as the wrapped
+     * generator.
+     *
+     * @param bound
+     *            upper bound (exclusive)
+     * @return next long
+     * @throws IllegalArgumentException
+     *             if bound is not positive
+     */
+    @Override
+    public long nextLong(final long bound) {
+        return generator.nextLong(bound);
+    }
+
+    /**
+     * returns 64-bit integer r, origin <= r < bound, same as the wrapped
+     * generator.
+     *
+     * @param origin
+     *            least value
+     * @param bound
+     *            upper bound (exclusive)
+     * @return next long
+     * @throws IllegalArgumentException
+     *             if origin is not less than bound
+     */
+    @Override
+    public long nextLong(final long origin, final long bound) {
+        return generator.nextLong(origin, bound);
+    }
+
+    /**
+     * returns double r, 0 <= r < 1.0, same as the wrapped generator.
+     *
+     * @return next double
+     */
+    @Override
+    public double nextDouble() {
+        return generator.nextDouble();
+    }
+
+    /**
+     * returns normal random number, same as the wrapped generator.
+     *
+     * @return next normal random number
+     */
+    @Override
+    public double nextGaussian() {
+        return generator.nextGaussian();
+    }
+
+    /**
+     * returns exponential random number, same as the wrapped generator.
+     *
+     * @return next exponential random number
+     */
+    @Override
+    public double nextExponential() {
+        return generator.nextExponential();
+    }
+
+    /**
+     * reseeds the wrapped generator and empties the bank.
+     *
+     * @param seed
+     *            seed
+     * @see TinyMT64#setSeed(long)
+     */
+    @Override
+    public void setSeed(final long seed) {
+        generator.setSeed(seed);
+        discardBits();
+        clear();
+    }
+
+    /**
+     * reseeds the wrapped generator and empties the bank.
+     *
+     * @param seeds
+     *            seeds
+     * @see TinyMT64#setSeed(int[])
+     */
+    @Override
+    public void setSeed(final int[] seeds) {
+        generator.setSeed(seeds);
+        discardBits();
+        clear();
+    }
+
+    /**
+     * reseeds the wrapped generator and empties the bank.
+     *
+     * @param seeds
+     *            seeds
+     * @see TinyMT64#setSeed(long[])
+     */
+    public void setSeed(final long[] seeds) {
+        generator.setSeed(seeds);
+        discardBits();
+        clear();
+    }
+
+    /**
+     * reseeds the wrapped generator and empties the bank.
+     *
+     * @param seed
+     *            seed
+     * @see TinyMT64#setSeed(String)
+     */
+    public void setSeed(final String seed) {
+        generator.setSeed(seed);
+        discardBits();
+        clear();
+    }
+
+    /**
+     * takes the most significant bits of the bank.
+     *
+     * @param bits
+     *            number of bits, 1 <= bits <= 32
+     * @return random integer r, 0 <= r < 2<sup>bits</sup>
+     */
+    private int takeBits(final int bits) {
+        if (available < bits) {
+            bank = generator.nextLong();
+            available = LONG_SIZE;
+        }
+        final int r = (int) (bank >>> (LONG_SIZE - bits));
+        bank <<= bits;
+        available -= bits;
+        return r;
+    }
+}
@@ -0,0 +1,453 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class keeps parameters of TinyMT in a binary table of fixed size
+ * records, so that a parameter is found by its index in constant time.
+ * <p>
+ * A table can be saved to a binary file by {@link #write(Path)}, and
+ * {@link #map(Path)} maps the file into memory without reading it. So
+ * many JVMs can share a large set of parameters made by TinyMTDC through
+ * the page cache, and only touched records are loaded. Generators are made
+ * from a table by {@link TinyMT32#getTinyMTArray(ParameterTable, int, int,
+ * long)} and {@link TinyMT64#getTinyMTArray(ParameterTable, int, int,
+ * long)}.
+ * </p>
+ * <p>
+ * A binary file has a 16 bytes header, magic number "TMDC", version 1,
+ * record size and number of records as big endian int, followed by records.
+ * A record is 48 bytes, big endian:
+ * </p>
+ * <pre>
+ * offset  size  field
+ *      0     8  characteristic polynomial, coefficients of t^64 .. t^127
+ *      8     8  characteristic polynomial, coefficients of t^0 .. t^63
+ *     16     8  tmat (TinyMT32 uses the lower 32 bits)
+ *     24     4  mat1
+ *     28     4  mat2
+ *     32     4  id
+ *     36     4  weight
+ *     40     4  delta
+ *     44     4  type, 32 for TinyMT32 and 64 for TinyMT64
+ * </pre>
+ * <p>
+ * Tables are made from the text files of TinyMTDC, whose lines are
+ * "characteristic,type,id,mat1,mat2,tmat,weight,delta" in hexadecimal
+ * except type, id, weight and delta. This class is immutable and thread
+ * safe. A mapped file must not be modified while it is used.
+ * </p>
+ *
+ * @author M. Saito
+ */
+public final class ParameterTable {
+    /** size of a record in bytes. */
+    static final int RECORD_SIZE = 48;
+    /** size of header of binary file in bytes. */
+    static final int HEADER_SIZE = 16;
+    /** magic number of binary file, "TMDC". */
+    private static final int MAGIC = 0x544d4443;
+    /** version of binary file format. */
+    private static final int VERSION = 1;
+    /** offset of higher word of characteristic polynomial. */
+    private static final int CHARACTERISTIC_HIGH = 0;
+    /** offset of lower word of characteristic polynomial. */
+    private static final int CHARACTERISTIC_LOW = 8;
+    /** offset of tmat. */
+    private static final int TMAT = 16;
+    /** offset of mat1. */
+    private static final int MAT1 = 24;
+    /** offset of mat2. */
+    private static final int MAT2 = 28;
+    /** offset of id. */
+    private static final int ID = 32;
+    /** offset of weight. */
+    private static final int WEIGHT = 36;
+    /** offset of delta. */
+    private static final int DELTA = 40;
+    /** offset of type. */
+    private static final int TYPE = 44;
+    /** number of records allocated first when parsing. */
+    private static final int INITIAL_RECORDS = 1024;
+    /** number of fields in a line of text file. */
+    private static final int FIELD_COUNT = 8;
+    /** number of hexadecimal digits of a word. */
+    private static final int WORD_DIGITS = 16;
+    /** hexadecimal format. */
+    private static final int HEX_FORMAT = 16;
+    /** decimal format. */
+    private static final int DEC_FORMAT = 10;
+    /** records. */
+    private final ByteBuffer records;
+    /** number of records. */
+    private final int size;
+
+    /**
+     * constructor.
+     *
+     * @param precords
+     *            records, from position 0 to limit
+     */
+    private ParameterTable(final ByteBuffer precords) {
+        this.records = precords.asReadOnlyBuffer();
+        this.size = precords.limit() / RECORD_SIZE;
+    }
+
+    /**
+     * maps binary file made by {@link #write(Path)} into memory. The file
+     * is not read except its header.
+     *
+     * @param file
+     *            binary file of parameters
+     * @return parameter table backed by the file
+     * @throws IOException
+     *             when fails to map the file or the file is not a parameter
+     *             table
+     */
+    public static ParameterTable map(final Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                throw new IOException("not a parameter table: " + file);
+            }
+            if (fileSize > Integer.MAX_VALUE) {
+                throw new IOException("parameter table is too large: "
+                        + file);
+            }
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    fileSize);
+            int count = checkHeader(mapped, fileSize);
+            mapped.position(HEADER_SIZE);
+            mapped.limit(HEADER_SIZE + count * RECORD_SIZE);
+            return new ParameterTable(mapped.slice());
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * checks header of binary file.
+     *
+     * @param header
+     *            buffer whose position 0 is start of header
+     * @param fileSize
+     *            size of the file
+     * @return number of records
+     * @throws IOException
+     *             when header is invalid
+     */
+    private static int checkHeader(final ByteBuffer header,
+            final long fileSize) throws IOException {
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("not a parameter table");
+        }
+        if (header.getInt(4) != VERSION || header.getInt(8) != RECORD_SIZE) {
+            throw new IOException("unsupported parameter table version");
+        }
+        int count = header.getInt(12);
+        if (count < 0
+                || HEADER_SIZE + (long) count * RECORD_SIZE > fileSize) {
+            throw new IOException("parameter table is truncated");
+        }
+        return count;
+    }
+
+    /**
+     * writes this table to binary file, which can be mapped by
+     * {@link #map(Path)}.
+     *
+     * @param file
+     *            binary file to be written
+     * @throws IOException
+     *             when fails to write
+     */
+    public void write(final Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(size);
+        header.flip();
+        ByteBuffer body = records.duplicate();
+        body.rewind();
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            while (body.hasRemaining()) {
+                channel.write(body);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * converts text file of TinyMTDC to binary file, which can be mapped by
+     * {@link #map(Path)}.
+     *
+     * @param text
+     *            text file of TinyMTDC
+     * @param binary
+     *            binary file to be written
+     * @throws IOException
+     *             when fails to read or write
+     */
+    public static void convert(final Path text, final Path binary)
+            throws IOException {
+        parse(Files.newBufferedReader(text, StandardCharsets.US_ASCII))
+                .write(binary);
+    }
+
+    /**
+     * makes table from text of TinyMTDC. Comment lines, which start with
+     * '#', are skipped. The reader is closed.
+     *
+     * @param reader
+     *            text of parameters
+     * @return parameter table
+     * @throws IOException
+     *             when fails to read or line does not contain parameters
+     */
+    public static ParameterTable parse(final Reader reader)
+            throws IOException {
+        try {
+            return parse(reader, null);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * loads table from the first resource file found.
+     *
+     * @param names
+     *            resource names in order of preference
+     * @param skip
+     *            characteristic polynomial of the line to be skipped, in
+     *            hexadecimal format
+     * @return parameter table
+     * @throws IOException
+     *             when no resource is found or fails to read it
+     */
+    static ParameterTable load(final String[] names, final String skip)
+            throws IOException {
+        ClassLoader loader = ParameterTable.class.getClassLoader();
+        for (String name : names) {
+            URL url = loader.getResource(name);
+            if (url == null) {
+                continue;
+            }
+            Reader reader = new InputStreamReader(url.openStream(),
+                    StandardCharsets.US_ASCII);
+            try {
+                return parse(reader, skip);
+            } finally {
+                reader.close();
+            }
+        }
+        throw new IOException("parameter resource not found: "
+                + String.join(", ", names));
+    }
+
+    /**
+     * makes table from text of TinyMTDC. Comment lines, which start with
+     * '#', are skipped.
+     *
+     * @param reader
+     *            text of parameters
+     * @param skip
+     *            characteristic polynomial of the line to be skipped, in
+     *            hexadecimal format, or null
+     * @return parameter table
+     * @throws IOException
+     *             when fails to read or line does not contain parameters
+     */
+    static ParameterTable parse(final Reader reader, final String skip)
+            throws IOException {
+        BufferedReader br = new BufferedReader(reader);
+        ByteBuffer buffer = ByteBuffer.allocate(INITIAL_RECORDS * RECORD_SIZE);
+        String line;
+        while ((line = br.readLine()) != null) {
+            if (line.startsWith("#")
+                    || (skip != null && line.startsWith(skip))) {
+                continue;
+            }
+            if (buffer.remaining() < RECORD_SIZE) {
+                ByteBuffer grown = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+            putRecord(buffer, line);
+        }
+        buffer.flip();
+        return new ParameterTable(buffer);
+    }
+
+    /**
+     * parses line and puts a record at the position of buffer.
+     *
+     * @param buffer
+     *            buffer which has space for a record
+     * @param line
+     *            line of text file
+     * @throws IOException
+     *             when line does not contain parameters
+     */
+    private static void putRecord(final ByteBuffer buffer, final String line)
+            throws IOException {
+        String[] str = line.split(",");
+        if (str.length < FIELD_COUNT) {
+            throw new IOException("line does not contain parameters.");
+        }
+        try {
+            String characteristic = str[0];
+            int split = Math.max(0, characteristic.length() - WORD_DIGITS);
+            long high = 0;
+            if (split > 0) {
+                high = Long.parseUnsignedLong(
+                        characteristic.substring(0, split), HEX_FORMAT);
+            }
+            long low = Long.parseUnsignedLong(
+                    characteristic.substring(split), HEX_FORMAT);
+            buffer.putLong(high);
+            buffer.putLong(low);
+            buffer.putLong(Long.parseUnsignedLong(str[5], HEX_FORMAT));
+            buffer.putInt(Integer.parseUnsignedInt(str[3], HEX_FORMAT));
+            buffer.putInt(Integer.parseUnsignedInt(str[4], HEX_FORMAT));
+            buffer.putInt(Integer.parseInt(str[2], DEC_FORMAT));
+            buffer.putInt(Integer.parseInt(str[6], DEC_FORMAT));
+            buffer.putInt(Integer.parseInt(str[7], DEC_FORMAT));
+            buffer.putInt(Integer.parseInt(str[1].trim(), DEC_FORMAT));
+        } catch (NumberFormatException e) {
+            throw new IOException("line does not contain parameters.", e);
+        }
+    }
+
+    /**
+     * returns number of parameters.
+     *
+     * @return number of parameters
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * returns offset of record.
+     *
+     * @param index
+     *            index of parameter
+     * @return offset of record
+     */
+    private int offset(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index:" + index + " size:"
+                    + size);
+        }
+        return index * RECORD_SIZE;
+    }
+
+    /**
+     * returns characteristic polynomial.
+     *
+     * @param index
+     *            index of parameter
+     * @return characteristic polynomial
+     */
+    F2Polynomial getCharacteristic(final int index) {
+        int off = offset(index);
+        return F2Polynomial.valueOf(
+                records.getLong(off + CHARACTERISTIC_HIGH),
+                records.getLong(off + CHARACTERISTIC_LOW));
+    }
+
+    /**
+     * returns ID.
+     *
+     * @param index
+     *            index of parameter
+     * @return ID
+     */
+    int getId(final int index) {
+        return records.getInt(offset(index) + ID);
+    }
+
+    /**
+     * returns mat1.
+     *
+     * @param index
+     *            index of parameter
+     * @return mat1
+     */
+    int getMat1(final int index) {
+        return records.getInt(offset(index) + MAT1);
+    }
+
+    /**
+     * returns mat2.
+     *
+     * @param index
+     *            index of parameter
+     * @return mat2
+     */
+    int getMat2(final int index) {
+        return records.getInt(offset(index) + MAT2);
+    }
+
+    /**
+     * returns tmat.
+     *
+     * @param index
+     *            index of parameter
+     * @return tmat, TinyMT32 uses the lower 32 bits
+     */
+    long getTmat(final int index) {
+        return records.getLong(offset(index) + TMAT);
+    }
+
+    /**
+     * returns type of generator.
+     *
+     * @param index
+     *            index of parameter
+     * @return 32 for TinyMT32, 64 for TinyMT64
+     */
+    int getType(final int index) {
+        return records.getInt(offset(index) + TYPE);
+    }
+
+    /**
+     * returns Hamming weight of characteristic polynomial.
+     *
+     * @param index
+     *            index of parameter
+     * @return weight
+     */
+    int getWeight(final int index) {
+        return records.getInt(offset(index) + WEIGHT);
+    }
+
+    /**
+     * returns delta.
+     *
+     * @param index
+     *            index of parameter
+     * @return delta
+     */
+    int getDelta(final int index) {
+        return records.getInt(offset(index) + DELTA);
+    }
+}
@@ -0,0 +1,32 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.util.random.RandomGenerator.JumpableGenerator;
+
+/**
+ * Jumpable generator which can jump 2<sup>level</sup> times of jump
+ * distance at once.
+ * <p>
+ * This is used for splitting streams, where the generator of each split part
+ * is jumped by a distinct power of two of jumps.
+ * </p>
+ *
+ * @author M. Saito
+ */
+interface PowerJumpableGenerator extends JumpableGenerator {
+    /**
+     * returns a copy of this generator.
+     *
+     * @return copy of this generator
+     */
+    @Override
+    PowerJumpableGenerator copy();
+
+    /**
+     * advances the state of this generator by
+     * 2<sup>level</sup> &times; {@link #jumpDistance()} steps.
+     *
+     * @param level
+     *            log<sub>2</sub> of number of jumps, non-negative
+     */
+    void jumpPower(int level);
+}
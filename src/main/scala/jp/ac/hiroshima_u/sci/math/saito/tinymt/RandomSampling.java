@@ -0,0 +1,706 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.PrimitiveIterator;
+import java.util.RandomAccess;
+import java.util.concurrent.RecursiveAction;
+import java.util.random.RandomGenerator;
+
+/**
+ * This class shuffles arrays and lists, and samples elements without
+ * replacement.
+ * <p>
+ * All methods use bounded integers of the generator,
+ * {@link RandomGenerator#nextInt(int)}, which TinyMT32 and TinyMT64
+ * generate without bias, and primitive arrays are handled without boxing.
+ * </p>
+ * <ul>
+ * <li>{@code shuffle} is the Fisher-Yates shuffle.</li>
+ * <li>{@code parallelShuffle} shuffles blocks of a large array in parallel
+ * by jumped generators, and merges them by MergeShuffle of A. Bacher et al.
+ * The result depends only on the generator and the length of array, not on
+ * the number of threads.</li>
+ * <li>{@code sample} of an iterator is the reservoir sampling of
+ * K.-H. Li, Algorithm L, which skips elements by geometric jumps and uses
+ * O(k log(n / k)) random numbers.</li>
+ * <li>{@code sampleIndices} is the algorithm of R. Floyd, which takes k
+ * distinct integers from n in O(k) time and space.</li>
+ * </ul>
+ *
+ * @author M. Saito
+ * @see <a href="https://arxiv.org/abs/1508.03167">A. Bacher, O. Bodini,
+ *      A. Hollender and J. Lumbroso, MergeShuffle: A Very Fast, Parallel
+ *      Random Permutation Algorithm</a>
+ */
+public final class RandomSampling {
+    /** minimum number of elements in a block of parallel shuffle. */
+    private static final int MIN_BLOCK_SIZE = 1 << 16;
+    /** maximum number of blocks of parallel shuffle. */
+    private static final int MAX_BLOCKS = 1 << 10;
+    /** load factor of hash set of Floyd's algorithm. */
+    private static final int HASH_SPACE = 2;
+
+    /**
+     * killing default constructor.
+     */
+    private RandomSampling() {
+    }
+
+    /**
+     * shuffles array.
+     *
+     * @param rng
+     *            generator
+     * @param array
+     *            array to be shuffled
+     */
+    public static void shuffle(final RandomGenerator rng, final int[] array) {
+        shuffle(rng, array, 0, array.length);
+    }
+
+    /**
+     * shuffles the specified range of array.
+     *
+     * @param rng
+     *            generator
+     * @param array
+     *            array to be shuffled
+     * @param from
+     *            index of the first element (inclusive)
+     * @param to
+     *            index of the last element (exclusive)
+     */
+    public static void shuffle(final RandomGenerator rng, final int[] array,
+            final int from, final int to) {
+        checkRange(array.length, from, to);
+        for (int i = to - 1; i > from; i--) {
+            int j = from + rng.nextInt(i - from + 1);
+            int tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+
+    /**
+     * shuffles array.
+     *
+     * @param rng
+     *            generator
+     * @param array
+     *            array to be shuffled
+     */
+    public static void shuffle(final RandomGenerator rng, final long[] array) {
+        shuffle(rng, array, 0, array.length);
+    }
+
+    /**
+     * shuffles the specified range of array.
+     *
+     * @param rng
+     *            generator
+     * @param array
+     *            array to be shuffled
+     * @param from
+     *            index of the first element (inclusive)
+     * @param to
+     *            index of the last element (exclusive)
+     */
+    public static void shuffle(final RandomGenerator rng, final long[] array,
+            final int from, final int to) {
+        checkRange(array.length, from, to);
+        for (int i = to - 1; i > from; i--) {
+            int j = from + rng.nextInt(i - from + 1);
+            long tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+
+    /**
+     * shuffles array.
+     *
+     * @param rng
+     *            generator
+     * @param array
+     *            array to be shuffled
+     */
+    public static void shuffle(final RandomGenerator rng,
+            final Object[] array) {
+        for (int i = array.length - 1; i > 0; i--) {
+            int j = rng.nextInt(i + 1);
+            Object tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+
+    /**
+     * shuffles list. A list which is not {@link RandomAccess} is copied to
+     * an array, shuffled and written back.
+     *
+     * @param rng
+     *            generator
+     * @param list
+     *            list to be shuffled
+     */
+    @SuppressWarnings({"rawtypes", "unchecked" })
+    public static void shuffle(final RandomGenerator rng,
+            final List<?> list) {
+        if (list instanceof RandomAccess) {
+            for (int i = list.size() - 1; i > 0; i--) {
+                Collections.swap(list, i, rng.nextInt(i + 1));
+            }
+        } else {
+            Object[] array = list.toArray();
+            shuffle(rng, array);
+            ListIterator it = list.listIterator();
+            for (Object e : array) {
+                it.next();
+                it.set(e);
+            }
+        }
+    }
+
+    /**
+     * shuffles array in parallel. The array is divided into blocks, each
+     * block is shuffled by its own generator, and shuffled blocks are
+     * merged in parallel. Generators of blocks are copies of {@code rng}
+     * between jumps, and {@code rng} is jumped once per block.
+     *
+     * @param rng
+     *            jumpable generator, such as TinyMT32 or TinyMT64
+     * @param array
+     *            array to be shuffled
+     */
+    public static void parallelShuffle(
+            final RandomGenerator.JumpableGenerator rng, final int[] array) {
+        parallelShuffle(rng, array, MIN_BLOCK_SIZE);
+    }
+
+    /**
+     * shuffles array in parallel.
+     *
+     * @param rng
+     *            jumpable generator
+     * @param array
+     *            array to be shuffled
+     * @param minBlockSize
+     *            minimum number of elements in a block
+     */
+    static void parallelShuffle(final RandomGenerator.JumpableGenerator rng,
+            final int[] array, final int minBlockSize) {
+        RandomGenerator[] generators = blockGenerators(rng, array.length,
+                minBlockSize);
+        new IntShuffleTask(generators, array, 0, generators.length, 0,
+                array.length).invoke();
+    }
+
+    /**
+     * shuffles array in parallel. The array is divided into blocks, each
+     * block is shuffled by its own generator, and shuffled blocks are
+     * merged in parallel. Generators of blocks are copies of {@code rng}
+     * between jumps, and {@code rng} is jumped once per block.
+     *
+     * @param rng
+     *            jumpable generator, such as TinyMT32 or TinyMT64
+     * @param array
+     *            array to be shuffled
+     */
+    public static void parallelShuffle(
+            final RandomGenerator.JumpableGenerator rng, final long[] array) {
+        parallelShuffle(rng, array, MIN_BLOCK_SIZE);
+    }
+
+    /**
+     * shuffles array in parallel.
+     *
+     * @param rng
+     *            jumpable generator
+     * @param array
+     *            array to be shuffled
+     * @param minBlockSize
+     *            minimum number of elements in a block
+     */
+    static void parallelShuffle(final RandomGenerator.JumpableGenerator rng,
+            final long[] array, final int minBlockSize) {
+        RandomGenerator[] generators = blockGenerators(rng, array.length,
+                minBlockSize);
+        new LongShuffleTask(generators, array, 0, generators.length, 0,
+                array.length).invoke();
+    }
+
+    /**
+     * returns k distinct integers r, 0 <= r < n. Every subset of size k
+     * is chosen with the same probability, but the order of the result is
+     * not random.
+     *
+     * @param rng
+     *            generator
+     * @param n
+     *            number of candidates
+     * @param k
+     *            number of integers to be chosen
+     * @return array of k distinct integers
+     * @throws IllegalArgumentException
+     *             when k is negative or greater than n
+     */
+    public static int[] sampleIndices(final RandomGenerator rng, final int n,
+            final int k) {
+        if (k < 0 || k > n) {
+            throw new IllegalArgumentException("k must be in [0, n]");
+        }
+        int[] result = new int[k];
+        IntHashSet set = new IntHashSet(k);
+        int count = 0;
+        for (int j = n - k; j < n; j++) {
+            int t = rng.nextInt(j + 1);
+            if (!set.add(t)) {
+                set.add(j);
+                t = j;
+            }
+            result[count++] = t;
+        }
+        return result;
+    }
+
+    /**
+     * chooses k elements of iterator uniformly. If the iterator has less
+     * than k elements, all elements are returned.
+     *
+     * @param <T>
+     *            type of element
+     * @param rng
+     *            generator
+     * @param iterator
+     *            elements
+     * @param k
+     *            number of elements to be chosen
+     * @return list of chosen elements
+     * @throws IllegalArgumentException
+     *             when k is negative
+     */
+    public static <T> List<T> sample(final RandomGenerator rng,
+            final Iterator<? extends T> iterator, final int k) {
+        checkSampleSize(k);
+        List<T> reservoir = new ArrayList<T>(k);
+        while (reservoir.size() < k && iterator.hasNext()) {
+            reservoir.add(iterator.next());
+        }
+        if (reservoir.size() < k || k == 0) {
+            return reservoir;
+        }
+        double w = nextWeight(rng, 1.0, k);
+        for (;;) {
+            for (long skip = nextSkip(rng, w); skip > 0; skip--) {
+                if (!iterator.hasNext()) {
+                    return reservoir;
+                }
+                iterator.next();
+            }
+            if (!iterator.hasNext()) {
+                return reservoir;
+            }
+            reservoir.set(rng.nextInt(k), iterator.next());
+            w = nextWeight(rng, w, k);
+        }
+    }
+
+    /**
+     * chooses k elements of iterator uniformly. If the iterator has less
+     * than k elements, all elements are returned.
+     *
+     * @param rng
+     *            generator
+     * @param iterator
+     *            elements
+     * @param k
+     *            number of elements to be chosen
+     * @return array of chosen elements
+     * @throws IllegalArgumentException
+     *             when k is negative
+     */
+    public static int[] sample(final RandomGenerator rng,
+            final PrimitiveIterator.OfInt iterator, final int k) {
+        checkSampleSize(k);
+        int[] reservoir = new int[k];
+        int size = 0;
+        while (size < k && iterator.hasNext()) {
+            reservoir[size++] = iterator.nextInt();
+        }
+        if (size < k || k == 0) {
+            return Arrays.copyOf(reservoir, size);
+        }
+        double w = nextWeight(rng, 1.0, k);
+        for (;;) {
+            for (long skip = nextSkip(rng, w); skip > 0; skip--) {
+                if (!iterator.hasNext()) {
+                    return reservoir;
+                }
+                iterator.nextInt();
+            }
+            if (!iterator.hasNext()) {
+                return reservoir;
+            }
+            reservoir[rng.nextInt(k)] = iterator.nextInt();
+            w = nextWeight(rng, w, k);
+        }
+    }
+
+    /**
+     * chooses k elements of iterator uniformly. If the iterator has less
+     * than k elements, all elements are returned.
+     *
+     * @param rng
+     *            generator
+     * @param iterator
+     *            elements
+     * @param k
+     *            number of elements to be chosen
+     * @return array of chosen elements
+     * @throws IllegalArgumentException
+     *             when k is negative
+     */
+    public static long[] sample(final RandomGenerator rng,
+            final PrimitiveIterator.OfLong iterator, final int k) {
+        checkSampleSize(k);
+        long[] reservoir = new long[k];
+        int size = 0;
+        while (size < k && iterator.hasNext()) {
+            reservoir[size++] = iterator.nextLong();
+        }
+        if (size < k || k == 0) {
+            return Arrays.copyOf(reservoir, size);
+        }
+        double w = nextWeight(rng, 1.0, k);
+        for (;;) {
+            for (long skip = nextSkip(rng, w); skip > 0; skip--) {
+                if (!iterator.hasNext()) {
+                    return reservoir;
+                }
+                iterator.nextLong();
+            }
+            if (!iterator.hasNext()) {
+                return reservoir;
+            }
+            reservoir[rng.nextInt(k)] = iterator.nextLong();
+            w = nextWeight(rng, w, k);
+        }
+    }
+
+    /**
+     * checks size of sample.
+     *
+     * @param k
+     *            size of sample
+     */
+    private static void checkSampleSize(final int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must be non-negative");
+        }
+    }
+
+    /**
+     * returns next w of Algorithm L, w * U<sup>1/k</sup>.
+     *
+     * @param rng
+     *            generator
+     * @param w
+     *            current w
+     * @param k
+     *            size of reservoir
+     * @return next w
+     */
+    private static double nextWeight(final RandomGenerator rng,
+            final double w, final int k) {
+        return w * Math.exp(Math.log(1.0 - rng.nextDouble()) / k);
+    }
+
+    /**
+     * returns number of elements skipped by Algorithm L, which is
+     * geometrically distributed with success probability w.
+     *
+     * @param rng
+     *            generator
+     * @param w
+     *            current w
+     * @return number of elements to be skipped
+     */
+    private static long nextSkip(final RandomGenerator rng, final double w) {
+        return (long) (Math.log(1.0 - rng.nextDouble()) / Math.log1p(-w));
+    }
+
+    /**
+     * check if the range is inside of an array.
+     *
+     * @param length
+     *            length of the array
+     * @param from
+     *            index of the first element (inclusive)
+     * @param to
+     *            index of the last element (exclusive)
+     */
+    private static void checkRange(final int length, final int from,
+            final int to) {
+        if (from < 0 || from > to || to > length) {
+            throw new IndexOutOfBoundsException("from:" + from + " to:" + to
+                    + " length:" + length);
+        }
+    }
+
+    /**
+     * returns generators of blocks of parallel shuffle. Number of blocks
+     * is a power of two and depends only on length and minBlockSize.
+     *
+     * @param rng
+     *            jumpable generator, which is jumped once per block
+     * @param length
+     *            length of array
+     * @param minBlockSize
+     *            minimum number of elements in a block
+     * @return generators of blocks
+     */
+    private static RandomGenerator[] blockGenerators(
+            final RandomGenerator.JumpableGenerator rng, final int length,
+            final int minBlockSize) {
+        int blocks = Math.max(1, Integer.highestOneBit(
+                length / minBlockSize));
+        blocks = Math.min(blocks, MAX_BLOCKS);
+        RandomGenerator[] generators = new RandomGenerator[blocks];
+        for (int i = 0; i < blocks; i++) {
+            generators[i] = rng.copy();
+            rng.jump();
+        }
+        return generators;
+    }
+
+    /**
+     * task of parallel shuffle of int array. A task shuffles blocks of
+     * generators [gfrom, gto), whose elements are [from, to), and the task
+     * of two or more blocks merges two halves by the generator of the first
+     * block, so each generator is used by one thread at a time.
+     */
+    private static final class IntShuffleTask extends RecursiveAction {
+        /** serial version UID. */
+        private static final long serialVersionUID = 1L;
+        /** generators of blocks. */
+        private final transient RandomGenerator[] generators;
+        /** array to be shuffled. */
+        private final int[] array;
+        /** index of the first generator. */
+        private final int gfrom;
+        /** index of the last generator (exclusive). */
+        private final int gto;
+        /** index of the first element. */
+        private final int from;
+        /** index of the last element (exclusive). */
+        private final int to;
+
+        /**
+         * constructor.
+         *
+         * @param pgenerators generators of blocks
+         * @param parray array to be shuffled
+         * @param pgfrom index of the first generator
+         * @param pgto index of the last generator (exclusive)
+         * @param pfrom index of the first element
+         * @param pto index of the last element (exclusive)
+         */
+        IntShuffleTask(final RandomGenerator[] pgenerators,
+                final int[] parray, final int pgfrom, final int pgto,
+                final int pfrom, final int pto) {
+            this.generators = pgenerators;
+            this.array = parray;
+            this.gfrom = pgfrom;
+            this.gto = pgto;
+            this.from = pfrom;
+            this.to = pto;
+        }
+
+        @Override
+        protected void compute() {
+            RandomGenerator rng = generators[gfrom];
+            if (gto - gfrom == 1) {
+                shuffle(rng, array, from, to);
+                return;
+            }
+            int gmid = (gfrom + gto) >>> 1;
+            int mid = (from + to) >>> 1;
+            invokeAll(new IntShuffleTask(generators, array, gfrom, gmid,
+                    from, mid), new IntShuffleTask(generators, array, gmid,
+                    gto, mid, to));
+            int i = from;
+            int j = mid;
+            long bits = 0;
+            int remaining = 0;
+            for (;;) {
+                if (remaining == 0) {
+                    bits = rng.nextLong();
+                    remaining = Long.SIZE;
+                }
+                long bit = bits & 1;
+                bits >>>= 1;
+                remaining--;
+                if (bit == 0) {
+                    if (i == j) {
+                        break;
+                    }
+                } else {
+                    if (j == to) {
+                        break;
+                    }
+                    int tmp = array[i];
+                    array[i] = array[j];
+                    array[j] = tmp;
+                    j++;
+                }
+                i++;
+            }
+            for (; i < to; i++) {
+                int m = from + rng.nextInt(i - from + 1);
+                int tmp = array[i];
+                array[i] = array[m];
+                array[m] = tmp;
+            }
+        }
+    }
+
+    /**
+     * task of parallel shuffle of long array.
+     *
+     * @see IntShuffleTask
+     */
+    private static final class LongShuffleTask extends RecursiveAction {
+        /** serial version UID. */
+        private static final long serialVersionUID = 1L;
+        /** generators of blocks. */
+        private final transient RandomGenerator[] generators;
+        /** array to be shuffled. */
+        private final long[] array;
+        /** index of the first generator. */
+        private final int gfrom;
+        /** index of the last generator (exclusive). */
+        private final int gto;
+        /** index of the first element. */
+        private final int from;
+        /** index of the last element (exclusive). */
+        private final int to;
+
+        /**
+         * constructor.
+         *
+         * @param pgenerators generators of blocks
+         * @param parray array to be shuffled
+         * @param pgfrom index of the first generator
+         * @param pgto index of the last generator (exclusive)
+         * @param pfrom index of the first element
+         * @param pto index of the last element (exclusive)
+         */
+        LongShuffleTask(final RandomGenerator[] pgenerators,
+                final long[] parray, final int pgfrom, final int pgto,
+                final int pfrom, final int pto) {
+            this.generators = pgenerators;
+            this.array = parray;
+            this.gfrom = pgfrom;
+            this.gto = pgto;
+            this.from = pfrom;
+            this.to = pto;
+        }
+
+        @Override
+        protected void compute() {
+            RandomGenerator rng = generators[gfrom];
+            if (gto - gfrom == 1) {
+                shuffle(rng, array, from, to);
+                return;
+            }
+            int gmid = (gfrom + gto) >>> 1;
+            int mid = (from + to) >>> 1;
+            invokeAll(new LongShuffleTask(generators, array, gfrom, gmid,
+                    from, mid), new LongShuffleTask(generators, array, gmid,
+                    gto, mid, to));
+            int i = from;
+            int j = mid;
+            long bits = 0;
+            int remaining = 0;
+            for (;;) {
+                if (remaining == 0) {
+                    bits = rng.nextLong();
+                    remaining = Long.SIZE;
+                }
+                long bit = bits & 1;
+                bits >>>= 1;
+                remaining--;
+                if (bit == 0) {
+                    if (i == j) {
+                        break;
+                    }
+                } else {
+                    if (j == to) {
+                        break;
+                    }
+                    long tmp = array[i];
+                    array[i] = array[j];
+                    array[j] = tmp;
+                    j++;
+                }
+                i++;
+            }
+            for (; i < to; i++) {
+                int m = from + rng.nextInt(i - from + 1);
+                long tmp = array[i];
+                array[i] = array[m];
+                array[m] = tmp;
+            }
+        }
+    }
+
+    /**
+     * set of non-negative int by open addressing, used by Floyd's
+     * algorithm.
+     */
+    private static final class IntHashSet {
+        /** multiplier of hash, the golden ratio. */
+        private static final int HASH_MULTIPLIER = 0x9e3779b9;
+        /** table of element + 1, 0 is empty. */
+        private final int[] table;
+        /** shift to get index from hash. */
+        private final int shift;
+
+        /**
+         * constructor.
+         *
+         * @param capacity maximum number of elements
+         */
+        IntHashSet(final int capacity) {
+            int size = Integer.highestOneBit(
+                    Math.max(1, capacity * HASH_SPACE - 1)) << 1;
+            table = new int[size];
+            shift = Integer.SIZE - Integer.numberOfTrailingZeros(size);
+        }
+
+        /**
+         * adds an element.
+         *
+         * @param value non-negative element
+         * @return true if the element was not in the set
+         */
+        boolean add(final int value) {
+            final int key = value + 1;
+            final int mask = table.length - 1;
+            int index = (key * HASH_MULTIPLIER) >>> shift;
+            while (table[index] != 0) {
+                if (table[index] == key) {
+                    return false;
+                }
+                index = (index + 1) & mask;
+            }
+            table[index] = key;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,548 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.random.RandomGenerator.SplittableGenerator;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * This class makes streams of random numbers generated by jumpable
+ * generators.
+ * <p>
+ * When a spliterator of depth d of these streams is split, the prefix part
+ * takes a copy of the generator and the rest part jumps its generator by
+ * 2<sup>d</sup> jumps. So the generator of each part is jumped by the number
+ * of jumps whose binary digits are the path from the root, and no two parts
+ * share their generators. The result is reproducible for the same seed and
+ * the same split tree. Sequential streams are never split, and generate the
+ * same sequence as the generator does.
+ * </p>
+ * <p>
+ * Streams of generators split off a splittable generator. When such a
+ * stream is split, the prefix part takes a generator split off the
+ * generator of the stream, so no two parts share their generators.
+ * </p>
+ *
+ * @author M. Saito
+ */
+final class RandomSpliterators {
+    /** size of stream which has no limit. */
+    private static final long UNLIMITED = Long.MAX_VALUE;
+    /** characteristics of random number spliterators. */
+    private static final int CHARACTERISTICS = Spliterator.SIZED
+            | Spliterator.SUBSIZED | Spliterator.NONNULL
+            | Spliterator.IMMUTABLE;
+
+    /**
+     * killing default constructor.
+     */
+    private RandomSpliterators() {
+    }
+
+    /**
+     * returns a stream of int.
+     *
+     * @param rng
+     *            generator, which is used by the stream
+     * @param size
+     *            number of elements, or -1 for unlimited stream
+     * @param origin
+     *            least value, ignored if not less than bound
+     * @param bound
+     *            upper bound (exclusive)
+     * @return stream of random int
+     */
+    static IntStream ints(final PowerJumpableGenerator rng, final long size,
+            final int origin, final int bound) {
+        return StreamSupport.intStream(new IntSpliterator(rng, 0, 0,
+                checkSize(size), origin, bound), false);
+    }
+
+    /**
+     * returns a stream of long.
+     *
+     * @param rng
+     *            generator, which is used by the stream
+     * @param size
+     *            number of elements, or -1 for unlimited stream
+     * @param origin
+     *            least value, ignored if not less than bound
+     * @param bound
+     *            upper bound (exclusive)
+     * @return stream of random long
+     */
+    static LongStream longs(final PowerJumpableGenerator rng, final long size,
+            final long origin, final long bound) {
+        return StreamSupport.longStream(new LongSpliterator(rng, 0, 0,
+                checkSize(size), origin, bound), false);
+    }
+
+    /**
+     * returns a stream of double.
+     *
+     * @param rng
+     *            generator, which is used by the stream
+     * @param size
+     *            number of elements, or -1 for unlimited stream
+     * @param origin
+     *            least value, ignored if not less than bound
+     * @param bound
+     *            upper bound (exclusive)
+     * @return stream of random double
+     */
+    static DoubleStream doubles(final PowerJumpableGenerator rng,
+            final long size, final double origin, final double bound) {
+        return StreamSupport.doubleStream(new DoubleSpliterator(rng, 0, 0,
+                checkSize(size), origin, bound), false);
+    }
+
+    /**
+     * returns a stream of generators split off a generator.
+     *
+     * @param rng
+     *            generator to be split
+     * @param size
+     *            number of elements, or -1 for unlimited stream
+     * @param splitter
+     *            source of randomness to split, or rng itself
+     * @return stream of generators
+     */
+    static Stream<SplittableGenerator> splits(final SplittableGenerator rng,
+            final long size, final SplittableGenerator splitter) {
+        SplittableGenerator source = splitter;
+        if (splitter == rng) {
+            source = null;
+        }
+        return StreamSupport.stream(new SplitsSpliterator(rng, source, 0,
+                checkSize(size)), false);
+    }
+
+    /**
+     * checks stream size.
+     *
+     * @param size
+     *            number of elements, or -1 for unlimited stream
+     * @return fence of spliterator
+     */
+    private static long checkSize(final long size) {
+        if (size == -1) {
+            return UNLIMITED;
+        }
+        if (size < 0) {
+            throw new IllegalArgumentException("size must be non-negative");
+        }
+        return size;
+    }
+
+    /**
+     * checks range of int or long.
+     *
+     * @param origin
+     *            least value
+     * @param bound
+     *            upper bound (exclusive)
+     */
+    static void checkRange(final long origin, final long bound) {
+        if (origin >= bound) {
+            throw new IllegalArgumentException(
+                    "bound must be greater than origin");
+        }
+    }
+
+    /**
+     * checks range of double.
+     *
+     * @param origin
+     *            least value
+     * @param bound
+     *            upper bound (exclusive)
+     */
+    static void checkRange(final double origin, final double bound) {
+        if (!(origin < bound && bound - origin < Double.POSITIVE_INFINITY)) {
+            throw new IllegalArgumentException(
+                    "bound must be greater than origin and finite");
+        }
+    }
+
+    /**
+     * spliterator of random int.
+     */
+    private static final class IntSpliterator
+            implements Spliterator.OfInt {
+        /** generator. */
+        private final PowerJumpableGenerator rng;
+        /** number of splits from the root. */
+        private int depth;
+        /** current index. */
+        private long index;
+        /** end index (exclusive). */
+        private final long fence;
+        /** least value. */
+        private final int origin;
+        /** upper bound (exclusive). */
+        private final int bound;
+
+        /**
+         * constructor.
+         *
+         * @param prng generator
+         * @param pdepth number of splits from the root
+         * @param pindex start index
+         * @param pfence end index (exclusive)
+         * @param porigin least value
+         * @param pbound upper bound (exclusive)
+         */
+        IntSpliterator(final PowerJumpableGenerator prng, final int pdepth,
+                final long pindex, final long pfence, final int porigin,
+                final int pbound) {
+            this.rng = prng;
+            this.depth = pdepth;
+            this.index = pindex;
+            this.fence = pfence;
+            this.origin = porigin;
+            this.bound = pbound;
+        }
+
+        /**
+         * generates next value.
+         *
+         * @return random int
+         */
+        private int next() {
+            if (origin < bound) {
+                return rng.nextInt(origin, bound);
+            } else {
+                return rng.nextInt();
+            }
+        }
+
+        @Override
+        public IntSpliterator trySplit() {
+            long i = index;
+            long m = (i + fence) >>> 1;
+            if (m <= i) {
+                return null;
+            }
+            index = m;
+            PowerJumpableGenerator prefix = rng.copy();
+            rng.jumpPower(depth);
+            depth++;
+            return new IntSpliterator(prefix, depth, i, m, origin, bound);
+        }
+
+        @Override
+        public boolean tryAdvance(final IntConsumer consumer) {
+            if (index >= fence) {
+                return false;
+            }
+            consumer.accept(next());
+            index++;
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(final IntConsumer consumer) {
+            for (long i = index; i < fence; i++) {
+                consumer.accept(next());
+            }
+            index = fence;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+
+    /**
+     * spliterator of random long.
+     */
+    private static final class LongSpliterator
+            implements Spliterator.OfLong {
+        /** generator. */
+        private final PowerJumpableGenerator rng;
+        /** number of splits from the root. */
+        private int depth;
+        /** current index. */
+        private long index;
+        /** end index (exclusive). */
+        private final long fence;
+        /** least value. */
+        private final long origin;
+        /** upper bound (exclusive). */
+        private final long bound;
+
+        /**
+         * constructor.
+         *
+         * @param prng generator
+         * @param pdepth number of splits from the root
+         * @param pindex start index
+         * @param pfence end index (exclusive)
+         * @param porigin least value
+         * @param pbound upper bound (exclusive)
+         */
+        LongSpliterator(final PowerJumpableGenerator prng, final int pdepth,
+                final long pindex, final long pfence, final long porigin,
+                final long pbound) {
+            this.rng = prng;
+            this.depth = pdepth;
+            this.index = pindex;
+            this.fence = pfence;
+            this.origin = porigin;
+            this.bound = pbound;
+        }
+
+        /**
+         * generates next value.
+         *
+         * @return random long
+         */
+        private long next() {
+            if (origin < bound) {
+                return rng.nextLong(origin, bound);
+            } else {
+                return rng.nextLong();
+            }
+        }
+
+        @Override
+        public LongSpliterator trySplit() {
+            long i = index;
+            long m = (i + fence) >>> 1;
+            if (m <= i) {
+                return null;
+            }
+            index = m;
+            PowerJumpableGenerator prefix = rng.copy();
+            rng.jumpPower(depth);
+            depth++;
+            return new LongSpliterator(prefix, depth, i, m, origin, bound);
+        }
+
+        @Override
+        public boolean tryAdvance(final LongConsumer consumer) {
+            if (index >= fence) {
+                return false;
+            }
+            consumer.accept(next());
+            index++;
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(final LongConsumer consumer) {
+            for (long i = index; i < fence; i++) {
+                consumer.accept(next());
+            }
+            index = fence;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+
+    /**
+     * spliterator of random double.
+     */
+    private static final class DoubleSpliterator
+            implements Spliterator.OfDouble {
+        /** generator. */
+        private final PowerJumpableGenerator rng;
+        /** number of splits from the root. */
+        private int depth;
+        /** current index. */
+        private long index;
+        /** end index (exclusive). */
+        private final long fence;
+        /** least value. */
+        private final double origin;
+        /** upper bound (exclusive). */
+        private final double bound;
+
+        /**
+         * constructor.
+         *
+         * @param prng generator
+         * @param pdepth number of splits from the root
+         * @param pindex start index
+         * @param pfence end index (exclusive)
+         * @param porigin least value
+         * @param pbound upper bound (exclusive)
+         */
+        DoubleSpliterator(final PowerJumpableGenerator prng,
+                final int pdepth, final long pindex, final long pfence,
+                final double porigin, final double pbound) {
+            this.rng = prng;
+            this.depth = pdepth;
+            this.index = pindex;
+            this.fence = pfence;
+            this.origin = porigin;
+            this.bound = pbound;
+        }
+
+        /**
+         * generates next value.
+         *
+         * @return random double
+         */
+        private double next() {
+            if (origin < bound) {
+                return rng.nextDouble(origin, bound);
+            } else {
+                return rng.nextDouble();
+            }
+        }
+
+        @Override
+        public DoubleSpliterator trySplit() {
+            long i = index;
+            long m = (i + fence) >>> 1;
+            if (m <= i) {
+                return null;
+            }
+            index = m;
+            PowerJumpableGenerator prefix = rng.copy();
+            rng.jumpPower(depth);
+            depth++;
+            return new DoubleSpliterator(prefix, depth, i, m, origin, bound);
+        }
+
+        @Override
+        public boolean tryAdvance(final DoubleConsumer consumer) {
+            if (index >= fence) {
+                return false;
+            }
+            consumer.accept(next());
+            index++;
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(final DoubleConsumer consumer) {
+            for (long i = index; i < fence; i++) {
+                consumer.accept(next());
+            }
+            index = fence;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+
+    /**
+     * spliterator of generators split off a generator.
+     */
+    private static final class SplitsSpliterator
+            implements Spliterator<SplittableGenerator> {
+        /** generator to be split. */
+        private final SplittableGenerator rng;
+        /** source of randomness, or null if rng splits itself. */
+        private final SplittableGenerator splitter;
+        /** current index. */
+        private long index;
+        /** end index (exclusive). */
+        private final long fence;
+
+        /**
+         * constructor.
+         *
+         * @param prng generator to be split
+         * @param psplitter source of randomness, or null
+         * @param pindex start index
+         * @param pfence end index (exclusive)
+         */
+        SplitsSpliterator(final SplittableGenerator prng,
+                final SplittableGenerator psplitter, final long pindex,
+                final long pfence) {
+            this.rng = prng;
+            this.splitter = psplitter;
+            this.index = pindex;
+            this.fence = pfence;
+        }
+
+        /**
+         * generates next generator.
+         *
+         * @return generator split off rng
+         */
+        private SplittableGenerator next() {
+            if (splitter == null) {
+                return rng.split();
+            } else {
+                return rng.split(splitter);
+            }
+        }
+
+        @Override
+        public SplitsSpliterator trySplit() {
+            long i = index;
+            long m = (i + fence) >>> 1;
+            if (m <= i) {
+                return null;
+            }
+            index = m;
+            if (splitter == null) {
+                return new SplitsSpliterator(rng.split(), null, i, m);
+            } else {
+                return new SplitsSpliterator(rng, splitter.split(), i, m);
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(
+                final Consumer<? super SplittableGenerator> consumer) {
+            if (index >= fence) {
+                return false;
+            }
+            consumer.accept(next());
+            index++;
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(
+                final Consumer<? super SplittableGenerator> consumer) {
+            for (long i = index; i < fence; i++) {
+                consumer.accept(next());
+            }
+            index = fence;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * This class makes TinyMT generators specialized for their parameters.
+ * <p>
+ * TinyMT32 and TinyMT64 read mat1, mat2 and tmat from instance fields at
+ * every step. For each parameter, this class defines a hidden class by
+ * {@link MethodHandles.Lookup#defineHiddenClassWithClassData}, whose static
+ * final fields hold the parameter, so the JIT compiler folds them into the
+ * generated code as constants. A hidden class is defined at the first use
+ * of a parameter and shared after that; classes are kept by mat1, mat2 and
+ * tmat, the constants in them, since parameter IDs of different tables may
+ * be same, and the characteristic polynomial doesn't depend on tmat.
+ * </p>
+ * <p>
+ * Each parameter costs a class in metaspace. This class keeps the classes
+ * of at most {@link #MAX_CLASSES} parameters recently specialized; a class
+ * no longer kept is unloaded when its generators are unreachable, and is
+ * defined again if the parameter is specialized again. So specializing
+ * generators of many parameters, such as a whole parameter table, defines
+ * many classes and gains little.
+ * </p>
+ * <p>
+ * A specialized generator continues the sequence of the given generator,
+ * and {@link RandomGenerator#nextInt()}, {@link RandomGenerator#nextLong()},
+ * their bounded variants, {@link RandomGenerator#nextDouble()},
+ * {@link RandomGenerator#nextFloat()}, {@link RandomGenerator#nextBoolean()},
+ * {@link RandomGenerator#nextBytes(byte[])},
+ * {@link RandomGenerator#nextGaussian()} and
+ * {@link RandomGenerator#nextExponential()} return the same values as the
+ * given generator does. A normal random number cached by the given
+ * generator is not taken over. Specialized generators can't be reseeded,
+ * and are not synchronized.
+ * </p>
+ * <p>
+ * Specialization pays when a few generators of a parameter generate many
+ * numbers, for example a generator per worker thread.
+ * </p>
+ *
+ * @author M. Saito
+ */
+public final class SpecializedTinyMT {
+    /** lookup to define hidden classes in this package. */
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    /** int size. */
+    private static final int INT_SIZE = 32;
+    /** type of TinyMT32 in keys. */
+    private static final int TYPE32 = 32;
+    /** type of TinyMT64 in keys. */
+    private static final int TYPE64 = 64;
+    /** maximum number of classes kept. */
+    static final int MAX_CLASSES = 256;
+    /** initial capacity of the cache. */
+    private static final int INITIAL_CAPACITY = 16;
+    /** load factor of the cache. */
+    private static final float LOAD_FACTOR = 0.75f;
+    /** multiplier to combine hash codes. */
+    private static final int HASH_MULTIPLIER = 31;
+    /** constructors of specialized classes, least recently used first. */
+    private static final Map<Key, MethodHandle> CLASSES
+        = new LinkedHashMap<Key, MethodHandle>(INITIAL_CAPACITY,
+                LOAD_FACTOR, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(
+                    final Map.Entry<Key, MethodHandle> eldest) {
+                return size() > MAX_CLASSES;
+            }
+        };
+
+    /**
+     * killing default constructor.
+     */
+    private SpecializedTinyMT() {
+    }
+
+    /**
+     * returns a generator specialized for the parameter of tiny, which
+     * starts from the current state of tiny. tiny is not changed.
+     *
+     * @param tiny
+     *            generator
+     * @return specialized generator
+     */
+    public static RandomGenerator of(final TinyMT32 tiny) {
+        final TinyMT32Parameter p = tiny.getParameter();
+        Key key = new Key(TYPE32, p.getMat1(), p.getMat2(), p.getTmat());
+        MethodHandle constructor = lookup(key);
+        if (constructor == null) {
+            constructor = register(key, define(SpecializedTinyMT32.class,
+                    int[].class,
+                    new int[] {p.getMat1(), p.getMat2(), p.getTmat()}));
+        }
+        try {
+            return (RandomGenerator) constructor.invokeExact(tiny.getStatus());
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * returns a generator specialized for the parameter of tiny, which
+     * starts from the current state of tiny. tiny is not changed.
+     *
+     * @param tiny
+     *            generator
+     * @return specialized generator
+     */
+    public static RandomGenerator of(final TinyMT64 tiny) {
+        final TinyMT64Parameter p = tiny.getParameter();
+        Key key = new Key(TYPE64, p.getMat1(), p.getMat2(), p.getTmat());
+        MethodHandle constructor = lookup(key);
+        if (constructor == null) {
+            constructor = register(key, define(SpecializedTinyMT64.class,
+                    long[].class, new long[] {p.getMat1(),
+                            p.getMat2() << INT_SIZE, p.getTmat()}));
+        }
+        try {
+            return (RandomGenerator) constructor.invokeExact(tiny.getStatus());
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * returns number of specialized classes kept.
+     *
+     * @return number of classes
+     */
+    static int classCount() {
+        synchronized (CLASSES) {
+            return CLASSES.size();
+        }
+    }
+
+    /**
+     * returns constructor of the class kept for key.
+     *
+     * @param key
+     *            constants of parameter
+     * @return constructor, or null if not kept
+     */
+    private static MethodHandle lookup(final Key key) {
+        synchronized (CLASSES) {
+            return CLASSES.get(key);
+        }
+    }
+
+    /**
+     * keeps constructor for key, unless another thread has kept one.
+     *
+     * @param key
+     *            constants of parameter
+     * @param constructor
+     *            constructor of a class defined for key
+     * @return constructor kept for key
+     */
+    private static MethodHandle register(final Key key,
+            final MethodHandle constructor) {
+        synchronized (CLASSES) {
+            MethodHandle kept = CLASSES.putIfAbsent(key, constructor);
+            if (kept != null) {
+                return kept;
+            }
+            return constructor;
+        }
+    }
+
+    /**
+     * defines a hidden class from template with class data, and returns its
+     * constructor.
+     *
+     * @param template
+     *            template class
+     * @param statusType
+     *            type of the argument of the constructor
+     * @param data
+     *            class data
+     * @return constructor which returns {@link RandomGenerator}
+     */
+    private static MethodHandle define(final Class<?> template,
+            final Class<?> statusType, final Object data) {
+        String name = template.getSimpleName() + ".class";
+        try (InputStream in = template.getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalStateException("can't find " + name);
+            }
+            MethodHandles.Lookup hidden = LOOKUP
+                    .defineHiddenClassWithClassData(in.readAllBytes(), data,
+                            true);
+            return hidden.findConstructor(hidden.lookupClass(),
+                    MethodType.methodType(void.class, statusType))
+                    .asType(MethodType.methodType(RandomGenerator.class,
+                            statusType));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * constants baked in a specialized class.
+     */
+    private static final class Key {
+        /** type of TinyMT. */
+        private final int type;
+        /** mat1. */
+        private final long mat1;
+        /** mat2. */
+        private final long mat2;
+        /** tmat. */
+        private final long tmat;
+
+        /**
+         * constructor.
+         *
+         * @param ptype
+         *            type of TinyMT
+         * @param pmat1
+         *            mat1
+         * @param pmat2
+         *            mat2
+         * @param ptmat
+         *            tmat
+         */
+        Key(final int ptype, final long pmat1, final long pmat2,
+                final long ptmat) {
+            this.type = ptype;
+            this.mat1 = pmat1;
+            this.mat2 = pmat2;
+            this.tmat = ptmat;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = type;
+            h = h * HASH_MULTIPLIER + Long.hashCode(mat1);
+            h = h * HASH_MULTIPLIER + Long.hashCode(mat2);
+            return h * HASH_MULTIPLIER + Long.hashCode(tmat);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o instanceof Key) {
+                Key k = (Key) o;
+                return type == k.type && mat1 == k.mat1 && mat2 == k.mat2
+                        && tmat == k.tmat;
+            } else {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandles;
+import java.util.random.RandomGenerator;
+
+import org.apache.commons.math.random.AbstractRandomGenerator;
+
+/**
+ * Template of TinyMT32 specialized for one parameter.
+ * <p>
+ * This class is never used as it is. {@link SpecializedTinyMT} defines a
+ * hidden class from the bytes of this class for each parameter, and gives
+ * mat1, mat2 and tmat as class data. They become static final fields of
+ * the hidden class, so the JIT compiler treats them as constants.
+ * </p>
+ * <p>
+ * Like TinyMT32, this class extends {@link AbstractRandomGenerator}, so
+ * {@link #nextGaussian()}, {@link #nextBoolean()} and
+ * {@link #nextBytes(byte[])} are same as TinyMT32.
+ * </p>
+ *
+ * @author M. Saito
+ */
+final class SpecializedTinyMT32 extends AbstractRandomGenerator
+        implements RandomGenerator {
+    /** mask pattern to limit internal size. */
+    private static final int MASK = 0x7fffffff;
+    /** fixed shift 0. */
+    private static final int SH0 = 1;
+    /** fixed shift 1. */
+    private static final int SH1 = 10;
+    /** fixed 8 bit shift. */
+    private static final int SH8 = 8;
+    /** int size. */
+    private static final int INT_SIZE = 32;
+    /** int to unsigned long mask. */
+    private static final long INT_TO_LONG_MASK = 0xffffffffL;
+    /** int to float shift. */
+    private static final int INT_TO_FLOAT_SHIFT = 9;
+    /** int to float mask. */
+    private static final int INT_TO_FLOAT_MASK = 0x3f800000;
+    /** long to double shift. */
+    private static final int LONG_TO_DOUBLE_SHIFT = 12;
+    /** long to double mask. */
+    private static final long LONG_TO_DOUBLE_MASK = 0x3ff0000000000000L;
+    /** mat1, mat2 and tmat of the parameter. */
+    private static final int[] DATA = classData();
+    /** parameter mat1. */
+    private static final int MAT1 = DATA[0];
+    /** parameter mat2. */
+    private static final int MAT2 = DATA[1];
+    /** parameter tmat. */
+    private static final int TMAT = DATA[2];
+    /** tmat shifted for float output. */
+    private static final int TMAT_FLOAT = TMAT >>> INT_TO_FLOAT_SHIFT;
+    /** internal state 0. */
+    private int st0;
+    /** internal state 1. */
+    private int st1;
+    /** internal state 2. */
+    private int st2;
+    /** internal state 3. */
+    private int st3;
+
+    /**
+     * Constructor from internal state.
+     *
+     * @param status
+     *            internal state, st0 to st3
+     */
+    private SpecializedTinyMT32(final int[] status) {
+        st0 = status[0];
+        st1 = status[1];
+        st2 = status[2];
+        st3 = status[3];
+    }
+
+    /**
+     * returns class data given by {@link SpecializedTinyMT}.
+     *
+     * @return mat1, mat2 and tmat
+     */
+    private static int[] classData() {
+        try {
+            return MethodHandles.classData(MethodHandles.lookup(),
+                    ConstantDescs.DEFAULT_NAME, int[].class);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * returns 32-bit integer.
+     * @return next int
+     */
+    @Override
+    public int nextInt() {
+        nextState();
+        int t1 = st0 + (st2 >>> SH8);
+        return st3 ^ t1 ^ (-(t1 & 1) & TMAT);
+    }
+
+    /**
+     * returns 64-bit integer.
+     * @return next long
+     */
+    @Override
+    public long nextLong() {
+        long x = nextInt();
+        x = x << INT_SIZE;
+        x |= nextInt() & INT_TO_LONG_MASK;
+        return x;
+    }
+
+    /**
+     * returns double r, 0 <= r < 1.0.
+     * @return next double
+     */
+    @Override
+    public double nextDouble() {
+        long x = (nextLong() >>> LONG_TO_DOUBLE_SHIFT) | LONG_TO_DOUBLE_MASK;
+        return Double.longBitsToDouble(x) - 1.0;
+    }
+
+    /**
+     * returns float r, 0 <= r < 1.0.
+     * @return next float
+     */
+    @Override
+    public float nextFloat() {
+        nextState();
+        int t1 = st0 + (st2 >>> SH8);
+        int t0 = ((st3 ^ t1) >>> INT_TO_FLOAT_SHIFT) ^ INT_TO_FLOAT_MASK
+                ^ (-(t1 & 1) & TMAT_FLOAT);
+        return Float.intBitsToFloat(t0) - 1.0f;
+    }
+
+    /**
+     * returns 32-bit integer r, 0 <= r < bound.
+     * @param bound upper bound (exclusive)
+     * @return next int
+     * @throws IllegalArgumentException if bound is not positive
+     * @see TinyMT32#nextInt(int)
+     */
+    @Override
+    public int nextInt(final int bound) {
+        return MultiplyShift.nextInt(this, bound);
+    }
+
+    /**
+     * returns 32-bit integer r, origin <= r < bound.
+     * @param origin least value
+     * @param bound upper bound (exclusive)
+     * @return next int
+     * @throws IllegalArgumentException if origin is not less than bound
+     * @see TinyMT32#nextInt(int, int)
+     */
+    @Override
+    public int nextInt(final int origin, final int bound) {
+        return MultiplyShift.nextInt(this, origin, bound);
+    }
+
+    /**
+     * returns 64-bit integer r, 0 <= r < bound.
+     * @param bound upper bound (exclusive)
+     * @return next long
+     * @throws IllegalArgumentException if bound is not positive
+     * @see TinyMT32#nextLong(long)
+     */
+    @Override
+    public long nextLong(final long bound) {
+        return MultiplyShift.nextLong(this, bound);
+    }
+
+    /**
+     * returns 64-bit integer r, origin <= r < bound.
+     * @param origin least value
+     * @param bound upper bound (exclusive)
+     * @return next long
+     * @throws IllegalArgumentException if origin is not less than bound
+     * @see TinyMT32#nextLong(long, long)
+     */
+    @Override
+    public long nextLong(final long origin, final long bound) {
+        return MultiplyShift.nextLong(this, origin, bound);
+    }
+
+    /**
+     * returns exponential random number, whose mean is 1.
+     * @return next exponential random number
+     * @see TinyMT32#nextExponential()
+     */
+    @Override
+    public double nextExponential() {
+        return Ziggurat.exponential(this);
+    }
+
+    /**
+     * specialized generators can't be reseeded.
+     * @param seed seed
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void setSeed(final long seed) {
+        throw new UnsupportedOperationException(
+                "specialized generator can't be reseeded");
+    }
+
+    /**
+     * The state transition function. This function is F<sub>2</sub>-linear.
+     */
+    private void nextState() {
+        int x = (st0 & MASK) ^ st1 ^ st2;
+        x ^= (x << SH0);
+        int y = st3 ^ (st3 >>> SH0) ^ x;
+        int odd = -(y & 1);
+        st0 = st1;
+        st1 = st2 ^ (odd & MAT1);
+        st2 = x ^ (y << SH1) ^ (odd & MAT2);
+        st3 = y;
+    }
+}
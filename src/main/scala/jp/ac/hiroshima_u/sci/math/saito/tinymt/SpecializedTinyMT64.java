@@ -0,0 +1,209 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandles;
+import java.util.random.RandomGenerator;
+
+import org.apache.commons.math.random.AbstractRandomGenerator;
+
+/**
+ * Template of TinyMT64 specialized for one parameter.
+ * <p>
+ * This class is never used as it is. {@link SpecializedTinyMT} defines a
+ * hidden class from the bytes of this class for each parameter, and gives
+ * mat1, mat2 and tmat as class data. They become static final fields of
+ * the hidden class, so the JIT compiler treats them as constants.
+ * </p>
+ * <p>
+ * Like TinyMT64, this class extends {@link AbstractRandomGenerator}, so
+ * {@link #nextGaussian()}, {@link #nextBoolean()} and
+ * {@link #nextBytes(byte[])} are same as TinyMT64.
+ * </p>
+ *
+ * @author M. Saito
+ */
+final class SpecializedTinyMT64 extends AbstractRandomGenerator
+        implements RandomGenerator {
+    /** mask pattern to limit internal size. */
+    private static final long MASK = 0x7fffffffffffffffL;
+    /** fixed shift 0. */
+    private static final int SH0 = 12;
+    /** fixed shift 1. */
+    private static final int SH1 = 11;
+    /** fixed 8 bit shift. */
+    private static final int SH8 = 8;
+    /** int size. */
+    private static final int INT_SIZE = 32;
+    /** long to double shift. */
+    private static final int LONG_TO_DOUBLE_SHIFT = 12;
+    /** long to double mask. */
+    private static final long LONG_TO_DOUBLE_MASK = 0x3ff0000000000000L;
+    /** mat1, mat2 shifted to the upper half, and tmat of the parameter. */
+    private static final long[] DATA = classData();
+    /** parameter mat1. */
+    private static final long MAT1 = DATA[0];
+    /** parameter mat2 shifted to the upper half. */
+    private static final long MAT2 = DATA[1];
+    /** parameter tmat. */
+    private static final long TMAT = DATA[2];
+    /** tmat shifted for double output. */
+    private static final long TMAT_DOUBLE = TMAT >>> LONG_TO_DOUBLE_SHIFT;
+    /** internal state 0. */
+    private long st0;
+    /** internal state 1. */
+    private long st1;
+
+    /**
+     * Constructor from internal state.
+     *
+     * @param status
+     *            internal state, st0 and st1
+     */
+    private SpecializedTinyMT64(final long[] status) {
+        st0 = status[0];
+        st1 = status[1];
+    }
+
+    /**
+     * returns class data given by {@link SpecializedTinyMT}.
+     *
+     * @return mat1, mat2 and tmat
+     */
+    private static long[] classData() {
+        try {
+            return MethodHandles.classData(MethodHandles.lookup(),
+                    ConstantDescs.DEFAULT_NAME, long[].class);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * returns 32-bit integer.
+     * @return next int
+     */
+    @Override
+    public int nextInt() {
+        return (int) (nextLong() >>> INT_SIZE);
+    }
+
+    /**
+     * returns 64-bit integer.
+     * @return next long
+     */
+    @Override
+    public long nextLong() {
+        nextState();
+        long x = st0 + st1;
+        x ^= st0 >>> SH8;
+        return x ^ (-(x & 1) & TMAT);
+    }
+
+    /**
+     * returns double r, 0 <= r < 1.0.
+     * @return next double
+     */
+    @Override
+    public double nextDouble() {
+        nextState();
+        long x = st0 + st1;
+        x ^= st0 >>> SH8;
+        x = (x >>> LONG_TO_DOUBLE_SHIFT) ^ LONG_TO_DOUBLE_MASK
+                ^ (-(x & 1) & TMAT_DOUBLE);
+        return Double.longBitsToDouble(x) - 1.0;
+    }
+
+    /**
+     * returns float r, 0 <= r < 1.0.
+     * @return next float
+     */
+    @Override
+    public float nextFloat() {
+        return (float) nextDouble();
+    }
+
+    /**
+     * returns 32-bit integer r, 0 <= r < bound.
+     * @param bound upper bound (exclusive)
+     * @return next int
+     * @throws IllegalArgumentException if bound is not positive
+     * @see TinyMT64#nextInt(int)
+     */
+    @Override
+    public int nextInt(final int bound) {
+        return MultiplyShift.nextInt(this, bound);
+    }
+
+    /**
+     * returns 32-bit integer r, origin <= r < bound.
+     * @param origin least value
+     * @param bound upper bound (exclusive)
+     * @return next int
+     * @throws IllegalArgumentException if origin is not less than bound
+     * @see TinyMT64#nextInt(int, int)
+     */
+    @Override
+    public int nextInt(final int origin, final int bound) {
+        return MultiplyShift.nextInt(this, origin, bound);
+    }
+
+    /**
+     * returns 64-bit integer r, 0 <= r < bound.
+     * @param bound upper bound (exclusive)
+     * @return next long
+     * @throws IllegalArgumentException if bound is not positive
+     * @see TinyMT64#nextLong(long)
+     */
+    @Override
+    public long nextLong(final long bound) {
+        return MultiplyShift.nextLong(this, bound);
+    }
+
+    /**
+     * returns 64-bit integer r, origin <= r < bound.
+     * @param origin least value
+     * @param bound upper bound (exclusive)
+     * @return next long
+     * @throws IllegalArgumentException if origin is not less than bound
+     * @see TinyMT64#nextLong(long, long)
+     */
+    @Override
+    public long nextLong(final long origin, final long bound) {
+        return MultiplyShift.nextLong(this, origin, bound);
+    }
+
+    /**
+     * returns exponential random number, whose mean is 1.
+     * @return next exponential random number
+     * @see TinyMT64#nextExponential()
+     */
+    @Override
+    public double nextExponential() {
+        return Ziggurat.exponential(this);
+    }
+
+    /**
+     * specialized generators can't be reseeded.
+     * @param seed seed
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void setSeed(final long seed) {
+        throw new UnsupportedOperationException(
+                "specialized generator can't be reseeded");
+    }
+
+    /**
+     * The state transition function. This function is F<sub>2</sub>-linear.
+     */
+    private void nextState() {
+        long x = (st0 & MASK) ^ st1;
+        x ^= x << SH0;
+        x ^= x >>> INT_SIZE;
+        x ^= x << INT_SIZE;
+        x ^= x << SH1;
+        long odd = -(x & 1);
+        st0 = st1 ^ (odd & MAT1);
+        st1 = x ^ (odd & MAT2);
+    }
+}
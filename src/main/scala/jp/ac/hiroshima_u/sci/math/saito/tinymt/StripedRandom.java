@@ -0,0 +1,282 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.random.RandomGenerator;
+
+/**
+ * This class is an alternative of {@link ThreadLocalRandom} for many short
+ * lived threads, such as virtual threads.
+ * <p>
+ * {@link ThreadLocalRandom} creates and seeds a TinyMT32 for every thread.
+ * This class instead keeps a fixed pool of TinyMT32 generators, four per
+ * processor and at least sixteen, which are jumped copies of one generator
+ * by 2<sup>64</sup> steps, so their sequences never overlap. Each call
+ * borrows a generator from the stripe selected by the thread, generates
+ * numbers, and returns it. So no generator is created or seeded per
+ * thread, and a number is never generated twice by two threads.
+ * </p>
+ * <p>
+ * A stripe is borrowed by one atomic exchange and returned by one atomic
+ * compare and set. Threads start from distinct stripes by the hash of their
+ * ids and move to the next stripe only when the stripe is borrowed by
+ * another thread, so there is no lock and little contention. Stripes are
+ * padded to separate cache lines.
+ * </p>
+ * <p>
+ * The sequence seen by a thread is not reproducible, because stripes are
+ * shared by threads. Use jumped or split generators for reproducible
+ * parallel computation.
+ * </p>
+ *
+ * @author M. Saito
+ */
+public final class StripedRandom implements RandomGenerator {
+    /** number of slots per stripe, to put stripes on distinct lines. */
+    private static final int PADDING = 16;
+    /** number of stripes per processor. */
+    private static final int STRIPES_PER_PROCESSOR = 4;
+    /** minimum number of stripes. */
+    private static final int MIN_STRIPES = 16;
+    /** multiplier to spread thread id, the golden ratio. */
+    private static final long HASH_MULTIPLIER = 0x9e3779b97f4a7c15L;
+    /** shift size for converting long to int. */
+    private static final int LONG_TO_INT = 32;
+    /** number of passes over stripes ended by yield before parking. */
+    private static final int YIELD_PASSES = 16;
+    /** nanoseconds to park after a pass over stripes, all borrowed. */
+    private static final long PARK_NANOS = 10000;
+    /** the instance. */
+    private static final StripedRandom INSTANCE = new StripedRandom();
+    /** slots of generators, null while borrowed. */
+    private final AtomicReferenceArray<TinyMT32> slots;
+    /** number of stripes - 1. */
+    private final int mask;
+
+    /**
+     * creates generators of stripes.
+     */
+    private StripedRandom() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int stripes = Integer.highestOneBit(Math.max(MIN_STRIPES,
+                processors * STRIPES_PER_PROCESSOR) - 1) << 1;
+        long nanoTime = System.nanoTime();
+        long threadId = Thread.currentThread().getId();
+        TinyMT32 root = TinyMT32.getDefault(new int[] {
+                (int) (nanoTime >>> LONG_TO_INT), (int) nanoTime,
+                (int) (threadId >>> LONG_TO_INT), (int) threadId });
+        TinyMT32[] generators = root.getJumpedArray(stripes, 1);
+        slots = new AtomicReferenceArray<TinyMT32>(stripes * PADDING);
+        for (int i = 0; i < stripes; i++) {
+            slots.set(i * PADDING, generators[i]);
+        }
+        mask = stripes - 1;
+    }
+
+    /**
+     * returns the instance. The instance is shared by all threads.
+     *
+     * @return instance
+     */
+    public static StripedRandom current() {
+        return INSTANCE;
+    }
+
+    /**
+     * returns number of stripes.
+     *
+     * @return number of stripes
+     */
+    public int stripes() {
+        return mask + 1;
+    }
+
+    /**
+     * applies a function to a generator borrowed for the current thread.
+     * This is faster than calling methods of this class repeatedly, for
+     * example to fill an array by {@link TinyMT32#nextInts(int[])}. The
+     * generator must not be used after the function returns. The function
+     * should not block, since the stripe is borrowed until it returns, and
+     * threads which find all stripes borrowed wait for one of them.
+     *
+     * @param <R>
+     *            type of result
+     * @param action
+     *            function which uses the generator
+     * @return result of the function
+     */
+    public <R> R apply(final Function<? super TinyMT32, ? extends R> action) {
+        TinyMT32 g = acquire();
+        try {
+            return action.apply(g);
+        } finally {
+            release(g);
+        }
+    }
+
+    @Override
+    public int nextInt() {
+        TinyMT32 g = acquire();
+        try {
+            return g.nextInt();
+        } finally {
+            release(g);
+        }
+    }
+
+    @Override
+    public int nextInt(final int bound) {
+        TinyMT32 g = acquire();
+        try {
+            return g.nextInt(bound);
+        } finally {
+            release(g);
+        }
+    }
+
+    @Override
+    public int nextInt(final int origin, final int bound) {
+        TinyMT32 g = acquire();
+        try {
+            return g.nextInt(origin, bound);
+        } finally {
+            release(g);
+        }
+    }
+
+    @Override
+    public long nextLong() {
+        TinyMT32 g = acquire();
+        try {
+            return g.nextLong();
+        } finally {
+            release(g);
+        }
+    }
+
+    @Override
+    public long nextLong(final long bound) {
+        TinyMT32 g = acquire();
+        try {
+            return g.nextLong(bound);
+        } finally {
+            release(g);
+        }
+    }
+
+    @Override
+    public long nextLong(final long origin, final long bound) {
+        TinyMT32 g = acquire();
+        try {
+            return g.nextLong(origin, bound);
+        } finally {
+            release(g);
+        }
+    }
+
+    @Override
+    public double nextDouble() {
+        TinyMT32 g = acquire();
+        try {
+            return g.nextDouble();
+        } finally {
+            release(g);
+        }
+    }
+
+    @Override
+    public float nextFloat() {
+        TinyMT32 g = acquire();
+        try {
+            return g.nextFloat();
+        } finally {
+            release(g);
+        }
+    }
+
+    @Override
+    public double nextGaussian() {
+        TinyMT32 g = acquire();
+        try {
+            return g.nextGaussian();
+        } finally {
+            release(g);
+        }
+    }
+
+    @Override
+    public double nextExponential() {
+        TinyMT32 g = acquire();
+        try {
+            return g.nextExponential();
+        } finally {
+            release(g);
+        }
+    }
+
+    @Override
+    public void nextBytes(final byte[] bytes) {
+        TinyMT32 g = acquire();
+        try {
+            g.nextBytes(bytes);
+        } finally {
+            release(g);
+        }
+    }
+
+    /**
+     * returns the first stripe tried by the current thread.
+     *
+     * @return index of stripe
+     */
+    private int probe() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * HASH_MULTIPLIER) >>> LONG_TO_INT) & mask;
+    }
+
+    /**
+     * borrows a generator. Stripes are tried from {@link #probe()}, and
+     * when all of them are borrowed, this method yields, and after
+     * {@link #YIELD_PASSES} passes parks, until one is returned. So threads
+     * waiting for stripes don't occupy the carrier threads, which virtual
+     * threads holding stripes need to return them.
+     *
+     * @return borrowed generator
+     */
+    private TinyMT32 acquire() {
+        int i = probe();
+        for (int pass = 0;; pass++) {
+            for (int k = 0; k <= mask; k++) {
+                int slot = i * PADDING;
+                if (slots.get(slot) != null) {
+                    TinyMT32 g = slots.getAndSet(slot, null);
+                    if (g != null) {
+                        return g;
+                    }
+                }
+                i = (i + 1) & mask;
+            }
+            if (pass < YIELD_PASSES) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * returns a generator to an empty stripe. Since stripes and generators
+     * are the same in number, an empty stripe is always found, usually the
+     * one borrowed from.
+     *
+     * @param g
+     *            borrowed generator
+     */
+    private void release(final TinyMT32 g) {
+        int i = probe();
+        while (!slots.compareAndSet(i * PADDING, null, g)) {
+            i = (i + 1) & mask;
+        }
+    }
+}
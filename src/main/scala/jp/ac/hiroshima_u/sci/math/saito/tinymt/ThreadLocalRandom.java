@@ -8,6 +8,10 @@ import org.apache.commons.math.random.RandomAdaptor;
  * This class is an alternative implementation of 
  * java.util.concurrent.ThreadLocalRandom in
  * Java 7.
+ * <p>
+ * A generator is created and seeded for every thread. For many short lived
+ * threads, such as virtual threads, {@link StripedRandom} is cheaper.
+ * </p>
  * 
  * @author M. Saito
  * 
@@ -46,6 +50,9 @@ public final class ThreadLocalRandom {
 
     /**
      * get random generator for current thread.
+     * The returned generator is also a
+     * {@link java.util.random.RandomGenerator}, and it should be preferred
+     * to {@link #current()} when java.util.random API is sufficient.
      * 
      * @return instance of TinyMT
      */
@@ -55,6 +62,8 @@ public final class ThreadLocalRandom {
 
     /**
      * get subclass of java.util.Random for current thread.
+     * Calls of returned object are delegated to TinyMT through
+     * an adaptor, {@link #currentTinyMT()} is faster.
      * 
      * @return instance of subclass of java.util.Random 
      */
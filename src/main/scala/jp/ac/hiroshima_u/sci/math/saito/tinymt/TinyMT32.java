@@ -1,7 +1,20 @@
 package jp.ac.hiroshima_u.sci.math.saito.tinymt;
 
 import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+import java.util.random.RandomGenerator;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import org.apache.commons.math.random.AbstractRandomGenerator;
 
@@ -28,12 +41,41 @@ import org.apache.commons.math.random.AbstractRandomGenerator;
  * polynomials are discrete by calling
  * {@link TinyMT32#getTinyMTArray(int, long)}.
  * </p>
+ * <p>
+ * This class implements {@link RandomGenerator.LeapableGenerator}, so it can
+ * be used as {@link RandomGenerator} of Java 17 and later. Jump distance is
+ * 2<sup>64</sup> and leap distance is 2<sup>96</sup>. This class is also
+ * available from {@link java.util.random.RandomGeneratorFactory} by the name
+ * "TinyMT32".
+ * </p>
+ * <p>
+ * This class also implements {@link RandomGenerator.SplittableGenerator}.
+ * {@link #split()} needs no coordinator, so it fits recursive fork-join
+ * tasks where the number of generators is not known in advance.
+ * </p>
+ * <p>
+ * The state of a generator can be saved in 32 bytes by {@link #saveState()}
+ * or {@link #saveState(ByteBuffer)} and restored into a generator of the
+ * same parameter by {@link #restoreState(long[])} or
+ * {@link #restoreState(ByteBuffer)}. This class is also
+ * {@link java.io.Serializable}, the serial form has the parameter and the
+ * state.
+ * </p>
  * @author M. Saito
  * @see <a href=
  *      "http://www.math.sci.hiroshima-u.ac.jp/~m-mat/MT/TINYMT/index.html">
  *      TinyMT web page</a>
  */
-public final class TinyMT32 extends AbstractRandomGenerator {
+public final class TinyMT32 extends AbstractRandomGenerator
+        implements RandomGenerator.LeapableGenerator,
+        RandomGenerator.SplittableGenerator, PowerJumpableGenerator,
+        Serializable {
+    /** number of longs of saved state. */
+    public static final int STATE_LONGS = 4;
+    /** number of bytes of saved state. */
+    public static final int STATE_BYTES = STATE_LONGS * Long.BYTES;
+    /** serial version. */
+    private static final long serialVersionUID = 1L;
     /** bit size of int. */
     private static final int INT_SIZE = 32;
     /** least long over int. */
@@ -50,6 +92,8 @@ public final class TinyMT32 extends AbstractRandomGenerator {
     private static final int MAGIC_NUMBER3 = 1812433253;
     /** int to float shift. */
     private static final int INT_TO_FLOAT_SHIFT = 9;
+    /** int to float mask. */
+    private static final int INT_TO_FLOAT_MASK = 0x3f800000;
     /** long to double shift. */
     private static final int LONG_TO_DOUBLE_SHIFT = 12;
     /** hexadecimal base. */
@@ -63,6 +107,13 @@ public final class TinyMT32 extends AbstractRandomGenerator {
      */
     private static final BigInteger BASIC_JUMP_STEP 
         = new BigInteger("2").pow(64);
+    /** period of TinyMT, 2<sup>127</sup> - 1. */
+    private static final BigInteger PERIOD
+        = BigInteger.ONE.shiftLeft(127).subtract(BigInteger.ONE);
+    /** jump distance of {@link #jump()}. */
+    private static final double JUMP_DISTANCE = 0x1.0p64;
+    /** jump distance of {@link #leap()}. */
+    private static final double LEAP_DISTANCE = 0x1.0p96;
     /** mask pattern to limit internal size. */
     private static final int MASK = 0x7fffffff;
     /** fixed shift 0. */
@@ -73,6 +124,18 @@ public final class TinyMT32 extends AbstractRandomGenerator {
     private static final int SH8 = 8;
     /** pre loop before generation. */
     private static final int MIN_LOOP = 8;
+    /** number of int in internal state. */
+    private static final int STATE_SIZE = 4;
+    /** window width of jump. */
+    private static final int JUMP_WINDOW = 4;
+    /** size of table used by jump. */
+    private static final int JUMP_TABLE_SIZE = 1 << JUMP_WINDOW;
+    /** number of levels of split which halve the jump space. */
+    private static final int SPLIT_LEVELS = 62;
+    /** level of power jump of {@link #leap()}, 2<sup>64 + 32</sup> steps. */
+    private static final int LEAP_LEVEL = 32;
+    /** shift to get number of jumps of random split. */
+    private static final int SPLIT_RANDOM_SHIFT = 2;
     /** internal state 0. */
     private int st0;
     /** internal state 1. */
@@ -83,6 +146,16 @@ public final class TinyMT32 extends AbstractRandomGenerator {
     private int st3;
     /** parameters for this generator. */
     private final TinyMT32Parameter parameter;
+    /** parameter mat1, copied from the parameter for the hot path. */
+    private final int mat1;
+    /** parameter mat2, copied from the parameter for the hot path. */
+    private final int mat2;
+    /** parameter tmat, copied from the parameter for the hot path. */
+    private final int tmat;
+    /** tmat shifted for float output. */
+    private final int tmatFloat;
+    /** number of splits of this generator and its ancestors. */
+    private int splitLevel;
 
     /**
      * Constructor from a parameter.
@@ -92,6 +165,10 @@ public final class TinyMT32 extends AbstractRandomGenerator {
      */
     private TinyMT32(final TinyMT32Parameter param) {
         this.parameter = param;
+        this.mat1 = param.getMat1();
+        this.mat2 = param.getMat2();
+        this.tmat = param.getTmat();
+        this.tmatFloat = tmat >>> INT_TO_FLOAT_SHIFT;
     }
 
     /**
@@ -102,12 +179,46 @@ public final class TinyMT32 extends AbstractRandomGenerator {
      */
     private TinyMT32(final TinyMT32 that) {
         this.parameter = that.parameter;
+        this.mat1 = that.mat1;
+        this.mat2 = that.mat2;
+        this.tmat = that.tmat;
+        this.tmatFloat = that.tmatFloat;
+        this.splitLevel = that.splitLevel;
         this.st0 = that.st0;
         this.st1 = that.st1;
         this.st2 = that.st2;
         this.st3 = that.st3;
     }
 
+    /**
+     * Constructor with the first generated parameter of TinyMTDC.
+     * {@link System#nanoTime()} and {@link Thread#getId()} are used for
+     * seed. This is same as {@link #getDefault()}.
+     */
+    public TinyMT32() {
+        this(TinyMT32Parameter.getDefaultParameter());
+        int[] seed = new int[4];
+        long time = System.nanoTime();
+        long threadId = Thread.currentThread().getId();
+        seed[0] = (int) (time >>> INT_SIZE);
+        seed[1] = (int) time;
+        seed[2] = (int) (threadId >>> INT_SIZE);
+        seed[3] = (int) threadId;
+        setSeed(seed);
+    }
+
+    /**
+     * Constructor with the first generated parameter of TinyMTDC.
+     * This is same as {@link #getDefault(long)}.
+     * 
+     * @param seed
+     *            seed of pseudo random numbers.
+     */
+    public TinyMT32(final long seed) {
+        this(TinyMT32Parameter.getDefaultParameter());
+        setSeed(seed);
+    }
+
     /**
      * returns 32-bit integer.
      * @return next int
@@ -130,6 +241,309 @@ public final class TinyMT32 extends AbstractRandomGenerator {
         return x;
     }
 
+    /**
+     * returns 32-bit integer r, 0 <= r < bound.
+     * This method uses multiplication and shift with rejection by
+     * D. Lemire, so the result is not biased and one {@link #nextInt()} is
+     * used in most cases.
+     * @param bound upper bound (exclusive)
+     * @return next int
+     * @throws IllegalArgumentException if bound is not positive
+     */
+    @Override
+    public int nextInt(final int bound) {
+        return MultiplyShift.nextInt(this, bound);
+    }
+
+    /**
+     * returns 32-bit integer r, origin <= r < bound.
+     * @param origin least value
+     * @param bound upper bound (exclusive)
+     * @return next int
+     * @throws IllegalArgumentException if origin is not less than bound
+     */
+    @Override
+    public int nextInt(final int origin, final int bound) {
+        return MultiplyShift.nextInt(this, origin, bound);
+    }
+
+    /**
+     * returns 64-bit integer r, 0 <= r < bound.
+     * This method uses multiplication and shift with rejection by
+     * D. Lemire, so the result is not biased and one {@link #nextLong()} is
+     * used in most cases.
+     * @param bound upper bound (exclusive)
+     * @return next long
+     * @throws IllegalArgumentException if bound is not positive
+     */
+    @Override
+    public long nextLong(final long bound) {
+        return MultiplyShift.nextLong(this, bound);
+    }
+
+    /**
+     * returns 64-bit integer r, origin <= r < bound.
+     * @param origin least value
+     * @param bound upper bound (exclusive)
+     * @return next long
+     * @throws IllegalArgumentException if origin is not less than bound
+     */
+    @Override
+    public long nextLong(final long origin, final long bound) {
+        return MultiplyShift.nextLong(this, origin, bound);
+    }
+
+    /**
+     * fills array with 32-bit integers.
+     * @param array array to be filled
+     */
+    public void nextInts(final int[] array) {
+        nextInts(array, 0, array.length);
+    }
+
+    /**
+     * fills the specified range of array with 32-bit integers.
+     * The result is same as calling {@link #nextInt()} {@code len} times.
+     * @param array array to be filled
+     * @param off index of the first element to be filled
+     * @param len number of elements to be filled
+     */
+    public void nextInts(final int[] array, final int off, final int len) {
+        checkRange(array.length, off, len);
+        int s0 = st0;
+        int s1 = st1;
+        int s2 = st2;
+        int s3 = st3;
+        final int end = off + len;
+        for (int i = off; i < end; i++) {
+            int x = (s0 & MASK) ^ s1 ^ s2;
+            x ^= (x << SH0);
+            int y = s3 ^ (s3 >>> SH0) ^ x;
+            int odd = -(y & 1);
+            s0 = s1;
+            s1 = s2 ^ (odd & mat1);
+            s2 = x ^ (y << SH1) ^ (odd & mat2);
+            s3 = y;
+            int t1 = s0 + (s2 >>> SH8);
+            array[i] = s3 ^ t1 ^ (-(t1 & 1) & tmat);
+        }
+        st0 = s0;
+        st1 = s1;
+        st2 = s2;
+        st3 = s3;
+    }
+
+    /**
+     * fills array with 32-bit integers r, 0 <= r < bound.
+     * @param array array to be filled
+     * @param bound upper bound (exclusive)
+     * @throws IllegalArgumentException if bound is not positive
+     */
+    public void nextInts(final int[] array, final int bound) {
+        nextInts(array, 0, array.length, bound);
+    }
+
+    /**
+     * fills the specified range of array with 32-bit integers r,
+     * 0 <= r < bound.
+     * The result is same as calling {@link #nextInt(int)} {@code len}
+     * times, and 2<sup>32</sup> mod bound is computed once per call.
+     * @param array array to be filled
+     * @param off index of the first element to be filled
+     * @param len number of elements to be filled
+     * @param bound upper bound (exclusive)
+     * @throws IllegalArgumentException if bound is not positive
+     */
+    public void nextInts(final int[] array, final int off, final int len,
+            final int bound) {
+        checkRange(array.length, off, len);
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        final long ubound = bound;
+        final int threshold = Integer.remainderUnsigned(-bound, bound);
+        int s0 = st0;
+        int s1 = st1;
+        int s2 = st2;
+        int s3 = st3;
+        final int end = off + len;
+        int i = off;
+        while (i < end) {
+            int x = (s0 & MASK) ^ s1 ^ s2;
+            x ^= (x << SH0);
+            int y = s3 ^ (s3 >>> SH0) ^ x;
+            int odd = -(y & 1);
+            s0 = s1;
+            s1 = s2 ^ (odd & mat1);
+            s2 = x ^ (y << SH1) ^ (odd & mat2);
+            s3 = y;
+            int t1 = s0 + (s2 >>> SH8);
+            int r = s3 ^ t1 ^ (-(t1 & 1) & tmat);
+            long m = (r & INT_TO_LONG_MASK) * ubound;
+            if (Integer.compareUnsigned((int) m, threshold) >= 0) {
+                array[i++] = (int) (m >>> INT_SIZE);
+            }
+        }
+        st0 = s0;
+        st1 = s1;
+        st2 = s2;
+        st3 = s3;
+    }
+
+    /**
+     * fills the remaining bytes of buffer with random bytes, and sets the
+     * position of buffer to its limit.
+     * Bytes are written as 32-bit integers by {@link ByteBuffer#putInt(int)}
+     * in the byte order of buffer, so the result is same as writing
+     * {@link #nextInt()} repeatedly. If the remaining is not a multiple of
+     * four, the last bytes are the leading bytes of one more integer
+     * written in the byte order of buffer.
+     * This method works for heap and direct buffers, and does not allocate.
+     * @param buffer buffer to be filled
+     * @throws java.nio.ReadOnlyBufferException if buffer is read only
+     */
+    public void nextBytes(final ByteBuffer buffer) {
+        if (buffer.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+        int s0 = st0;
+        int s1 = st1;
+        int s2 = st2;
+        int s3 = st3;
+        for (int n = buffer.remaining() / Integer.BYTES; n > 0; n--) {
+            int x = (s0 & MASK) ^ s1 ^ s2;
+            x ^= (x << SH0);
+            int y = s3 ^ (s3 >>> SH0) ^ x;
+            int odd = -(y & 1);
+            s0 = s1;
+            s1 = s2 ^ (odd & mat1);
+            s2 = x ^ (y << SH1) ^ (odd & mat2);
+            s3 = y;
+            int t1 = s0 + (s2 >>> SH8);
+            buffer.putInt(s3 ^ t1 ^ (-(t1 & 1) & tmat));
+        }
+        st0 = s0;
+        st1 = s1;
+        st2 = s2;
+        st3 = s3;
+        if (buffer.hasRemaining()) {
+            int r = nextInt();
+            if (buffer.order() == ByteOrder.BIG_ENDIAN) {
+                r = Integer.reverseBytes(r);
+            }
+            while (buffer.hasRemaining()) {
+                buffer.put((byte) r);
+                r >>>= Byte.SIZE;
+            }
+        }
+    }
+
+    /**
+     * fills array with 64-bit integers.
+     * @param array array to be filled
+     */
+    public void nextLongs(final long[] array) {
+        nextLongs(array, 0, array.length);
+    }
+
+    /**
+     * fills the specified range of array with 64-bit integers.
+     * The result is same as calling {@link #nextLong()} {@code len} times.
+     * @param array array to be filled
+     * @param off index of the first element to be filled
+     * @param len number of elements to be filled
+     */
+    public void nextLongs(final long[] array, final int off, final int len) {
+        checkRange(array.length, off, len);
+        int s0 = st0;
+        int s1 = st1;
+        int s2 = st2;
+        int s3 = st3;
+        final int end = off + len;
+        for (int i = off; i < end; i++) {
+            long r = 0;
+            for (int k = 0; k < 2; k++) {
+                int x = (s0 & MASK) ^ s1 ^ s2;
+                x ^= (x << SH0);
+                int y = s3 ^ (s3 >>> SH0) ^ x;
+                int odd = -(y & 1);
+                s0 = s1;
+                s1 = s2 ^ (odd & mat1);
+                s2 = x ^ (y << SH1) ^ (odd & mat2);
+                s3 = y;
+                int t1 = s0 + (s2 >>> SH8);
+                int t0 = s3 ^ t1 ^ (-(t1 & 1) & tmat);
+                r = (r << INT_SIZE) | (t0 & INT_TO_LONG_MASK);
+            }
+            array[i] = r;
+        }
+        st0 = s0;
+        st1 = s1;
+        st2 = s2;
+        st3 = s3;
+    }
+
+    /**
+     * fills array with double r, 0 <= r < 1.0.
+     * @param array array to be filled
+     */
+    public void nextDoubles(final double[] array) {
+        nextDoubles(array, 0, array.length);
+    }
+
+    /**
+     * fills the specified range of array with double r, 0 <= r < 1.0.
+     * The result is same as calling {@link #nextDouble()} {@code len} times.
+     * @param array array to be filled
+     * @param off index of the first element to be filled
+     * @param len number of elements to be filled
+     */
+    public void nextDoubles(final double[] array, final int off,
+            final int len) {
+        checkRange(array.length, off, len);
+        int s0 = st0;
+        int s1 = st1;
+        int s2 = st2;
+        int s3 = st3;
+        final int end = off + len;
+        for (int i = off; i < end; i++) {
+            long r = 0;
+            for (int k = 0; k < 2; k++) {
+                int x = (s0 & MASK) ^ s1 ^ s2;
+                x ^= (x << SH0);
+                int y = s3 ^ (s3 >>> SH0) ^ x;
+                int odd = -(y & 1);
+                s0 = s1;
+                s1 = s2 ^ (odd & mat1);
+                s2 = x ^ (y << SH1) ^ (odd & mat2);
+                s3 = y;
+                int t1 = s0 + (s2 >>> SH8);
+                int t0 = s3 ^ t1 ^ (-(t1 & 1) & tmat);
+                r = (r << INT_SIZE) | (t0 & INT_TO_LONG_MASK);
+            }
+            r = (r >>> LONG_TO_DOUBLE_SHIFT) | LONG_TO_DOUBLE_MASK;
+            array[i] = Double.longBitsToDouble(r) - 1.0;
+        }
+        st0 = s0;
+        st1 = s1;
+        st2 = s2;
+        st3 = s3;
+    }
+
+    /**
+     * check if the range is inside of an array.
+     * @param length length of the array
+     * @param off index of the first element of the range
+     * @param len length of the range
+     */
+    private static void checkRange(final int length, final int off,
+            final int len) {
+        if (off < 0 || len < 0 || off > length - len) {
+            throw new IndexOutOfBoundsException("off:" + off + " len:" + len
+                    + " length:" + length);
+        }
+    }
+
     /**
      * initialize internal state by seed.
      * @param seed seed of randomness
@@ -306,6 +720,9 @@ public final class TinyMT32 extends AbstractRandomGenerator {
 
     /**
      * The state transition function. This function is F<sub>2</sub>-linear.
+     * The lowest bit of y selects mat1 and mat2 by a mask, not by a branch,
+     * since the bit is random and a branch on it is mispredicted half of the
+     * time.
      */
     private void nextState() {
         int x;
@@ -318,8 +735,9 @@ public final class TinyMT32 extends AbstractRandomGenerator {
         st1 = st2;
         st2 = x ^ (y << SH1);
         st3 = y;
-        st1 ^= parameter.getMat1(y);
-        st2 ^= parameter.getMat2(y);
+        final int odd = -(y & 1);
+        st1 ^= odd & mat1;
+        st2 ^= odd & mat2;
     }
 
     /**
@@ -333,7 +751,7 @@ public final class TinyMT32 extends AbstractRandomGenerator {
         t0 = st3;
         t1 = st0 + (st2 >>> SH8);
         t0 ^= t1;
-        t0 ^= parameter.getTmat(t1);
+        t0 ^= -(t1 & 1) & tmat;
         return t0;
     }
 
@@ -347,23 +765,11 @@ public final class TinyMT32 extends AbstractRandomGenerator {
         t0 = st3;
         t1 = st0 + (st2 >>> SH8);
         t0 ^= t1;
-        t0 = (t0 >>> INT_TO_FLOAT_SHIFT) ^ parameter.getTmatFloat(t1);
+        t0 = (t0 >>> INT_TO_FLOAT_SHIFT) ^ INT_TO_FLOAT_MASK
+                ^ (-(t1 & 1) & tmatFloat);
         return Float.intBitsToFloat(t0) - 1.0f;
     }
 
-    /**
-     * Addition as F<sub>2</sub> vector.
-     * 
-     * @param that
-     *            vector which added to this vector
-     */
-    private void add(final TinyMT32 that) {
-        this.st0 ^= that.st0;
-        this.st1 ^= that.st1;
-        this.st2 ^= that.st2;
-        this.st3 ^= that.st3;
-    }
-
     /**
      * Factory method which returns the TinyMT with the first generated
      * parameter of TinyMTDC.
@@ -389,11 +795,7 @@ public final class TinyMT32 extends AbstractRandomGenerator {
      * @return TinyMT with the first parameter.
      */
     public static TinyMT32 getDefault(final long seed) {
-        TinyMT32Parameter defaultParameter = TinyMT32Parameter
-                .getDefaultParameter();
-        TinyMT32 tiny = new TinyMT32(defaultParameter);
-        tiny.setSeed(seed);
-        return tiny;
+        return new TinyMT32(seed);
     }
 
     /**
@@ -417,54 +819,554 @@ public final class TinyMT32 extends AbstractRandomGenerator {
      * @return TinyMT with the first parameter.
      */
     public static TinyMT32 getDefault() {
-        int[] seed = new int[4];
-        long time = System.nanoTime();
-        long threadId = Thread.currentThread().getId();
-        seed[0] = (int) (time >>> INT_SIZE);
-        seed[1] = (int) time;
-        seed[2] = (int) (threadId >>> INT_SIZE);
-        seed[3] = (int) threadId;
-        TinyMT32Parameter defaultParameter = TinyMT32Parameter
-                .getDefaultParameter();
-        TinyMT32 tiny = new TinyMT32(defaultParameter);
-        tiny.setSeed(seed);
-        return tiny;
+        return new TinyMT32();
     }
 
     /**
      * jump function.
+     * <p>
+     * The state after jump is pol(T) applied to the current state, where T
+     * is the state transition function. pol(T) is evaluated by sliding
+     * window Horner method: the images of the current state by all
+     * polynomials of degree less than the window width are calculated
+     * first, then the coefficients of pol are processed window by window.
+     * </p>
      * 
      * @param pol
      *            jump polynomial
      * @return jumped new TinyMT
      */
     private TinyMT32 jump(final F2Polynomial pol) {
-        TinyMT32 src = new TinyMT32(this);
-        TinyMT32 that = getZero();
-        int degree = pol.degree();
-        for (int i = 0; i <= degree; i++) {
-            if (pol.getCoefficient(i) == 1) {
-                that.add(src);
+        final int[] table = new int[JUMP_TABLE_SIZE * STATE_SIZE];
+        int s0 = st0;
+        int s1 = st1;
+        int s2 = st2;
+        int s3 = st3;
+        for (int j = 0; j < JUMP_WINDOW; j++) {
+            int q = (1 << j) * STATE_SIZE;
+            table[q] = s0;
+            table[q + 1] = s1;
+            table[q + 2] = s2;
+            table[q + 3] = s3;
+            int x = (s0 & MASK) ^ s1 ^ s2;
+            x ^= (x << SH0);
+            int y = s3 ^ (s3 >>> SH0) ^ x;
+            int odd = -(y & 1);
+            s0 = s1;
+            s1 = s2 ^ (odd & mat1);
+            s2 = x ^ (y << SH1) ^ (odd & mat2);
+            s3 = y;
+        }
+        for (int q = 1; q < JUMP_TABLE_SIZE; q++) {
+            int low = q & -q;
+            if (low != q) {
+                for (int k = 0; k < STATE_SIZE; k++) {
+                    table[q * STATE_SIZE + k]
+                            = table[(q ^ low) * STATE_SIZE + k]
+                            ^ table[low * STATE_SIZE + k];
+                }
+            }
+        }
+        s0 = 0;
+        s1 = 0;
+        s2 = 0;
+        s3 = 0;
+        for (int w = pol.degree() / JUMP_WINDOW; w >= 0; w--) {
+            for (int j = 0; j < JUMP_WINDOW; j++) {
+                int x = (s0 & MASK) ^ s1 ^ s2;
+                x ^= (x << SH0);
+                int y = s3 ^ (s3 >>> SH0) ^ x;
+                int odd = -(y & 1);
+                s0 = s1;
+                s1 = s2 ^ (odd & mat1);
+                s2 = x ^ (y << SH1) ^ (odd & mat2);
+                s3 = y;
             }
-            src.nextState();
+            int q = 0;
+            for (int j = JUMP_WINDOW - 1; j >= 0; j--) {
+                q = (q << 1) | pol.getCoefficient(w * JUMP_WINDOW + j);
+            }
+            q *= STATE_SIZE;
+            s0 ^= table[q];
+            s1 ^= table[q + 1];
+            s2 ^= table[q + 2];
+            s3 ^= table[q + 3];
         }
+        TinyMT32 that = new TinyMT32(this);
+        that.st0 = s0;
+        that.st1 = s1;
+        that.st2 = s2;
+        that.st3 = s3;
         return that;
     }
 
     /**
-     * Make and return all zero status.
+     * returns new TinyMT whose state is {@code steps} steps after this.
+     * In other word, the returned generator generates the same sequence as
+     * this generator after {@code steps} pseudo random number generation
+     * by {@link #nextInt()}.
+     * <p>
+     * This generator is not changed.
+     * </p>
      * 
-     * @return all zero status
+     * @param steps
+     *            jump step, negative value means going back
+     * @return jumped new TinyMT
      */
-    private TinyMT32 getZero() {
-        TinyMT32 that = new TinyMT32(this);
-        that.st0 = 0;
-        that.st1 = 0;
-        that.st2 = 0;
-        that.st3 = 0;
+    public TinyMT32 getJumped(final long steps) {
+        return getJumped(BigInteger.valueOf(steps));
+    }
+
+    /**
+     * returns new TinyMT whose state is {@code steps} steps after this.
+     * In other word, the returned generator generates the same sequence as
+     * this generator after {@code steps} pseudo random number generation
+     * by {@link #nextInt()}.
+     * <p>
+     * This generator is not changed.
+     * </p>
+     * 
+     * @param steps
+     *            jump step, negative value means going back
+     * @return jumped new TinyMT
+     */
+    public TinyMT32 getJumped(final BigInteger steps) {
+        return jump(getJumpPolynomial(steps));
+    }
+
+    /**
+     * advances the state of this generator by {@code steps} steps.
+     * This is same as calling {@link #nextInt()} {@code steps} times and
+     * discarding the results, but takes O(log(steps)) time. Note that
+     * {@link #nextLong()} and {@link #nextDouble()} consume two steps.
+     * <p>
+     * Because the period of TinyMT is 2<sup>127</sup> - 1, negative
+     * {@code steps} goes back to the past state.
+     * </p>
+     * 
+     * @param steps number of steps
+     */
+    public void advance(final long steps) {
+        advance(BigInteger.valueOf(steps));
+    }
+
+    /**
+     * advances the state of this generator by {@code steps} steps.
+     * This is same as calling {@link #nextInt()} {@code steps} times and
+     * discarding the results, but takes O(log(steps)) time. Note that
+     * {@link #nextLong()} and {@link #nextDouble()} consume two steps.
+     * <p>
+     * Because the period of TinyMT is 2<sup>127</sup> - 1, negative
+     * {@code steps} goes back to the past state.
+     * </p>
+     * 
+     * @param steps number of steps
+     */
+    public void advance(final BigInteger steps) {
+        applyJump(getJumpPolynomial(steps));
+    }
+
+    /**
+     * jump this generator by jump polynomial.
+     * 
+     * @param pol
+     *            jump polynomial
+     */
+    private void applyJump(final F2Polynomial pol) {
+        TinyMT32 that = jump(pol);
+        this.st0 = that.st0;
+        this.st1 = that.st1;
+        this.st2 = that.st2;
+        this.st3 = that.st3;
+    }
+
+    /**
+     * returns a copy of this generator, which has the same parameter and
+     * the same state.
+     * 
+     * @return copy of this generator
+     */
+    @Override
+    public TinyMT32 copy() {
+        return new TinyMT32(this);
+    }
+
+    /**
+     * advances the state of this generator by 2<sup>64</sup> steps.
+     */
+    @Override
+    public void jump() {
+        applyJump(parameter.getPowerJump(0));
+    }
+
+    /**
+     * returns the distance of {@link #jump()}, 2<sup>64</sup>.
+     * 
+     * @return jump distance
+     */
+    @Override
+    public double jumpDistance() {
+        return JUMP_DISTANCE;
+    }
+
+    /**
+     * returns a copy of this generator, then advances this generator by
+     * 2<sup>64</sup> steps.
+     * 
+     * @return copy of this generator before jump
+     */
+    @Override
+    public TinyMT32 copyAndJump() {
+        TinyMT32 that = copy();
+        jump();
+        return that;
+    }
+
+    /**
+     * advances the state of this generator by 2<sup>64 + level</sup> steps.
+     * @param level log<sub>2</sub> of number of jumps, non-negative
+     * @throws IllegalArgumentException if level is negative
+     */
+    @Override
+    public void jumpPower(final int level) {
+        if (level < 0) {
+            throw new IllegalArgumentException("level must not be negative");
+        }
+        applyJump(parameter.getPowerJump(level));
+    }
+
+    /**
+     * advances the state of this generator by 2<sup>96</sup> steps.
+     */
+    @Override
+    public void leap() {
+        applyJump(parameter.getPowerJump(LEAP_LEVEL));
+    }
+
+    /**
+     * returns the distance of {@link #leap()}, 2<sup>96</sup>.
+     * 
+     * @return leap distance
+     */
+    @Override
+    public double leapDistance() {
+        return LEAP_DISTANCE;
+    }
+
+    /**
+     * returns a copy of this generator, then advances this generator by
+     * 2<sup>96</sup> steps.
+     * 
+     * @return copy of this generator before leap
+     */
+    @Override
+    public TinyMT32 copyAndLeap() {
+        TinyMT32 that = copy();
+        leap();
         return that;
     }
 
+    /**
+     * returns a new generator split off this generator, and changes this
+     * generator so that the next split gives another generator.
+     * <p>
+     * The jump space of 2<sup>62</sup> jumps of 2<sup>64</sup> steps is
+     * halved by every split: the n-th split of a generator and its ancestors
+     * gives a copy jumped by 2<sup>62 - n</sup> jumps, and the new generator
+     * splits the rest of its half. So generators in a split tree are
+     * distinct sums of powers of two jumps apart, and never overlap unless
+     * one of them generates more than 2<sup>64</sup> numbers. After 62
+     * levels of split, the new generator is jumped by a random number of
+     * jumps given by {@link #nextLong()} of this generator.
+     * </p>
+     * <p>
+     * The result depends only on the seed and the tree of splits, and the
+     * state of this generator is not changed unless 62 levels are used up.
+     * </p>
+     * @return new generator
+     */
+    @Override
+    public TinyMT32 split() {
+        TinyMT32 that = copy();
+        if (splitLevel < SPLIT_LEVELS) {
+            splitLevel++;
+            that.splitLevel = splitLevel;
+            that.jumpPower(SPLIT_LEVELS - splitLevel);
+        } else {
+            that.jumpRandom(nextLong());
+        }
+        return that;
+    }
+
+    /**
+     * returns a new generator split off this generator, jumped by a random
+     * number of jumps given by {@code source}.
+     * This generator is not changed.
+     * If {@code source} is this generator, this is same as {@link #split()}.
+     * @param source source of randomness
+     * @return new generator
+     */
+    @Override
+    public TinyMT32 split(final SplittableGenerator source) {
+        if (source == this) {
+            return split();
+        }
+        TinyMT32 that = copy();
+        that.splitLevel = SPLIT_LEVELS;
+        that.jumpRandom(source.nextLong());
+        return that;
+    }
+
+    /**
+     * returns an unlimited stream of generators split off this generator
+     * by {@link #split()}. When the stream is split for parallel execution,
+     * the prefix part uses a generator split off this generator.
+     * @return stream of generators
+     */
+    @Override
+    public Stream<SplittableGenerator> splits() {
+        return RandomSpliterators.splits(this, -1, this);
+    }
+
+    /**
+     * returns a stream of generators split off this generator by
+     * {@link #split()}, which has {@code size} elements.
+     * @param size number of elements
+     * @return stream of generators
+     * @see #splits()
+     */
+    @Override
+    public Stream<SplittableGenerator> splits(final long size) {
+        return RandomSpliterators.splits(this, size, this);
+    }
+
+    /**
+     * returns an unlimited stream of generators split off this generator.
+     * @param splitter source of randomness, this generator for
+     * {@link #split()}
+     * @return stream of generators
+     */
+    @Override
+    public Stream<SplittableGenerator> splits(
+            final SplittableGenerator splitter) {
+        return RandomSpliterators.splits(this, -1, splitter);
+    }
+
+    /**
+     * returns a stream of generators split off this generator, which has
+     * {@code size} elements.
+     * @param size number of elements
+     * @param splitter source of randomness, this generator for
+     * {@link #split()}
+     * @return stream of generators
+     */
+    @Override
+    public Stream<SplittableGenerator> splits(final long size,
+            final SplittableGenerator splitter) {
+        return RandomSpliterators.splits(this, size, splitter);
+    }
+
+    /**
+     * returns an unlimited stream of generators, each of them is jumped
+     * from the previous one, same as {@link #jumps()}.
+     * @return stream of generators
+     */
+    @Override
+    public Stream<RandomGenerator> rngs() {
+        return jumps();
+    }
+
+    /**
+     * returns a stream of generators, each of them is jumped from the
+     * previous one, same as {@link #jumps(long)}.
+     * @param size number of generators
+     * @return stream of generators
+     */
+    @Override
+    public Stream<RandomGenerator> rngs(final long size) {
+        return jumps(size);
+    }
+
+    /**
+     * advances the state of this generator by an odd number of jumps less
+     * than 2<sup>62</sup>, which is given by a random number.
+     * @param random random number
+     */
+    private void jumpRandom(final long random) {
+        BigInteger jumps = BigInteger.valueOf(
+                (random >>> SPLIT_RANDOM_SHIFT) | 1);
+        applyJump(F2Polynomial.X.powerMod(
+                jumps.multiply(JumpPolynomialCache.JUMP_64),
+                parameter.getCharacteristic()));
+    }
+
+    /**
+     * returns a stream of int, which has {@code size} elements.
+     * The stream uses this generator, and when it is split for parallel
+     * execution, the rest part uses a copy jumped by {@link #jumpPower(int)}
+     * so that every part has a distinct subsequence.
+     * @param size number of elements
+     * @return stream of random numbers
+     */
+    @Override
+    public IntStream ints(final long size) {
+        return RandomSpliterators.ints(this, size, 0, 0);
+    }
+
+    /**
+     * returns an unlimited stream of int.
+     * @return stream of random numbers
+     * @see #ints(long)
+     */
+    @Override
+    public IntStream ints() {
+        return RandomSpliterators.ints(this, -1, 0, 0);
+    }
+
+    /**
+     * returns a stream of int r, origin <= r < bound, which has
+     * {@code size} elements.
+     * @param size number of elements
+     * @param origin least value
+     * @param bound upper bound (exclusive)
+     * @return stream of random numbers
+     * @see #ints(long)
+     */
+    @Override
+    public IntStream ints(final long size, final int origin,
+            final int bound) {
+        RandomSpliterators.checkRange(origin, bound);
+        return RandomSpliterators.ints(this, size, origin, bound);
+    }
+
+    /**
+     * returns an unlimited stream of int r, origin <= r < bound.
+     * @param origin least value
+     * @param bound upper bound (exclusive)
+     * @return stream of random numbers
+     * @see #ints(long)
+     */
+    @Override
+    public IntStream ints(final int origin, final int bound) {
+        RandomSpliterators.checkRange(origin, bound);
+        return RandomSpliterators.ints(this, -1, origin, bound);
+    }
+
+    /**
+     * returns a stream of long, which has {@code size} elements.
+     * The stream uses this generator, and when it is split for parallel
+     * execution, the rest part uses a copy jumped by {@link #jumpPower(int)}
+     * so that every part has a distinct subsequence.
+     * @param size number of elements
+     * @return stream of random numbers
+     */
+    @Override
+    public LongStream longs(final long size) {
+        return RandomSpliterators.longs(this, size, 0, 0);
+    }
+
+    /**
+     * returns an unlimited stream of long.
+     * @return stream of random numbers
+     * @see #longs(long)
+     */
+    @Override
+    public LongStream longs() {
+        return RandomSpliterators.longs(this, -1, 0, 0);
+    }
+
+    /**
+     * returns a stream of long r, origin <= r < bound, which has
+     * {@code size} elements.
+     * @param size number of elements
+     * @param origin least value
+     * @param bound upper bound (exclusive)
+     * @return stream of random numbers
+     * @see #longs(long)
+     */
+    @Override
+    public LongStream longs(final long size, final long origin,
+            final long bound) {
+        RandomSpliterators.checkRange(origin, bound);
+        return RandomSpliterators.longs(this, size, origin, bound);
+    }
+
+    /**
+     * returns an unlimited stream of long r, origin <= r < bound.
+     * @param origin least value
+     * @param bound upper bound (exclusive)
+     * @return stream of random numbers
+     * @see #longs(long)
+     */
+    @Override
+    public LongStream longs(final long origin, final long bound) {
+        RandomSpliterators.checkRange(origin, bound);
+        return RandomSpliterators.longs(this, -1, origin, bound);
+    }
+
+    /**
+     * returns a stream of double r, 0 <= r < 1.0, which has {@code size}
+     * elements. The stream uses this generator, and when it is split for
+     * parallel execution, the rest part uses a copy jumped by
+     * {@link #jumpPower(int)} so that every part has a distinct subsequence.
+     * @param size number of elements
+     * @return stream of random numbers
+     */
+    @Override
+    public DoubleStream doubles(final long size) {
+        return RandomSpliterators.doubles(this, size, 0.0, 0.0);
+    }
+
+    /**
+     * returns an unlimited stream of double r, 0 <= r < 1.0.
+     * @return stream of random numbers
+     * @see #doubles(long)
+     */
+    @Override
+    public DoubleStream doubles() {
+        return RandomSpliterators.doubles(this, -1, 0.0, 0.0);
+    }
+
+    /**
+     * returns a stream of double r, origin <= r < bound, which has
+     * {@code size} elements.
+     * @param size number of elements
+     * @param origin least value
+     * @param bound upper bound (exclusive)
+     * @return stream of random numbers
+     * @see #doubles(long)
+     */
+    @Override
+    public DoubleStream doubles(final long size, final double origin,
+            final double bound) {
+        RandomSpliterators.checkRange(origin, bound);
+        return RandomSpliterators.doubles(this, size, origin, bound);
+    }
+
+    /**
+     * returns an unlimited stream of double r, origin <= r < bound.
+     * @param origin least value
+     * @param bound upper bound (exclusive)
+     * @return stream of random numbers
+     * @see #doubles(long)
+     */
+    @Override
+    public DoubleStream doubles(final double origin, final double bound) {
+        RandomSpliterators.checkRange(origin, bound);
+        return RandomSpliterators.doubles(this, -1, origin, bound);
+    }
+
+    /**
+     * returns jump polynomial of {@code steps} steps.
+     * 
+     * @param steps number of steps, may be negative
+     * @return jump polynomial
+     */
+    private F2Polynomial getJumpPolynomial(final BigInteger steps) {
+        return F2Polynomial.X.powerMod(steps.mod(PERIOD),
+                parameter.getCharacteristic());
+    }
+
     /**
      * make and return an array of TinyMT. Each element has the same
      * characteristic polynomial with TinyMT gotten by getDefaultMT. Especially,
@@ -535,7 +1437,7 @@ public final class TinyMT32 extends AbstractRandomGenerator {
         final F2Polynomial poly = tiny[0].parameter.getCharacteristic();
         final BigInteger pow = BASIC_JUMP_STEP.multiply(
                 new BigInteger(Long.toString(jump)));
-        final F2Polynomial jumpPoly = F2Polynomial.X.powerMod(pow, poly);
+        final F2Polynomial jumpPoly = JumpPolynomialCache.get(poly, pow);
         for (int i = 1; i < count; i++) {
             tiny[i] = tiny[i - 1].jump(jumpPoly);
         }
@@ -570,6 +1472,36 @@ public final class TinyMT32 extends AbstractRandomGenerator {
         return tiny;
     }
 
+    /**
+     * Make and return an array of TinyMT whose parameters are taken from
+     * table. Each element of the array has the parameter of index
+     * {@code start + i} of the table. Parameters are read on demand, so this
+     * is fast even if the table is a large mapped file.
+     * 
+     * @param table
+     *            parameter table of TinyMT32
+     * @param start
+     *            index of the first parameter
+     * @param count
+     *            number of TinyMT you want.
+     * @param seed
+     *            seed of each element
+     * @return array of TinyMT, length may be smaller than {@code count}
+     * @throws IllegalArgumentException
+     *             when a parameter is not for TinyMT32
+     */
+    public static TinyMT32[] getTinyMTArray(final ParameterTable table,
+            final int start, final int count, final long seed) {
+        int length = Math.max(0, Math.min(count, table.size() - start));
+        TinyMT32[] tiny = new TinyMT32[length];
+        for (int i = 0; i < length; i++) {
+            tiny[i] = new TinyMT32(TinyMT32Parameter.getParameter(table,
+                    start + i));
+            tiny[i].setSeed(seed);
+        }
+        return tiny;
+    }
+
     /**
      * return TinyMT32 instance whose parameter has ID = 1.
      * @param threadId thread ID
@@ -599,6 +1531,260 @@ public final class TinyMT32 extends AbstractRandomGenerator {
         return outputFloat();
     }
 
+    /**
+     * returns normal random number, whose mean is 0 and standard deviation
+     * is 1. This method uses the Ziggurat method, and one
+     * {@link #nextLong()} is used in most cases. Unlike
+     * {@link #nextGaussian()}, which is the polar method of
+     * {@link AbstractRandomGenerator#nextGaussian()}, no value is cached.
+     * @return next normal random number
+     */
+    public double nextGaussianZiggurat() {
+        return Ziggurat.normal(this);
+    }
+
+    /**
+     * returns exponential random number, whose mean is 1. This method uses
+     * the Ziggurat method, and one {@link #nextLong()} is used in most
+     * cases.
+     * @return next exponential random number
+     */
+    @Override
+    public double nextExponential() {
+        return Ziggurat.exponential(this);
+    }
+
+    /**
+     * fills array with normal random numbers.
+     * @param array array to be filled
+     */
+    public void nextGaussians(final double[] array) {
+        nextGaussians(array, 0, array.length);
+    }
+
+    /**
+     * fills the specified range of array with normal random numbers.
+     * The result is same as calling {@link #nextGaussianZiggurat()}
+     * {@code len} times.
+     * @param array array to be filled
+     * @param off index of the first element to be filled
+     * @param len number of elements to be filled
+     */
+    public void nextGaussians(final double[] array, final int off,
+            final int len) {
+        Ziggurat.normals(this, array, off, len);
+    }
+
+    /**
+     * returns parameter of this generator.
+     * @return parameter
+     */
+    TinyMT32Parameter getParameter() {
+        return parameter;
+    }
+
+    /**
+     * returns internal state.
+     * @return array of st0, st1, st2 and st3
+     */
+    int[] getStatus() {
+        return new int[] {st0, st1, st2, st3};
+    }
+
+    /**
+     * sets internal state. The state must be one returned by
+     * {@link #getStatus()} or one reached from it.
+     * @param status array of st0, st1, st2 and st3
+     */
+    void setStatus(final int[] status) {
+        st0 = status[0];
+        st1 = status[1];
+        st2 = status[2];
+        st3 = status[3];
+    }
+
+    /**
+     * saves the state of this generator. The state is {@link #STATE_LONGS}
+     * longs: st0 and st1, st2 and st3 of the internal state, the lower 64
+     * bits of the characteristic polynomial, which identifies the parameter,
+     * and the number of splits.
+     * @return saved state
+     */
+    public long[] saveState() {
+        return new long[] {
+            ((long) st0 << INT_SIZE) | (st1 & INT_TO_LONG_MASK),
+            ((long) st2 << INT_SIZE) | (st3 & INT_TO_LONG_MASK),
+            parameter.getCharacteristic().getWord(0),
+            splitLevel };
+    }
+
+    /**
+     * writes the state of this generator, {@link #STATE_BYTES} bytes, to
+     * buffer. The state is same as {@link #saveState()}, written by
+     * {@link ByteBuffer#putLong(long)}.
+     * @param buffer buffer to be written
+     * @throws BufferOverflowException if fewer than {@link #STATE_BYTES}
+     * bytes remain in buffer
+     * @throws ReadOnlyBufferException if buffer is read only
+     */
+    public void saveState(final ByteBuffer buffer) {
+        if (buffer.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+        if (buffer.remaining() < STATE_BYTES) {
+            throw new BufferOverflowException();
+        }
+        for (long x : saveState()) {
+            buffer.putLong(x);
+        }
+    }
+
+    /**
+     * restores the state saved by {@link #saveState()}. This generator must
+     * have the same parameter as the saved generator, and continues the
+     * sequence of the saved generator.
+     * @param state saved state
+     * @throws IllegalArgumentException if state is not a state of the
+     * parameter of this generator
+     */
+    public void restoreState(final long[] state) {
+        if (state.length != STATE_LONGS) {
+            throw new IllegalArgumentException("length must be "
+                    + STATE_LONGS);
+        }
+        if (state[2] != parameter.getCharacteristic().getWord(0)) {
+            throw new IllegalArgumentException("parameter differs");
+        }
+        if (state[3] < 0 || state[3] > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("invalid number of splits");
+        }
+        final int s0 = (int) (state[0] >>> INT_SIZE);
+        final int s1 = (int) state[0];
+        final int s2 = (int) (state[1] >>> INT_SIZE);
+        final int s3 = (int) state[1];
+        if ((s0 & MASK) == 0 && s1 == 0 && s2 == 0 && s3 == 0) {
+            throw new IllegalArgumentException("all zero state");
+        }
+        st0 = s0;
+        st1 = s1;
+        st2 = s2;
+        st3 = s3;
+        splitLevel = (int) state[3];
+        clear();
+    }
+
+    /**
+     * reads {@link #STATE_BYTES} bytes from buffer and restores the state
+     * written by {@link #saveState(ByteBuffer)}.
+     * @param buffer buffer to be read
+     * @throws BufferUnderflowException if fewer than {@link #STATE_BYTES}
+     * bytes remain in buffer
+     * @throws IllegalArgumentException if state is not a state of the
+     * parameter of this generator
+     * @see #restoreState(long[])
+     */
+    public void restoreState(final ByteBuffer buffer) {
+        if (buffer.remaining() < STATE_BYTES) {
+            throw new BufferUnderflowException();
+        }
+        long[] state = new long[STATE_LONGS];
+        for (int i = 0; i < STATE_LONGS; i++) {
+            state[i] = buffer.getLong();
+        }
+        restoreState(state);
+    }
+
+    /**
+     * returns serial form of this generator.
+     * @return serial form
+     */
+    private Object writeReplace() {
+        return new SerialForm(this);
+    }
+
+    /**
+     * refuses to read this class without serial form.
+     * @param in stream
+     * @throws InvalidObjectException always
+     */
+    private void readObject(final ObjectInputStream in)
+            throws InvalidObjectException {
+        throw new InvalidObjectException("serial form is required");
+    }
+
+    /**
+     * Serial form of TinyMT32, which keeps the parameter and the state.
+     */
+    private static final class SerialForm implements Serializable {
+        /** serial version. */
+        private static final long serialVersionUID = 1L;
+        /** coefficients of t<sup>64</sup> to t<sup>127</sup> of
+         * characteristic polynomial. */
+        private final long characteristicHigh;
+        /** coefficients of t<sup>0</sup> to t<sup>63</sup> of
+         * characteristic polynomial. */
+        private final long characteristicLow;
+        /** ID. */
+        private final int id;
+        /** parameter mat1. */
+        private final int mat1;
+        /** parameter mat2. */
+        private final int mat2;
+        /** parameter tmat. */
+        private final int tmat;
+        /** Hamming weight of characteristic polynomial. */
+        private final int weight;
+        /** delta. */
+        private final int delta;
+        /** saved state. */
+        private final long[] state;
+
+        /**
+         * Constructor.
+         * @param tiny generator
+         */
+        SerialForm(final TinyMT32 tiny) {
+            TinyMT32Parameter p = tiny.parameter;
+            characteristicHigh = p.getCharacteristic().getWord(1);
+            characteristicLow = p.getCharacteristic().getWord(0);
+            id = p.getId();
+            mat1 = p.getMat1();
+            mat2 = p.getMat2();
+            tmat = p.getTmat();
+            weight = p.getWeight();
+            delta = p.getDelta();
+            state = tiny.saveState();
+        }
+
+        /**
+         * returns generator of this form. The characteristic polynomial and
+         * its weight are checked against the ones computed from mat1 and
+         * mat2, since jumps depend on them.
+         * @return generator
+         * @throws InvalidObjectException if parameter or state is invalid
+         */
+        private Object readResolve() throws InvalidObjectException {
+            F2Polynomial characteristic = F2Polynomial.valueOf(
+                    characteristicHigh, characteristicLow);
+            if (!characteristic.equals(TinyMTDC.characteristic(
+                    TinyMTDC.TINYMT32, mat1, mat2))
+                    || weight != TinyMTDC.weight(characteristic)) {
+                throw new InvalidObjectException(
+                        "characteristic polynomial does not match mat1 and"
+                        + " mat2");
+            }
+            TinyMT32Parameter p = new TinyMT32Parameter(characteristic,
+                    id, mat1, mat2, tmat, weight, delta);
+            TinyMT32 tiny = new TinyMT32(p);
+            try {
+                tiny.restoreState(state);
+            } catch (IllegalArgumentException e) {
+                throw new InvalidObjectException(e.getMessage());
+            }
+            return tiny;
+        }
+    }
+
     /**
      * return characteristic polynomial in hexadecimal format.
      * @return characteristic polynomial
@@ -1,10 +1,6 @@
 package jp.ac.hiroshima_u.sci.math.saito.tinymt;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.URL;
-import java.util.ArrayList;
 
 /**
  * This class is used to keep parameters for TinyMT32, and to get parameters
@@ -63,8 +59,14 @@ final class TinyMT32Parameter {
     private static final int INT_TO_FLOAT_SHIFT = 9;
     /** hexadecimal format. */
     private static final int HEX_FORMAT = 16;
-    /** decimal format. */
-    private static final int DEC_FORMAT = 10;
+    /** type of parameter table record. */
+    private static final int TYPE = 32;
+    /**
+     * resource files of parameters, the first one found is used.
+     */
+    private static final String[] RESOURCES = { "tinymt32dc.0.65536.txt" };
+    /** parameter table, loaded at the first use. */
+    private static ParameterTable parameterTable;
     /** characteristic polynomial. */
     private final F2Polynomial characteristic;
     /** ID of TinyMT32. */
@@ -79,6 +81,8 @@ final class TinyMT32Parameter {
     private final int weight;
     /** Delta of TinyMT. */
     private final int delta;
+    /** jump polynomials of 2<sup>64 + level</sup> steps, made at first use. */
+    private volatile F2Polynomial[] powerJumps;
 
     /**
      * private constructor.
@@ -101,7 +105,32 @@ final class TinyMT32Parameter {
     private TinyMT32Parameter(final String pcharacteristic, final int pid,
             final int pmat1, final int pmat2, final int ptmat,
             final int pweight, final int pdelta) {
-        this.characteristic = new F2Polynomial(pcharacteristic, HEX_FORMAT);
+        this(new F2Polynomial(pcharacteristic, HEX_FORMAT), pid, pmat1, pmat2,
+                ptmat, pweight, pdelta);
+    }
+
+    /**
+     * constructor from characteristic polynomial.
+     * 
+     * @param pcharacteristic
+     *            characteristic polynomial
+     * @param pid
+     *            parameter ID
+     * @param pmat1
+     *            parameter mat1
+     * @param pmat2
+     *            parameter mat2
+     * @param ptmat
+     *            parameter tmat
+     * @param pweight
+     *            parameter weight
+     * @param pdelta
+     *            parameter delta
+     */
+    TinyMT32Parameter(final F2Polynomial pcharacteristic, final int pid,
+            final int pmat1, final int pmat2, final int ptmat,
+            final int pweight, final int pdelta) {
+        this.characteristic = pcharacteristic;
         this.id = pid;
         this.mat1 = pmat1;
         this.mat2 = pmat2;
@@ -149,18 +178,6 @@ final class TinyMT32Parameter {
         return getParameters(0, count);
     }
 
-    /**
-     * returns if line is comment or default parameter.
-     * 
-     * @param line
-     *            line from resource file
-     * @return to be skipped or not.
-     */
-    private static boolean isSkip(final String line) {
-        return line.startsWith("#")
-                || line.startsWith("d8524022ed8dff4a8dcc50c798faba43");
-    }
-
     /**
      * returns specified number of parameters from start line.
      * 
@@ -175,73 +192,70 @@ final class TinyMT32Parameter {
      */
     static TinyMT32Parameter[] getParameters(final int start, final int count)
             throws IOException {
-        URL url = TinyMT32.class.getClassLoader().getResource(
-                "tinymt32dc.0.65536.txt");
-        ArrayList<TinyMT32Parameter> params 
-            = new ArrayList<TinyMT32Parameter>();
-        BufferedReader br = new BufferedReader(new InputStreamReader(
-                url.openStream()));
-        int index = 0;
-        int preIdx = 0;
-        try {
-            while (start > preIdx) {
-                String line = br.readLine();
-                if (line == null) {
-                    break;
-                }
-                if (isSkip(line)) {
-                    continue;
-                }
-                preIdx++;
-            }
-            while (index < count) {
-                String line = br.readLine();
-                if (line == null) {
-                    break;
-                }
-                if (isSkip(line)) {
-                    continue;
-                }
-                TinyMT32Parameter p = parseString(line);
-                params.add(p);
-                index++;
-            }
-        } catch (IOException e) {
-            if (index > 0) {
-                return params.toArray(new TinyMT32Parameter[params.size()]);
-            } else {
-                throw e;
-            }
-        } finally {
-            br.close();
+        ParameterTable table = getTable();
+        int length = Math.max(0, Math.min(count, table.size() - start));
+        TinyMT32Parameter[] params = new TinyMT32Parameter[length];
+        for (int i = 0; i < length; i++) {
+            params[i] = getParameter(table, start + i);
         }
-        return params.toArray(new TinyMT32Parameter[params.size()]);
+        return params;
     }
 
     /**
-     * make TinyMT32Prameter instance from line.
+     * returns parameter of specified index.
      * 
-     * @param line
-     *            line of resource file
-     * @return TinyMT32Parameter instance made from line
+     * @param index
+     *            index of parameter. 0 is first parameter except default
+     *            parameter.
+     * @return parameter
      * @throws IOException
-     *             when line does not contain parameters.
+     *             when fails to read resource file
+     * @throws IndexOutOfBoundsException
+     *             when index is negative or not less than the number of
+     *             parameters
      */
-    private static TinyMT32Parameter parseString(final String line)
-            throws IOException {
-        String[] str = line.split(",");
-        if (str.length < 8) {
-            throw new IOException("line does not contain parameters.");
+    static TinyMT32Parameter getParameter(final int index) throws IOException {
+        return getParameter(getTable(), index);
+    }
+
+    /**
+     * returns parameter of specified index in table.
+     * 
+     * @param table
+     *            parameter table
+     * @param index
+     *            index of parameter
+     * @return parameter
+     * @throws IllegalArgumentException
+     *             when the parameter is not for TinyMT32
+     */
+    static TinyMT32Parameter getParameter(final ParameterTable table,
+            final int index) {
+        if (table.getType(index) != TYPE) {
+            throw new IllegalArgumentException("parameter " + index
+                    + " is not for TinyMT32");
+        }
+        return new TinyMT32Parameter(table.getCharacteristic(index),
+                table.getId(index), table.getMat1(index),
+                table.getMat2(index), (int) table.getTmat(index),
+                table.getWeight(index), table.getDelta(index));
+    }
+
+    /**
+     * returns parameter table loaded from resource file. The table is
+     * loaded at the first call, and shared after that.
+     * 
+     * @return parameter table
+     * @throws IOException
+     *             when fails to read resource file
+     */
+    private static synchronized ParameterTable getTable() throws IOException {
+        if (parameterTable == null) {
+            String skip = DEFAULT_PARAMETER.getCharacteristic()
+                    .toString(HEX_FORMAT);
+            parameterTable = ParameterTable.load(RESOURCES, skip);
         }
-        String characteristic = str[0];
-        int id = Integer.parseInt(str[2]);
-        int mat1 = (int) Long.parseLong(str[3], HEX_FORMAT);
-        int mat2 = (int) Long.parseLong(str[4], HEX_FORMAT);
-        int tmat = (int) Long.parseLong(str[5], HEX_FORMAT);
-        int weight = Integer.parseInt(str[6], DEC_FORMAT);
-        int delta = Integer.parseInt(str[7], DEC_FORMAT);
-        return new TinyMT32Parameter(characteristic, id, mat1, mat2, tmat,
-                weight, delta);
+        return parameterTable;
     }
 
     /**
@@ -279,12 +293,7 @@ final class TinyMT32Parameter {
      * @return mat1 when x is odd else 0
      */
     int getMat1(final int x) {
-        // return ar1[x & 1];
-        if ((x & 1) == 0) {
-            return 0;
-        } else {
-            return mat1;
-        }
+        return -(x & 1) & mat1;
     }
 
     /**
@@ -304,12 +313,7 @@ final class TinyMT32Parameter {
      * @return mat1 if x is odd else 0
      */
     int getMat2(final int x) {
-        // return ar2[x & 1];
-        if ((x & 1) == 0) {
-            return 0;
-        } else {
-            return mat2;
-        }
+        return -(x & 1) & mat2;
     }
 
     /**
@@ -329,12 +333,7 @@ final class TinyMT32Parameter {
      * @return return tmat if x is odd else 0
      */
     int getTmat(final int x) {
-        // return art[x & 1];
-        if ((x & 1) == 0) {
-            return 0;
-        } else {
-            return tmat;
-        }
+        return -(x & 1) & tmat;
     }
 
     /**
@@ -345,12 +344,7 @@ final class TinyMT32Parameter {
      * @return bit pattern depends on x is odd or not.
      */
     int getTmatFloat(final int x) {
-        // return arf[x & 1];
-        if ((x & 1) == 0) {
-            return INT_TO_FLOAT_MASK;
-        } else {
-            return INT_TO_FLOAT_MASK | (tmat >>> INT_TO_FLOAT_SHIFT);
-        }
+        return INT_TO_FLOAT_MASK | (-(x & 1) & (tmat >>> INT_TO_FLOAT_SHIFT));
     }
 
     /**
@@ -370,4 +364,29 @@ final class TinyMT32Parameter {
     int getDelta() {
         return delta;
     }
+
+    /**
+     * returns jump polynomial of 2<sup>64 + level</sup> steps. Polynomials of
+     * levels less than {@link JumpPolynomialCache#POWER_LEVELS} are made at
+     * the first call and kept by this parameter, so generators sharing this
+     * parameter split and jump without lock. Two threads may make the table
+     * at the same time, then one of the equal tables is kept.
+     *
+     * @param level
+     *            log<sub>2</sub> of number of jumps of 2<sup>64</sup> steps,
+     *            non-negative
+     * @return jump polynomial
+     */
+    F2Polynomial getPowerJump(final int level) {
+        F2Polynomial[] table = powerJumps;
+        if (table == null) {
+            table = JumpPolynomialCache.powerTable(characteristic);
+            powerJumps = table;
+        }
+        if (level < table.length) {
+            return table[level];
+        }
+        return JumpPolynomialCache.get(characteristic,
+                JumpPolynomialCache.JUMP_64.shiftLeft(level));
+    }
 }
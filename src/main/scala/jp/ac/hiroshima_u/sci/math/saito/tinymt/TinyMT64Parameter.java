@@ -1,10 +1,6 @@
 package jp.ac.hiroshima_u.sci.math.saito.tinymt;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.URL;
-import java.util.ArrayList;
 
 /**
  * This class is used to keep parameters for TinyMT64, and to get parameters
@@ -26,10 +22,14 @@ final class TinyMT64Parameter {
     private static final int LONG_TO_DOUBLE_SHIFT = 12;
     /** hexadecimal format. */
     private static final int HEX_FORMAT = 16;
-    /** decimal format. */
-    private static final int DEC_FORMAT = 10;
-    /** long bit size. */
-    private static final int LONG_BIT_SIZE = 64;
+    /** type of parameter table record. */
+    private static final int TYPE = 64;
+    /**
+     * resource files of parameters, the first one found is used.
+     */
+    private static final String[] RESOURCES = { "tinymt64dc.0.65536.txt" };
+    /** parameter table, loaded at the first use. */
+    private static ParameterTable parameterTable;
     /** characteristic polynomial. */
     private final F2Polynomial characteristic;
     /** ID of TinyMT32. */
@@ -44,6 +44,8 @@ final class TinyMT64Parameter {
     private final int weight;
     /** Delta of TinyMT. */
     private final int delta;
+    /** jump polynomials of 2<sup>64 + level</sup> steps, made at first use. */
+    private volatile F2Polynomial[] powerJumps;
 
     /**
      * private constructor.
@@ -58,7 +60,24 @@ final class TinyMT64Parameter {
     private TinyMT64Parameter(final String pcharacteristic,
             final int pid, final int pmat1, final int pmat2,
             final long ptmat, final int pweight, final int pdelta) {
-        this.characteristic = new F2Polynomial(pcharacteristic, HEX_FORMAT);
+        this(new F2Polynomial(pcharacteristic, HEX_FORMAT), pid, pmat1, pmat2,
+                ptmat, pweight, pdelta);
+    }
+
+    /**
+     * constructor from characteristic polynomial.
+     * @param pcharacteristic characteristic polynomial
+     * @param pid parameter ID
+     * @param pmat1 parameter mat1
+     * @param pmat2 parameter mat2
+     * @param ptmat parameter tmat
+     * @param pweight parameter weight
+     * @param pdelta parameter delta
+     */
+    TinyMT64Parameter(final F2Polynomial pcharacteristic, final int pid,
+            final int pmat1, final int pmat2, final long ptmat,
+            final int pweight, final int pdelta) {
+        this.characteristic = pcharacteristic;
         this.id = pid;
         this.mat1 = pmat1;
         this.mat2 = pmat2;
@@ -86,16 +105,6 @@ final class TinyMT64Parameter {
     return getParameters(0, count);
     }   
 
-    /**
-     * returns if line is comment or default parameter.
-     * @param line line from resource file
-     * @return to be skipped or not.
-     */
-    private static boolean isSkip(final String line) {
-        return line.startsWith("#")
-                || line.startsWith("945e0ad4a30ec19432dfa9d5959e5d5d");
-    }
-
     /**
      * returns specified number of parameters from start line.
      * @param start line no. to start to read. 0 is first parameter
@@ -106,73 +115,61 @@ final class TinyMT64Parameter {
      */
     static TinyMT64Parameter[] getParameters(final int start, final int count)
             throws IOException {
-        URL url = TinyMT32.class.getClassLoader().getResource(
-                "tinymt64dc.0.65536.txt");
-        ArrayList<TinyMT64Parameter> params 
-            = new ArrayList<TinyMT64Parameter>();
-        BufferedReader br = new BufferedReader(new InputStreamReader(
-                url.openStream()));
-        int index = 0;
-        int preIdx = 0;
-        try {
-            while (start > preIdx) {
-                String line = br.readLine();
-                if (line == null) {
-                    break;
-                }
-                if (isSkip(line)) {
-                    continue;
-                }
-                preIdx++;
-            }
-            while (index < count) {
-                String line = br.readLine();
-                if (line == null) {
-                    break;
-                }
-                if (isSkip(line)) {
-                    continue;
-                }
-                TinyMT64Parameter p = parseString(line);
-                params.add(p);
-                index++;
-            }
-        } catch (IOException e) {
-            if (index > 0) {
-                return params.toArray(new TinyMT64Parameter[params.size()]);
-            } else {
-                throw e;
-            }
-        } finally {
-            br.close();
+        ParameterTable table = getTable();
+        int length = Math.max(0, Math.min(count, table.size() - start));
+        TinyMT64Parameter[] params = new TinyMT64Parameter[length];
+        for (int i = 0; i < length; i++) {
+            params[i] = getParameter(table, start + i);
         }
-        return params.toArray(new TinyMT64Parameter[params.size()]);
+        return params;
     }
 
     /**
-     * make TinyMT64Prameter instance from line.
-     * @param line line of resource file
-     * @return TinyMT64Parameter instance made from line
-     * @throws IOException when line does not contain
-     * parameters.
+     * returns parameter of specified index.
+     * @param index index of parameter. 0 is first parameter except default
+     * parameter.
+     * @return parameter
+     * @throws IOException when fails to read resource file
+     * @throws IndexOutOfBoundsException when index is negative or not less
+     * than the number of parameters
      */
-    private static TinyMT64Parameter parseString(final String line)
-            throws IOException {
-        String[] str = line.split(",");
-        if (str.length < 8) {
-            throw new IOException("line does not contain parameters.");
+    static TinyMT64Parameter getParameter(final int index) throws IOException {
+        return getParameter(getTable(), index);
+    }
+
+    /**
+     * returns parameter of specified index in table.
+     * @param table parameter table
+     * @param index index of parameter
+     * @return parameter
+     * @throws IllegalArgumentException when the parameter is not for
+     * TinyMT64
+     */
+    static TinyMT64Parameter getParameter(final ParameterTable table,
+            final int index) {
+        if (table.getType(index) != TYPE) {
+            throw new IllegalArgumentException("parameter " + index
+                    + " is not for TinyMT64");
         }
-        String characteristic = str[0];
-        int id = Integer.parseInt(str[2]);
-        int mat1 = (int) Long.parseLong(str[3], HEX_FORMAT);
-        int mat2 = (int) Long.parseLong(str[4], HEX_FORMAT);
-        long tmat = Long.parseLong(str[5].substring(0, 1),
-                HEX_FORMAT) << (LONG_BIT_SIZE - 4);
-        tmat = tmat | Long.parseLong(str[5].substring(1), HEX_FORMAT);
-        int weight = Integer.parseInt(str[6], DEC_FORMAT);
-        int delta = Integer.parseInt(str[7], DEC_FORMAT);
-        return new TinyMT64Parameter(characteristic, id, mat1, mat2, tmat,
-                weight, delta);
+        return new TinyMT64Parameter(table.getCharacteristic(index),
+                table.getId(index), table.getMat1(index),
+                table.getMat2(index), table.getTmat(index),
+                table.getWeight(index), table.getDelta(index));
+    }
+
+    /**
+     * returns parameter table loaded from resource file. The table is
+     * loaded at the first call, and shared after that.
+     * @return parameter table
+     * @throws IOException when fails to read resource file
+     */
+    private static synchronized ParameterTable getTable() throws IOException {
+        if (parameterTable == null) {
+            String skip = DEFAULT_PARAMETER.getCharacteristic()
+                    .toString(HEX_FORMAT);
+            parameterTable = ParameterTable.load(RESOURCES, skip);
+        }
+        return parameterTable;
     }
 
     /**
@@ -205,11 +202,7 @@ final class TinyMT64Parameter {
      * @return mat1 when x is odd else 0
      */
     long getMat1(final long x) {
-        if ((x & 1) == 0) {
-            return 0;
-        } else {
-            return (long) mat1 & INT_TO_LONG_MASK;
-        }
+        return -(x & 1) & ((long) mat1 & INT_TO_LONG_MASK);
     }
 
     /**
@@ -226,11 +219,7 @@ final class TinyMT64Parameter {
      * @return mat1 if x is odd else 0
      */
     long getMat2(final long x) {
-        if ((x & 1) == 0) {
-            return 0;
-        } else {
-            return (long) mat2 & INT_TO_LONG_MASK;
-        }
+        return -(x & 1) & ((long) mat2 & INT_TO_LONG_MASK);
     }
 
     /**
@@ -247,11 +236,7 @@ final class TinyMT64Parameter {
      * @return return tmat if x is odd else 0
      */
     long getTmat(final long x) {
-        if ((x & 1) == 0) {
-            return 0;
-        } else {
-            return tmat;
-        }
+        return -(x & 1) & tmat;
     }
 
     /**
@@ -260,11 +245,8 @@ final class TinyMT64Parameter {
      * @return bit pattern depends on x is odd or not.
      */
     long getTmatDouble(final long x) {
-        if ((x & 1) == 0) {
-            return LONG_TO_DOUBLE_MASK;
-        } else {
-            return LONG_TO_DOUBLE_MASK | (tmat >>> LONG_TO_DOUBLE_SHIFT);
-        }
+        return LONG_TO_DOUBLE_MASK
+                | (-(x & 1) & (tmat >>> LONG_TO_DOUBLE_SHIFT));
     }
 
     /** return Hamming weight of characteristic polynomial.
@@ -280,4 +262,29 @@ final class TinyMT64Parameter {
     int getDelta() {
         return delta;
     }
+
+    /**
+     * returns jump polynomial of 2<sup>64 + level</sup> steps. Polynomials of
+     * levels less than {@link JumpPolynomialCache#POWER_LEVELS} are made at
+     * the first call and kept by this parameter, so generators sharing this
+     * parameter split and jump without lock. Two threads may make the table
+     * at the same time, then one of the equal tables is kept.
+     *
+     * @param level
+     *            log<sub>2</sub> of number of jumps of 2<sup>64</sup> steps,
+     *            non-negative
+     * @return jump polynomial
+     */
+    F2Polynomial getPowerJump(final int level) {
+        F2Polynomial[] table = powerJumps;
+        if (table == null) {
+            table = JumpPolynomialCache.powerTable(characteristic);
+            powerJumps = table;
+        }
+        if (level < table.length) {
+            return table[level];
+        }
+        return JumpPolynomialCache.get(characteristic,
+                JumpPolynomialCache.JUMP_64.shiftLeft(level));
+    }
 }
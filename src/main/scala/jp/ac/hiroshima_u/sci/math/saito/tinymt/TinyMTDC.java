@@ -0,0 +1,869 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * TinyMTDC is a dynamic creator of parameters of TinyMT32 and TinyMT64.
+ * <p>
+ * For each candidate of mat1 and mat2, the characteristic polynomial of the
+ * state transition is computed by the Berlekamp-Massey algorithm, and the
+ * candidate is accepted when the polynomial has degree 127 and is
+ * irreducible. Since 2<sup>127</sup> - 1 is a prime, an irreducible
+ * polynomial is primitive and the period is 2<sup>127</sup> - 1. Then tmat
+ * is chosen to minimize delta, the sum of dimension defects of v-bit
+ * equidistribution of the output, where the addition in the output
+ * function is replaced by exclusive or, as TinyMTDC does. The defect of
+ * v-bit equidistribution depends only on the most significant v bits of
+ * tmat, so tmat is searched bit by bit from the most significant one,
+ * starting from all ones and keeping the candidates of the least defects
+ * (a beam search). The result is improved by flipping its bits one by one
+ * while delta decreases.
+ * </p>
+ * <p>
+ * Candidates are made by TinyMT64 from id, seed and the index of the
+ * candidate, and they are tested in parallel in a {@link ForkJoinPool}.
+ * Accepted parameters are given in the order of candidates, so the result
+ * depends only on type, id, seed and count, not on the parallelism.
+ * Parameters are given as lines of the text format of TinyMTDC,
+ * "characteristic,type,id,mat1,mat2,tmat,weight,delta", which
+ * {@link ParameterTable#parse(java.io.Reader)} reads, or as a
+ * {@link ParameterTable}, which can be saved to a binary file.
+ * </p>
+ * <p>
+ * Candidates differ from the C implementation of TinyMTDC, so the same id
+ * and seed give different parameters from it.
+ * </p>
+ *
+ * @author M. Saito
+ * @see <a href=
+ *      "http://www.math.sci.hiroshima-u.ac.jp/~m-mat/MT/TINYMT/index.html">
+ *      TinyMT web page</a>
+ */
+public final class TinyMTDC {
+    /** type of TinyMT32. */
+    public static final int TINYMT32 = 32;
+    /** type of TinyMT64. */
+    public static final int TINYMT64 = 64;
+    /** degree of characteristic polynomial, dimension of state. */
+    private static final int DEGREE = 127;
+    /** number of words of a vector of dimension DEGREE. */
+    private static final int WORDS = 2;
+    /** number of bits of a word. */
+    private static final int WORD_SIZE = 64;
+    /** shift to get word index from bit index. */
+    private static final int WORD_SHIFT = 6;
+    /** mask to get bit index in a word. */
+    private static final int WORD_MASK = WORD_SIZE - 1;
+    /** number of candidates of tmat kept by the beam search. */
+    private static final int BEAM_WIDTH = 16;
+    /** number of candidates tested in a batch. */
+    private static final int BATCH_SIZE = 2048;
+    /** int size. */
+    private static final int INT_SIZE = 32;
+    /** int to unsigned long mask. */
+    private static final long INT_TO_LONG_MASK = 0xffffffffL;
+    /** mask of TinyMT32 st0. */
+    private static final int MASK32 = 0x7fffffff;
+    /** mask of TinyMT64 st0. */
+    private static final long MASK64 = 0x7fffffffffffffffL;
+    /** number of bits of TinyMT32 st0 in state. */
+    private static final int ST0_BITS32 = 31;
+    /** number of bits of TinyMT64 st0 in state. */
+    private static final int ST0_BITS64 = 63;
+    /** TinyMT32 shift 0. */
+    private static final int SH0_32 = 1;
+    /** TinyMT32 shift 1. */
+    private static final int SH1_32 = 10;
+    /** TinyMT64 shift 0. */
+    private static final int SH0_64 = 12;
+    /** TinyMT64 shift 1. */
+    private static final int SH1_64 = 11;
+    /** shift of tempering. */
+    private static final int SH8 = 8;
+    /** hexadecimal format. */
+    private static final int HEX_FORMAT = 16;
+    /** number of hexadecimal digits of int. */
+    private static final int INT_DIGITS = 8;
+    /** number of hexadecimal digits of long. */
+    private static final int LONG_DIGITS = 16;
+    /** header line of text format. */
+    private static final String HEADER
+        = "# characteristic, type, id, mat1, mat2, tmat, weight, delta";
+    /** 2<sup>127</sup>. */
+    private static final BigInteger FIELD_ORDER
+        = BigInteger.ONE.shiftLeft(DEGREE);
+
+    /**
+     * killing default constructor.
+     */
+    private TinyMTDC() {
+    }
+
+    /**
+     * creates parameters and gives them to sink as lines of text format.
+     *
+     * @param type
+     *            {@link #TINYMT32} or {@link #TINYMT64}
+     * @param id
+     *            ID of parameters, which also selects candidates
+     * @param seed
+     *            seed of candidates
+     * @param count
+     *            number of parameters
+     * @param pool
+     *            pool where candidates are tested
+     * @param sink
+     *            receiver of lines, called from the calling thread
+     * @throws IllegalArgumentException
+     *             when type is unknown or count is negative
+     */
+    public static void create(final int type, final int id, final long seed,
+            final int count, final ForkJoinPool pool,
+            final Consumer<? super String> sink) {
+        if (type != TINYMT32 && type != TINYMT64) {
+            throw new IllegalArgumentException("unknown type:" + type);
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative");
+        }
+        int found = 0;
+        for (long start = 0; found < count; start += BATCH_SIZE) {
+            final long first = start;
+            List<String> lines = pool.submit(() -> IntStream
+                    .range(0, BATCH_SIZE).parallel()
+                    .mapToObj(i -> candidate(type, id, seed, first + i))
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList())).join();
+            for (String line : lines) {
+                if (found == count) {
+                    break;
+                }
+                sink.accept(line);
+                found++;
+            }
+        }
+    }
+
+    /**
+     * creates parameters and writes them in text format with a header line.
+     *
+     * @param type
+     *            {@link #TINYMT32} or {@link #TINYMT64}
+     * @param id
+     *            ID of parameters, which also selects candidates
+     * @param seed
+     *            seed of candidates
+     * @param count
+     *            number of parameters
+     * @param pool
+     *            pool where candidates are tested
+     * @param writer
+     *            writer of text, which is not closed
+     * @throws IOException
+     *             when fails to write
+     */
+    public static void writeText(final int type, final int id,
+            final long seed, final int count, final ForkJoinPool pool,
+            final Writer writer) throws IOException {
+        writer.write(HEADER);
+        writer.write('\n');
+        try {
+            create(type, id, seed, count, pool, line -> {
+                try {
+                    writer.write(line);
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * creates parameters as a table, which can be saved to a binary file by
+     * {@link ParameterTable#write(java.nio.file.Path)}.
+     *
+     * @param type
+     *            {@link #TINYMT32} or {@link #TINYMT64}
+     * @param id
+     *            ID of parameters, which also selects candidates
+     * @param seed
+     *            seed of candidates
+     * @param count
+     *            number of parameters
+     * @param pool
+     *            pool where candidates are tested
+     * @return table of parameters
+     */
+    public static ParameterTable createTable(final int type, final int id,
+            final long seed, final int count, final ForkJoinPool pool) {
+        List<String> lines = new ArrayList<String>(count);
+        create(type, id, seed, count, pool, lines::add);
+        try {
+            return ParameterTable.parse(
+                    new StringReader(String.join("\n", lines)));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * tests a candidate.
+     *
+     * @param type
+     *            type of TinyMT
+     * @param id
+     *            ID of parameters
+     * @param seed
+     *            seed of candidates
+     * @param index
+     *            index of candidate
+     * @return line of text format if accepted, otherwise null
+     */
+    private static String candidate(final int type, final int id,
+            final long seed, final long index) {
+        TinyMT64 rng = TinyMT64.getDefault(new int[] {
+                (int) (seed >>> INT_SIZE), (int) seed, id,
+                (int) (index >>> INT_SIZE), (int) index, type });
+        final int mat1 = rng.nextInt();
+        final int mat2 = rng.nextInt();
+        F2Polynomial characteristic = characteristic(type, mat1, mat2);
+        if (characteristic == null) {
+            return null;
+        }
+        Outputs outputs = new Outputs(type, mat1, mat2);
+        long bestTmat = outputs.searchTmat(BEAM_WIDTH);
+        int bestDelta = outputs.delta(bestTmat, Integer.MAX_VALUE);
+        // flip bits of the best tmat while delta decreases
+        boolean improved = true;
+        while (improved && bestDelta > 0) {
+            improved = false;
+            for (int i = 0; i < type && bestDelta > 0; i++) {
+                long tmat = bestTmat ^ (1L << i);
+                int delta = outputs.delta(tmat, bestDelta - 1);
+                if (delta < bestDelta) {
+                    bestDelta = delta;
+                    bestTmat = tmat;
+                    improved = true;
+                }
+            }
+        }
+        return format(type, id, characteristic, mat1, mat2, bestTmat,
+                bestDelta);
+    }
+
+    /**
+     * formats parameter in text format.
+     *
+     * @param type
+     *            type of TinyMT
+     * @param id
+     *            ID
+     * @param characteristic
+     *            characteristic polynomial
+     * @param mat1
+     *            mat1
+     * @param mat2
+     *            mat2
+     * @param tmat
+     *            tmat
+     * @param delta
+     *            delta
+     * @return line of text format
+     */
+    private static String format(final int type, final int id,
+            final F2Polynomial characteristic, final int mat1,
+            final int mat2, final long tmat, final int delta) {
+        String tmatString;
+        if (type == TINYMT32) {
+            tmatString = hex((int) tmat);
+        } else {
+            tmatString = String.format("%0" + LONG_DIGITS + "x", tmat);
+        }
+        return characteristic.toString(HEX_FORMAT) + "," + type + "," + id
+                + "," + hex(mat1) + "," + hex(mat2) + "," + tmatString + ","
+                + weight(characteristic) + "," + delta;
+    }
+
+    /**
+     * returns hexadecimal format of int with leading zeros.
+     *
+     * @param x
+     *            int
+     * @return hexadecimal format
+     */
+    private static String hex(final int x) {
+        return String.format("%0" + INT_DIGITS + "x", x);
+    }
+
+    /**
+     * returns Hamming weight of polynomial of degree 127.
+     *
+     * @param poly
+     *            polynomial
+     * @return number of non-zero coefficients
+     */
+    static int weight(final F2Polynomial poly) {
+        return Long.bitCount(poly.getWord(0)) + Long.bitCount(poly.getWord(1));
+    }
+
+    /**
+     * returns characteristic polynomial of the state transition if it is
+     * primitive of degree 127.
+     *
+     * @param type
+     *            type of TinyMT
+     * @param mat1
+     *            mat1
+     * @param mat2
+     *            mat2
+     * @return characteristic polynomial, or null if it is not primitive
+     */
+    static F2Polynomial characteristic(final int type, final int mat1,
+            final int mat2) {
+        // a sequence of the lowest bit of st1 from a non-zero state
+        final int length = 2 * DEGREE;
+        final int[] sequence = new int[length];
+        if (type == TINYMT32) {
+            int[] st = {0, 0, 0, 1};
+            for (int i = 0; i < length; i++) {
+                nextState32(st, mat1, mat2);
+                sequence[i] = st[1] & 1;
+            }
+        } else {
+            long[] st = {0, 1};
+            for (int i = 0; i < length; i++) {
+                nextState64(st, mat1, mat2);
+                sequence[i] = (int) st[1] & 1;
+            }
+        }
+        F2Polynomial poly = minimalPolynomial(sequence);
+        if (poly == null || !isIrreducible(poly)) {
+            return null;
+        }
+        return poly;
+    }
+
+    /**
+     * returns minimal polynomial of a sequence by the Berlekamp-Massey
+     * algorithm if its degree is 127.
+     *
+     * @param s
+     *            sequence of 0 and 1, whose length is 254
+     * @return minimal polynomial, or null if its degree is not 127
+     */
+    private static F2Polynomial minimalPolynomial(final int[] s) {
+        // connection polynomials, coefficient of x^i is bit i
+        long[] c = new long[WORDS + 1];
+        long[] b = new long[WORDS + 1];
+        long[] t = new long[WORDS + 1];
+        c[0] = 1;
+        b[0] = 1;
+        int l = 0;
+        int m = 1;
+        for (int n = 0; n < s.length; n++) {
+            int d = s[n];
+            for (int i = 1; i <= l; i++) {
+                d ^= bit(c, i) & s[n - i];
+            }
+            if (d == 0) {
+                m++;
+            } else if (2 * l <= n) {
+                System.arraycopy(c, 0, t, 0, c.length);
+                xorShifted(c, b, m);
+                l = n + 1 - l;
+                System.arraycopy(t, 0, b, 0, b.length);
+                m = 1;
+            } else {
+                xorShifted(c, b, m);
+                m++;
+            }
+        }
+        if (l != DEGREE) {
+            return null;
+        }
+        // minimal polynomial is the reciprocal of connection polynomial
+        long high = 0;
+        long low = 0;
+        for (int i = 0; i <= DEGREE; i++) {
+            if (bit(c, DEGREE - i) != 0) {
+                if (i < WORD_SIZE) {
+                    low |= 1L << i;
+                } else {
+                    high |= 1L << (i - WORD_SIZE);
+                }
+            }
+        }
+        return F2Polynomial.valueOf(high, low);
+    }
+
+    /**
+     * returns bit of a multi word number.
+     *
+     * @param x
+     *            words, least significant first
+     * @param index
+     *            index of bit
+     * @return 0 or 1
+     */
+    private static int bit(final long[] x, final int index) {
+        return (int) (x[index >>> WORD_SHIFT] >>> (index & WORD_MASK)) & 1;
+    }
+
+    /**
+     * x ^= y << shift, bits over the length of x are discarded.
+     *
+     * @param x
+     *            words, least significant first
+     * @param y
+     *            words, least significant first
+     * @param shift
+     *            shift, 0 < shift
+     */
+    private static void xorShifted(final long[] x, final long[] y,
+            final int shift) {
+        final int words = shift >>> WORD_SHIFT;
+        final int bits = shift & WORD_MASK;
+        for (int i = x.length - 1; i >= words; i--) {
+            long v = y[i - words] << bits;
+            if (bits != 0 && i - words - 1 >= 0) {
+                v |= y[i - words - 1] >>> (WORD_SIZE - bits);
+            }
+            x[i] ^= v;
+        }
+    }
+
+    /**
+     * tests irreducibility of a polynomial of degree 127. Since 127 is a
+     * prime, the polynomial is irreducible if and only if it has no factor
+     * of degree 1 and x<sup>2<sup>127</sup></sup> = x modulo it.
+     *
+     * @param poly
+     *            polynomial of degree 127
+     * @return true if irreducible
+     */
+    private static boolean isIrreducible(final F2Polynomial poly) {
+        if (poly.getCoefficient(0) == 0 || weight(poly) % 2 == 0) {
+            return false;
+        }
+        return F2Polynomial.X.powerMod(FIELD_ORDER, poly)
+                .equals(F2Polynomial.X);
+    }
+
+    /**
+     * state transition of TinyMT32.
+     *
+     * @param st
+     *            st0, st1, st2 and st3
+     * @param mat1
+     *            mat1
+     * @param mat2
+     *            mat2
+     */
+    private static void nextState32(final int[] st, final int mat1,
+            final int mat2) {
+        int x = (st[0] & MASK32) ^ st[1] ^ st[2];
+        x ^= x << SH0_32;
+        int y = st[3] ^ (st[3] >>> SH0_32) ^ x;
+        int odd = -(y & 1);
+        st[0] = st[1];
+        st[1] = st[2] ^ (odd & mat1);
+        st[2] = x ^ (y << SH1_32) ^ (odd & mat2);
+        st[3] = y;
+    }
+
+    /**
+     * state transition of TinyMT64.
+     *
+     * @param st
+     *            st0 and st1
+     * @param mat1
+     *            mat1
+     * @param mat2
+     *            mat2
+     */
+    private static void nextState64(final long[] st, final int mat1,
+            final int mat2) {
+        long x = (st[0] & MASK64) ^ st[1];
+        x ^= x << SH0_64;
+        x ^= x >>> INT_SIZE;
+        x ^= x << INT_SIZE;
+        x ^= x << SH1_64;
+        long odd = -(x & 1);
+        st[0] = st[1] ^ (odd & (mat1 & INT_TO_LONG_MASK));
+        st[1] = x ^ (odd & ((long) mat2 << INT_SIZE));
+    }
+
+    /**
+     * Output bits of the first 127 steps as linear functions of the state.
+     * The output function is linearized, the addition is replaced by
+     * exclusive or, so an output is {@code base ^ (-odd & tmat)} where base
+     * and odd are linear.
+     */
+    static final class Outputs {
+        /** number of bits of output. */
+        private final int width;
+        /** base[(step * width + i) * 2 + w] is word w of bit i of base. */
+        private final long[] base;
+        /** odd[step * 2 + w] is word w of the bit selecting tmat. */
+        private final long[] odd;
+        /** pivots of Gaussian elimination, by the highest bit. */
+        private final long[] pivot = new long[(DEGREE + 1) * WORDS];
+        /** true if pivot is set. */
+        private final boolean[] used = new boolean[DEGREE + 1];
+
+        /**
+         * computes linear functions of output bits. Bit i is counted from
+         * the most significant bit.
+         * <p>
+         * The state is kept bit-sliced: each bit of the state words is a
+         * linear function of the initial state, a vector of 127 bits, and
+         * the state transition is applied to the vectors.
+         * </p>
+         *
+         * @param type
+         *            type of TinyMT
+         * @param mat1
+         *            mat1
+         * @param mat2
+         *            mat2
+         */
+        Outputs(final int type, final int mat1, final int mat2) {
+            width = type;
+            base = new long[DEGREE * width * WORDS];
+            odd = new long[DEGREE * WORDS];
+            if (type == TINYMT32) {
+                linear32(mat1, mat2);
+            } else {
+                linear64(mat1, mat2);
+            }
+        }
+
+        /**
+         * sets vector of bit b of the initial state to a word.
+         *
+         * @param word
+         *            vectors of bits of a state word
+         * @param k
+         *            index of bit in the word
+         * @param b
+         *            index of bit in the state, 0 <= b < 127
+         */
+        private static void unit(final long[] word, final int k,
+                final int b) {
+            word[k * WORDS + (b >>> WORD_SHIFT)] = 1L << (b & WORD_MASK);
+        }
+
+        /**
+         * xors vector to bits of word where mask has 1.
+         *
+         * @param word
+         *            vectors of bits of a state word
+         * @param offset
+         *            index of bit of the word for bit 0 of mask
+         * @param mask
+         *            mask
+         * @param low
+         *            lower word of vector
+         * @param high
+         *            higher word of vector
+         */
+        private static void xorMasked(final long[] word, final int offset,
+                final int mask, final long low, final long high) {
+            for (int m = mask; m != 0; m &= m - 1) {
+                final int p = (offset + Integer.numberOfTrailingZeros(m))
+                        * WORDS;
+                word[p] ^= low;
+                word[p + 1] ^= high;
+            }
+        }
+
+        /**
+         * computes output functions of TinyMT32.
+         *
+         * @param mat1
+         *            mat1
+         * @param mat2
+         *            mat2
+         */
+        private void linear32(final int mat1, final int mat2) {
+            final int size = INT_SIZE * WORDS;
+            long[] st0 = new long[size];
+            long[] st1 = new long[size];
+            long[] st2 = new long[size];
+            long[] st3 = new long[size];
+            long[] x = new long[size];
+            long[] y = new long[size];
+            final long[][] upper = {st1, st2, st3};
+            for (int b = 0; b < DEGREE; b++) {
+                if (b < ST0_BITS32) {
+                    unit(st0, b, b);
+                } else {
+                    final int k = b - ST0_BITS32;
+                    unit(upper[k / INT_SIZE], k % INT_SIZE, b);
+                }
+            }
+            for (int j = 0; j < DEGREE; j++) {
+                // x = (st0 & MASK32) ^ st1 ^ st2; x ^= x << SH0
+                for (int p = 0; p < size; p++) {
+                    x[p] = st1[p] ^ st2[p];
+                }
+                for (int p = 0; p < ST0_BITS32 * WORDS; p++) {
+                    x[p] ^= st0[p];
+                }
+                for (int p = size - 1; p >= SH0_32 * WORDS; p--) {
+                    x[p] ^= x[p - SH0_32 * WORDS];
+                }
+                // y = st3 ^ (st3 >>> SH0) ^ x
+                for (int p = 0; p < size; p++) {
+                    y[p] = st3[p] ^ x[p];
+                }
+                for (int p = 0; p < size - SH0_32 * WORDS; p++) {
+                    y[p] ^= st3[p + SH0_32 * WORDS];
+                }
+                final long oddLow = y[0];
+                final long oddHigh = y[1];
+                // st1 = st2 ^ (odd & mat1)
+                xorMasked(st2, 0, mat1, oddLow, oddHigh);
+                // st2 = x ^ (y << SH1) ^ (odd & mat2)
+                for (int p = size - 1; p >= SH1_32 * WORDS; p--) {
+                    x[p] ^= y[p - SH1_32 * WORDS];
+                }
+                xorMasked(x, 0, mat2, oddLow, oddHigh);
+                final long[] free0 = st0;
+                final long[] free3 = st3;
+                st0 = st1;
+                st1 = st2;
+                st2 = x;
+                st3 = y;
+                x = free0;
+                y = free3;
+                // t1 = st0 ^ (st2 >>> SH8); output st3 ^ t1, odd t1 & 1
+                for (int b = 0; b < INT_SIZE; b++) {
+                    final int q = (j * width + width - 1 - b) * WORDS;
+                    for (int w = 0; w < WORDS; w++) {
+                        long t1 = st0[b * WORDS + w];
+                        if (b + SH8 < INT_SIZE) {
+                            t1 ^= st2[(b + SH8) * WORDS + w];
+                        }
+                        base[q + w] = st3[b * WORDS + w] ^ t1;
+                        if (b == 0) {
+                            odd[j * WORDS + w] = t1;
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * computes output functions of TinyMT64.
+         *
+         * @param mat1
+         *            mat1
+         * @param mat2
+         *            mat2
+         */
+        private void linear64(final int mat1, final int mat2) {
+            final int size = WORD_SIZE * WORDS;
+            final int half = INT_SIZE * WORDS;
+            long[] st0 = new long[size];
+            long[] st1 = new long[size];
+            long[] x = new long[size];
+            for (int b = 0; b < DEGREE; b++) {
+                if (b < ST0_BITS64) {
+                    unit(st0, b, b);
+                } else {
+                    unit(st1, b - ST0_BITS64, b);
+                }
+            }
+            for (int j = 0; j < DEGREE; j++) {
+                // x = (st0 & MASK64) ^ st1
+                for (int p = 0; p < size; p++) {
+                    x[p] = st1[p];
+                }
+                for (int p = 0; p < ST0_BITS64 * WORDS; p++) {
+                    x[p] ^= st0[p];
+                }
+                // x ^= x << SH0; x ^= x >>> 32; x ^= x << 32; x ^= x << SH1
+                for (int p = size - 1; p >= SH0_64 * WORDS; p--) {
+                    x[p] ^= x[p - SH0_64 * WORDS];
+                }
+                for (int p = 0; p < half; p++) {
+                    x[p] ^= x[p + half];
+                }
+                for (int p = size - 1; p >= half; p--) {
+                    x[p] ^= x[p - half];
+                }
+                for (int p = size - 1; p >= SH1_64 * WORDS; p--) {
+                    x[p] ^= x[p - SH1_64 * WORDS];
+                }
+                final long oddLow = x[0];
+                final long oddHigh = x[1];
+                // st0 = st1 ^ (odd & mat1); st1 = x ^ (odd & (mat2 << 32))
+                xorMasked(st1, 0, mat1, oddLow, oddHigh);
+                xorMasked(x, INT_SIZE, mat2, oddLow, oddHigh);
+                final long[] free = st0;
+                st0 = st1;
+                st1 = x;
+                x = free;
+                // output st0 ^ st1 ^ (st0 >>> SH8), odd is its lowest bit
+                for (int b = 0; b < WORD_SIZE; b++) {
+                    final int q = (j * width + width - 1 - b) * WORDS;
+                    for (int w = 0; w < WORDS; w++) {
+                        long out = st0[b * WORDS + w] ^ st1[b * WORDS + w];
+                        if (b + SH8 < WORD_SIZE) {
+                            out ^= st0[(b + SH8) * WORDS + w];
+                        }
+                        base[q + w] = out;
+                        if (b == 0) {
+                            odd[j * WORDS + w] = out;
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * searches tmat of small delta by beam search. Bits of tmat are
+         * decided from the most significant one, starting from all ones as
+         * the C TinyMTDC does; at bit i, each kept tmat is kept as is and
+         * with bit i cleared, and those of the least sum of defects of
+         * v-bit equidistribution, v &lt;= i + 1, are kept, preferring set
+         * bits for equal sums.
+         *
+         * @param beamWidth
+         *            number of candidates kept
+         * @return tmat of the least sum of defects found
+         */
+        long searchTmat(final int beamWidth) {
+            long[] tmat = new long[2 * beamWidth];
+            int[] defect = new int[2 * beamWidth];
+            long[] next = new long[2 * beamWidth];
+            int[] nextDefect = new int[2 * beamWidth];
+            tmat[0] = -1L >>> (WORD_SIZE - width);
+            int size = 1;
+            for (int i = 0; i < width; i++) {
+                final int v = i + 1;
+                final int max = DEGREE / v;
+                final long bit = 1L << (width - 1 - i);
+                int count = 0;
+                for (int j = 0; j < size; j++) {
+                    for (int b = 0; b < 2; b++) {
+                        final long t = tmat[j] & ~(bit & -b);
+                        int d = defect[j] + max - dimension(t, v, max);
+                        // insertion sort, stable for equal defects
+                        int k = count++;
+                        while (k > 0 && nextDefect[k - 1] > d) {
+                            next[k] = next[k - 1];
+                            nextDefect[k] = nextDefect[k - 1];
+                            k--;
+                        }
+                        next[k] = t;
+                        nextDefect[k] = d;
+                    }
+                }
+                size = Math.min(beamWidth, count);
+                System.arraycopy(next, 0, tmat, 0, size);
+                System.arraycopy(nextDefect, 0, defect, 0, size);
+            }
+            return tmat[0];
+        }
+
+        /**
+         * returns delta, the sum over v of 127 / v minus the dimension of
+         * equidistribution of the most significant v bits.
+         *
+         * @param tmat
+         *            tmat
+         * @param bound
+         *            computation stops when delta exceeds this
+         * @return delta, or a number larger than bound
+         */
+        int delta(final long tmat, final int bound) {
+            int delta = 0;
+            for (int v = 1; v <= width && delta <= bound; v++) {
+                final int max = DEGREE / v;
+                delta += max - dimension(tmat, v, max);
+            }
+            return delta;
+        }
+
+        /**
+         * returns dimension of equidistribution of the most significant v
+         * bits, the largest k such that the bits of k outputs are linearly
+         * independent.
+         *
+         * @param tmat
+         *            tmat
+         * @param v
+         *            number of bits
+         * @param max
+         *            upper bound of dimension
+         * @return dimension
+         */
+        private int dimension(final long tmat, final int v, final int max) {
+            Arrays.fill(used, false);
+            for (int k = 0; k < max; k++) {
+                for (int i = 0; i < v; i++) {
+                    final int p = (k * width + i) * WORDS;
+                    long low = base[p];
+                    long high = base[p + 1];
+                    if (((tmat >>> (width - 1 - i)) & 1) != 0) {
+                        low ^= odd[k * WORDS];
+                        high ^= odd[k * WORDS + 1];
+                    }
+                    if (!insert(low, high)) {
+                        return k;
+                    }
+                }
+            }
+            return max;
+        }
+
+        /**
+         * inserts a vector to the pivots.
+         *
+         * @param plow
+         *            lower word
+         * @param phigh
+         *            higher word
+         * @return false if the vector depends on the pivots
+         */
+        private boolean insert(final long plow, final long phigh) {
+            long low = plow;
+            long high = phigh;
+            while (low != 0 || high != 0) {
+                int top;
+                if (high != 0) {
+                    top = WORD_SIZE + WORD_MASK
+                            - Long.numberOfLeadingZeros(high);
+                } else {
+                    top = WORD_MASK - Long.numberOfLeadingZeros(low);
+                }
+                if (!used[top]) {
+                    used[top] = true;
+                    pivot[top * WORDS] = low;
+                    pivot[top * WORDS + 1] = high;
+                    return true;
+                }
+                low ^= pivot[top * WORDS];
+                high ^= pivot[top * WORDS + 1];
+            }
+            return false;
+        }
+    }
+}
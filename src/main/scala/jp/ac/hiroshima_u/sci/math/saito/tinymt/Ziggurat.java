@@ -0,0 +1,200 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * This class generates normal and exponential random numbers by the
+ * Ziggurat method of G. Marsaglia and W. W. Tsang.
+ * <p>
+ * Both distributions use 256 layers. One 64-bit integer from the generator
+ * gives the layer by its lowest 8 bits and the position in the layer by
+ * the other 56 bits, and it is accepted without any floating point
+ * function in about 99% of draws. Tables are computed once when this
+ * class is loaded.
+ * </p>
+ * <p>
+ * This class is thread safe, but generators given to it are not.
+ * </p>
+ *
+ * @author M. Saito
+ * @see <a href="https://doi.org/10.18637/jss.v005.i08">G. Marsaglia and
+ *      W. W. Tsang, The Ziggurat Method for Generating Random Variables</a>
+ */
+final class Ziggurat {
+    /** number of layers. */
+    private static final int LAYERS = 256;
+    /** mask to get layer from random integer. */
+    private static final int LAYER_MASK = LAYERS - 1;
+    /** number of bits used for layer. */
+    private static final int LAYER_BITS = 8;
+    /** scale of signed 56-bit integer used for normal. */
+    private static final double NORMAL_SCALE = 0x1.0p55;
+    /** scale of unsigned 56-bit integer used for exponential. */
+    private static final double EXPONENTIAL_SCALE = 0x1.0p56;
+    /** start of the tail of normal. */
+    private static final double NORMAL_R = 3.6541528853610088;
+    /** area of a layer of normal. */
+    private static final double NORMAL_V = 4.92867323399e-3;
+    /** start of the tail of exponential. */
+    private static final double EXPONENTIAL_R = 7.69711747013104972;
+    /** area of a layer of exponential. */
+    private static final double EXPONENTIAL_V = 0.0039496598225815571993;
+    /** accept position below this in a layer of normal. */
+    private static final long[] KN = new long[LAYERS];
+    /** position to x of a layer of normal. */
+    private static final double[] WN = new double[LAYERS];
+    /** density at the top edge of a layer of normal. */
+    private static final double[] FN = new double[LAYERS];
+    /** accept position below this in a layer of exponential. */
+    private static final long[] KE = new long[LAYERS];
+    /** position to x of a layer of exponential. */
+    private static final double[] WE = new double[LAYERS];
+    /** density at the top edge of a layer of exponential. */
+    private static final double[] FE = new double[LAYERS];
+
+    static {
+        double dn = NORMAL_R;
+        double tn = dn;
+        double q = NORMAL_V / Math.exp(-0.5 * dn * dn);
+        KN[0] = (long) ((dn / q) * NORMAL_SCALE);
+        KN[1] = 0;
+        WN[0] = q / NORMAL_SCALE;
+        WN[LAYERS - 1] = dn / NORMAL_SCALE;
+        FN[0] = 1.0;
+        FN[LAYERS - 1] = Math.exp(-0.5 * dn * dn);
+        for (int i = LAYERS - 2; i >= 1; i--) {
+            dn = Math.sqrt(-2.0 * Math.log(NORMAL_V / dn
+                    + Math.exp(-0.5 * dn * dn)));
+            KN[i + 1] = (long) ((dn / tn) * NORMAL_SCALE);
+            tn = dn;
+            FN[i] = Math.exp(-0.5 * dn * dn);
+            WN[i] = dn / NORMAL_SCALE;
+        }
+        double de = EXPONENTIAL_R;
+        double te = de;
+        q = EXPONENTIAL_V / Math.exp(-de);
+        KE[0] = (long) ((de / q) * EXPONENTIAL_SCALE);
+        KE[1] = 0;
+        WE[0] = q / EXPONENTIAL_SCALE;
+        WE[LAYERS - 1] = de / EXPONENTIAL_SCALE;
+        FE[0] = 1.0;
+        FE[LAYERS - 1] = Math.exp(-de);
+        for (int i = LAYERS - 2; i >= 1; i--) {
+            de = -Math.log(EXPONENTIAL_V / de + Math.exp(-de));
+            KE[i + 1] = (long) ((de / te) * EXPONENTIAL_SCALE);
+            te = de;
+            FE[i] = Math.exp(-de);
+            WE[i] = de / EXPONENTIAL_SCALE;
+        }
+    }
+
+    /**
+     * killing default constructor.
+     */
+    private Ziggurat() {
+    }
+
+    /**
+     * returns a normal random number, whose mean is 0 and standard
+     * deviation is 1.
+     *
+     * @param rng
+     *            generator of 64-bit integers
+     * @return normal random number
+     */
+    static double normal(final RandomGenerator rng) {
+        for (;;) {
+            final long r = rng.nextLong();
+            final int i = (int) r & LAYER_MASK;
+            final long u = r >> LAYER_BITS;
+            if (Math.abs(u) < KN[i]) {
+                return u * WN[i];
+            }
+            if (i == 0) {
+                return normalTail(rng, u < 0);
+            }
+            final double x = u * WN[i];
+            if (FN[i] + rng.nextDouble() * (FN[i - 1] - FN[i])
+                    < Math.exp(-0.5 * x * x)) {
+                return x;
+            }
+        }
+    }
+
+    /**
+     * returns a normal random number in the tail, |x| > r.
+     *
+     * @param rng
+     *            generator
+     * @param negative
+     *            true if the result is negative
+     * @return normal random number
+     */
+    private static double normalTail(final RandomGenerator rng,
+            final boolean negative) {
+        double x;
+        double y;
+        do {
+            x = -Math.log1p(-rng.nextDouble()) / NORMAL_R;
+            y = -Math.log1p(-rng.nextDouble());
+        } while (y + y < x * x);
+        if (negative) {
+            return -NORMAL_R - x;
+        } else {
+            return NORMAL_R + x;
+        }
+    }
+
+    /**
+     * returns an exponential random number, whose mean is 1.
+     *
+     * @param rng
+     *            generator of 64-bit integers
+     * @return exponential random number
+     */
+    static double exponential(final RandomGenerator rng) {
+        double tail = 0.0;
+        for (;;) {
+            final long r = rng.nextLong();
+            final int i = (int) r & LAYER_MASK;
+            final long u = r >>> LAYER_BITS;
+            if (u < KE[i]) {
+                return tail + u * WE[i];
+            }
+            if (i == 0) {
+                // memoryless: the tail is r plus another exponential
+                tail += EXPONENTIAL_R;
+                continue;
+            }
+            final double x = u * WE[i];
+            if (FE[i] + rng.nextDouble() * (FE[i - 1] - FE[i])
+                    < Math.exp(-x)) {
+                return tail + x;
+            }
+        }
+    }
+
+    /**
+     * fills the specified range of array with normal random numbers.
+     *
+     * @param rng
+     *            generator of 64-bit integers
+     * @param array
+     *            array to be filled
+     * @param off
+     *            index of the first element to be filled
+     * @param len
+     *            number of elements to be filled
+     */
+    static void normals(final RandomGenerator rng, final double[] array,
+            final int off, final int len) {
+        if (off < 0 || len < 0 || off > array.length - len) {
+            throw new IndexOutOfBoundsException("off:" + off + " len:" + len
+                    + " length:" + array.length);
+        }
+        final int end = off + len;
+        for (int i = off; i < end; i++) {
+            array[i] = normal(rng);
+        }
+    }
+}
@@ -10,7 +10,10 @@
  * TinyMTs are parametric generators, which generate distinct sequence for each
  *  parameter. 
  * TinyMTs are defined as subclass of
- *  org.apache.commons.math.random.AbstractRandomGenerator.
+ *  org.apache.commons.math.random.AbstractRandomGenerator, and they also
+ *  implement java.util.random.RandomGenerator.LeapableGenerator.
+ * They are available from java.util.random.RandomGeneratorFactory
+ *  by the names "TinyMT32" and "TinyMT64".
  * </p>
  * <p>
  * Caution: TinyMTs are <strong>not synchronized</strong>,
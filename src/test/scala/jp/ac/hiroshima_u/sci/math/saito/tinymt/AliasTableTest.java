@@ -0,0 +1,129 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class AliasTableTest {
+    private static final int SIZE = 1000000;
+
+    private static void assertFrequency(final double[] weights,
+            final int[] count) {
+        double sum = 0;
+        for (double w : weights) {
+            sum += w;
+        }
+        for (int i = 0; i < weights.length; i++) {
+            double p = weights[i] / sum;
+            double sigma = Math.sqrt(p * (1 - p) / SIZE);
+            double actual = (double) count[i] / SIZE;
+            assertTrue("index:" + i + " expected:" + p + " actual:" + actual,
+                    Math.abs(p - actual) <= 5 * sigma);
+        }
+    }
+
+    @Test
+    public void testSample() {
+        double[] weights = {1, 2, 3, 4, 0, 0.5, 10 };
+        AliasTable table = new AliasTable(weights);
+        assertEquals(weights.length, table.size());
+        TinyMT64 tiny = TinyMT64.getDefault(1);
+        int[] count = new int[weights.length];
+        for (int i = 0; i < SIZE; i++) {
+            count[table.sample(tiny)]++;
+        }
+        assertEquals(0, count[4]);
+        assertFrequency(weights, count);
+    }
+
+    @Test
+    public void testSingle() {
+        AliasTable table = new AliasTable(new double[] {3.0 });
+        TinyMT32 tiny = TinyMT32.getDefault(1);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, table.sample(tiny));
+        }
+    }
+
+    @Test
+    public void testLarge() {
+        TinyMT32 tiny = TinyMT32.getDefault(2);
+        double[] weights = new double[100001];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = tiny.nextDouble();
+        }
+        weights[7] = 1000.0;
+        AliasTable table = new AliasTable(weights);
+        int[] samples = new int[SIZE];
+        table.sample(tiny, samples);
+        int count = 0;
+        for (int s : samples) {
+            assertTrue(0 <= s && s < weights.length);
+            if (s == 7) {
+                count++;
+            }
+        }
+        double sum = 0;
+        for (double w : weights) {
+            sum += w;
+        }
+        double p = weights[7] / sum;
+        assertEquals(p, (double) count / SIZE,
+                5 * Math.sqrt(p * (1 - p) / SIZE));
+    }
+
+    @Test
+    public void testBulk() {
+        AliasTable table = new AliasTable(new double[] {1, 5, 2 });
+        TinyMT32 tiny = TinyMT32.getDefault(1);
+        TinyMT32 expected = TinyMT32.getDefault(1);
+        int[] array = new int[102];
+        table.sample(tiny, array, 1, 100);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(table.sample(expected), array[1 + i]);
+        }
+        assertEquals(expected.nextLong(), tiny.nextLong());
+    }
+
+    @Test
+    public void testSetWeight() {
+        double[] weights = {1, 1, 1 };
+        AliasTable table = new AliasTable(weights);
+        table.setWeight(0, 0);
+        table.setWeight(2, 3);
+        assertEquals(3.0, table.getWeight(2), 0.0);
+        TinyMT64 tiny = TinyMT64.getDefault(1);
+        int[] count = new int[weights.length];
+        for (int i = 0; i < SIZE; i++) {
+            count[table.sample(tiny)]++;
+        }
+        assertFrequency(new double[] {0, 1, 3 }, count);
+        table.setWeights(new double[] {0, 0, 1 });
+        for (int i = 0; i < 100; i++) {
+            assertEquals(2, table.sample(tiny));
+        }
+        table.setWeight(2, 0);
+        try {
+            table.sample(tiny);
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testIllegalWeights() {
+        double[][] illegal = {{}, {-1.0 }, {1.0, Double.NaN },
+                {Double.POSITIVE_INFINITY }, {0.0, 0.0 } };
+        for (double[] weights : illegal) {
+            try {
+                new AliasTable(weights);
+                fail();
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class BufferedTinyMT32Test {
+
+    @Test
+    public void testSequence() {
+        int[] sizes = {1, 3, 256 };
+        for (int size : sizes) {
+            TinyMT32 expected = TinyMT32.getDefault(1);
+            BufferedTinyMT32 tiny = new BufferedTinyMT32(TinyMT32.getDefault(1), size);
+            for (int i = 0; i < 300; i++) {
+                switch (i % 10) {
+                case 0:
+                    assertEquals(expected.nextInt(), tiny.nextInt());
+                    break;
+                case 1:
+                    assertEquals(expected.nextLong(), tiny.nextLong());
+                    break;
+                case 2:
+                    assertEquals(expected.nextDouble(), tiny.nextDouble(),
+                            0.0);
+                    break;
+                case 3:
+                    assertEquals(expected.nextFloat(), tiny.nextFloat(),
+                            0.0f);
+                    break;
+                case 4:
+                    assertEquals(expected.nextGaussian(), tiny.nextGaussian(),
+                            0.0);
+                    assertEquals(expected.nextGaussianZiggurat(),
+                            tiny.nextGaussianZiggurat(), 0.0);
+                    break;
+                case 5:
+                    assertEquals(expected.nextInt(1000), tiny.nextInt(1000));
+                    break;
+                case 6:
+                    assertEquals(expected.nextInt(5, 1000),
+                            tiny.nextInt(5, 1000));
+                    break;
+                case 7:
+                    assertEquals(expected.nextLong(1000), tiny.nextLong(1000));
+                    break;
+                case 8:
+                    assertEquals(expected.nextLong(-7, Long.MAX_VALUE),
+                            tiny.nextLong(-7, Long.MAX_VALUE));
+                    break;
+                default:
+                    assertEquals(expected.nextBoolean(), tiny.nextBoolean());
+                    break;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBulk() {
+        TinyMT32 expected = TinyMT32.getDefault(2);
+        BufferedTinyMT32 tiny = new BufferedTinyMT32(TinyMT32.getDefault(2), 16);
+        int[] array = new int[100];
+        tiny.nextInt();
+        expected.nextInt();
+        int[] lengths = {3, 40, 0, 15, 7 };
+        for (int len : lengths) {
+            tiny.nextInts(array, 1, len);
+            for (int i = 0; i < len; i++) {
+                assertEquals(expected.nextInt(), array[1 + i]);
+            }
+        }
+        assertEquals(expected.nextInt(), tiny.nextInt());
+    }
+
+    @Test
+    public void testSeedAndDiscard() {
+        BufferedTinyMT32 tiny = new BufferedTinyMT32(TinyMT32.getDefault(3));
+        tiny.nextInt();
+        tiny.setSeed(1);
+        TinyMT32 expected = TinyMT32.getDefault(1);
+        assertEquals(expected.nextInt(), tiny.nextInt());
+        tiny.getGenerator().setSeed(5);
+        tiny.discardBuffer();
+        expected.setSeed(5);
+        assertEquals(expected.nextInt(), tiny.nextInt());
+        try {
+            new BufferedTinyMT32(expected, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class InterleavedTinyMT32Test {
+
+    @Test
+    public void testRoundRobin() {
+        TinyMT32[] lanes = TinyMT32.getDefault(1).getJumpedArray(4, 1);
+        InterleavedTinyMT32 tiny = new InterleavedTinyMT32(lanes);
+        for (int k = 0; k < 100; k++) {
+            for (int j = 0; j < 4; j++) {
+                assertEquals(lanes[j].nextInt(), tiny.nextInt());
+            }
+        }
+    }
+
+    @Test
+    public void testOfParameters() throws IOException {
+        TinyMT32[] lanes = TinyMT32.getTinyMTArray(InterleavedTinyMT32.LANES, 5);
+        InterleavedTinyMT32 tiny = InterleavedTinyMT32.ofParameters(5);
+        for (int i = 1; i < lanes.length; i++) {
+            assertNotEquals(lanes[0].getParameter().getCharacteristic(),
+                    lanes[i].getParameter().getCharacteristic());
+        }
+        for (int k = 0; k < 100; k++) {
+            for (int j = 0; j < lanes.length; j++) {
+                assertEquals(lanes[j].nextInt(), tiny.nextInt());
+            }
+        }
+    }
+
+    @Test
+    public void testBulk() {
+        InterleavedTinyMT32 tiny = InterleavedTinyMT32.ofJumped(TinyMT32.getDefault(2), 1);
+        InterleavedTinyMT32 expected = InterleavedTinyMT32.ofJumped(TinyMT32.getDefault(2), 1);
+        int[] array = new int[100];
+        int[] lengths = {1, 2, 7, 4, 13, 0, 40 };
+        for (int len : lengths) {
+            tiny.nextInts(array, 3, len);
+            for (int i = 0; i < len; i++) {
+                assertEquals(expected.nextInt(), array[3 + i]);
+            }
+        }
+        assertEquals(expected.nextInt(), tiny.nextInt());
+    }
+
+    @Test
+    public void testDerived() {
+        InterleavedTinyMT32 d = InterleavedTinyMT32.ofJumped(
+                TinyMT32.getDefault(3), 1);
+        InterleavedTinyMT32 e = InterleavedTinyMT32.ofJumped(
+                TinyMT32.getDefault(3), 1);
+        long hi = e.nextInt();
+        long lo = e.nextInt() & 0xffffffffL;
+        assertEquals((hi << 32) | lo, d.nextLong());
+        float f = d.nextFloat();
+        assertEquals(Float.intBitsToFloat((e.nextInt() >>> 9) | 0x3f800000)
+                - 1.0f, f, 0.0f);
+    }
+
+    @Test
+    public void testLanes() {
+        try {
+            new InterleavedTinyMT32(TinyMT32.getDefault(1).getJumpedArray(3, 1));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
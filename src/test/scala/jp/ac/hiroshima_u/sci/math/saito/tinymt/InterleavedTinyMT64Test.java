@@ -0,0 +1,75 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class InterleavedTinyMT64Test {
+
+    @Test
+    public void testRoundRobin() {
+        TinyMT64[] lanes = TinyMT64.getDefault(1).getJumpedArray(4, 1);
+        InterleavedTinyMT64 tiny = new InterleavedTinyMT64(lanes);
+        for (int k = 0; k < 100; k++) {
+            for (int j = 0; j < 4; j++) {
+                assertEquals(lanes[j].nextLong(), tiny.nextLong());
+            }
+        }
+    }
+
+    @Test
+    public void testOfParameters() throws IOException {
+        TinyMT64[] lanes = TinyMT64.getTinyMTArray(InterleavedTinyMT64.LANES, 5);
+        InterleavedTinyMT64 tiny = InterleavedTinyMT64.ofParameters(5);
+        for (int i = 1; i < lanes.length; i++) {
+            assertNotEquals(lanes[0].getParameter().getCharacteristic(),
+                    lanes[i].getParameter().getCharacteristic());
+        }
+        for (int k = 0; k < 100; k++) {
+            for (int j = 0; j < lanes.length; j++) {
+                assertEquals(lanes[j].nextLong(), tiny.nextLong());
+            }
+        }
+    }
+
+    @Test
+    public void testBulk() {
+        InterleavedTinyMT64 tiny = InterleavedTinyMT64.ofJumped(TinyMT64.getDefault(2), 1);
+        InterleavedTinyMT64 expected = InterleavedTinyMT64.ofJumped(TinyMT64.getDefault(2), 1);
+        long[] array = new long[100];
+        int[] lengths = {1, 2, 7, 4, 13, 0, 40 };
+        for (int len : lengths) {
+            tiny.nextLongs(array, 3, len);
+            for (int i = 0; i < len; i++) {
+                assertEquals(expected.nextLong(), array[3 + i]);
+            }
+        }
+        assertEquals(expected.nextLong(), tiny.nextLong());
+    }
+
+    @Test
+    public void testDerived() {
+        InterleavedTinyMT64 d = InterleavedTinyMT64.ofJumped(
+                TinyMT64.getDefault(3), 1);
+        InterleavedTinyMT64 e = InterleavedTinyMT64.ofJumped(
+                TinyMT64.getDefault(3), 1);
+        assertEquals((int) (e.nextLong() >>> 32), d.nextInt());
+        double r = d.nextDouble();
+        assertEquals(Double.longBitsToDouble((e.nextLong() >>> 12)
+                | 0x3ff0000000000000L) - 1.0, r, 0.0);
+    }
+
+    @Test
+    public void testLanes() {
+        try {
+            new InterleavedTinyMT64(TinyMT64.getDefault(1).getJumpedArray(3, 1));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
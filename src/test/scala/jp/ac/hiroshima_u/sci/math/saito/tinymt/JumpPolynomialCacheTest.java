@@ -0,0 +1,95 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.math.BigInteger;
+
+import org.junit.Test;
+
+public class JumpPolynomialCacheTest {
+    private static final String[] characteristic = {
+            "d8524022ed8dff4a8dcc50c798faba43",
+            "945e0ad4a30ec19432dfa9d5959e5d5d" };
+
+    @Test
+    public void testPrecomputed() {
+        BigInteger[] pow = { JumpPolynomialCache.JUMP_64,
+                JumpPolynomialCache.JUMP_96 };
+        for (int i = 0; i < characteristic.length; i++) {
+            F2Polynomial poly = new F2Polynomial(characteristic[i], 16);
+            for (int j = 0; j < pow.length; j++) {
+                long miss = JumpPolynomialCache.getMissCount();
+                assertEquals(F2Polynomial.X.powerMod(pow[j], poly),
+                        JumpPolynomialCache.get(poly, pow[j]));
+                assertEquals(miss, JumpPolynomialCache.getMissCount());
+            }
+        }
+    }
+
+    @Test
+    public void testHitAndMiss() {
+        F2Polynomial poly = new F2Polynomial(characteristic[0], 16);
+        BigInteger pow = JumpPolynomialCache.JUMP_64.multiply(
+                new BigInteger("12345"));
+        JumpPolynomialCache.clear();
+        long hit = JumpPolynomialCache.getHitCount();
+        long miss = JumpPolynomialCache.getMissCount();
+        F2Polynomial jump = JumpPolynomialCache.get(poly, pow);
+        assertEquals(F2Polynomial.X.powerMod(pow, poly), jump);
+        assertEquals(hit, JumpPolynomialCache.getHitCount());
+        assertEquals(miss + 1, JumpPolynomialCache.getMissCount());
+        assertSame(jump, JumpPolynomialCache.get(poly, pow));
+        assertEquals(hit + 1, JumpPolynomialCache.getHitCount());
+        assertEquals(miss + 1, JumpPolynomialCache.getMissCount());
+    }
+
+    @Test
+    public void testPowerTable() {
+        F2Polynomial poly = new F2Polynomial(characteristic[1], 16);
+        F2Polynomial[] table = JumpPolynomialCache.powerTable(poly);
+        assertEquals(JumpPolynomialCache.POWER_LEVELS, table.length);
+        for (int level : new int[] { 0, 1, 32, 62 }) {
+            assertEquals(F2Polynomial.X.powerMod(
+                    JumpPolynomialCache.JUMP_64.shiftLeft(level), poly),
+                    table[level]);
+        }
+    }
+
+    @Test
+    public void testSplitWithoutCache() {
+        TinyMT32 tiny32 = TinyMT32.getDefault(1234);
+        TinyMT64 tiny64 = TinyMT64.getDefault(1234);
+        tiny32.jump();
+        tiny64.jump();
+        long hit = JumpPolynomialCache.getHitCount();
+        long miss = JumpPolynomialCache.getMissCount();
+        for (int i = 0; i < 10; i++) {
+            tiny32 = tiny32.split();
+            tiny64 = tiny64.split();
+            tiny32.leap();
+            tiny64.leap();
+            tiny32.jumpPower(i);
+            tiny64.jumpPower(i);
+        }
+        assertEquals(hit, JumpPolynomialCache.getHitCount());
+        assertEquals(miss, JumpPolynomialCache.getMissCount());
+    }
+
+    @Test
+    public void testJumpPowerNegative() {
+        try {
+            TinyMT32.getDefault(1).jumpPower(-1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            TinyMT64.getDefault(1).jumpPower(-1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
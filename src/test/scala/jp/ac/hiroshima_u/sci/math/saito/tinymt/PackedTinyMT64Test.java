@@ -0,0 +1,118 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class PackedTinyMT64Test {
+
+    @Test
+    public void testInt() {
+        TinyMT64 expected = TinyMT64.getDefault(1);
+        PackedTinyMT64 tiny = new PackedTinyMT64(TinyMT64.getDefault(1));
+        for (int i = 0; i < 100; i++) {
+            long x = expected.nextLong();
+            assertEquals((int) (x >>> 32), tiny.nextInt());
+            assertEquals((int) x, tiny.nextInt());
+        }
+        assertEquals(TinyMT64.getDefault(2).nextInt(),
+                new PackedTinyMT64(TinyMT64.getDefault(2)).nextInt());
+    }
+
+    @Test
+    public void testOrder() {
+        TinyMT64 expected = TinyMT64.getDefault(3);
+        PackedTinyMT64 tiny = new PackedTinyMT64(TinyMT64.getDefault(3));
+        long x = expected.nextLong();
+        // bits are taken from the most significant side
+        assertEquals(x < 0, tiny.nextBoolean());
+        assertEquals((int) (x >>> 55) & 0xff, tiny.nextByte() & 0xff);
+        assertEquals((int) (x >>> 39) & 0xffff, tiny.nextShort() & 0xffff);
+        assertEquals((int) (x >>> 8) & 0x7fffffff, tiny.nextBits(31));
+        assertEquals((int) (x >>> 1) & 0x7f, tiny.nextBits(7));
+        // 1 bit is left, so it is discarded for 2 bits
+        long y = expected.nextLong();
+        assertEquals((int) (y >>> 62), tiny.nextBits(2));
+        // whole outputs do not touch the bank
+        assertEquals(expected.nextLong(), tiny.nextLong());
+        assertEquals(expected.nextDouble(), tiny.nextDouble(), 0.0);
+        assertEquals((int) (y >>> 30) & 0xffffffff, tiny.nextInt());
+    }
+
+    @Test
+    public void testTransitions() {
+        TinyMT64 generator = TinyMT64.getDefault(4);
+        PackedTinyMT64 tiny = new PackedTinyMT64(generator);
+        TinyMT64 expected = TinyMT64.getDefault(4);
+        int trues = 0;
+        for (int i = 0; i < 64 * 100; i++) {
+            if (tiny.nextBoolean()) {
+                trues++;
+            }
+        }
+        byte[] bytes = new byte[800];
+        tiny.nextBytes(bytes);
+        for (int i = 0; i < 200; i++) {
+            expected.nextLong();
+        }
+        assertEquals(expected.nextLong(), generator.nextLong());
+        assertTrue(trues > 64 * 40 && trues < 64 * 60);
+        for (int i = 0; i < 1000; i++) {
+            float f = tiny.nextFloat();
+            assertTrue(0 <= f && f < 1.0f);
+        }
+    }
+
+    @Test
+    public void testBounded() {
+        TinyMT64 expected = TinyMT64.getDefault(6);
+        PackedTinyMT64 tiny = new PackedTinyMT64(TinyMT64.getDefault(6));
+        for (int i = 0; i < 100; i++) {
+            // two bounded ints are made of one output
+            long x = expected.nextLong();
+            assertEquals((int) (((x >>> 32) * 1000) >>> 32),
+                    tiny.nextInt(1000));
+            assertEquals(5 + (int) (((x & 0xffffffffL) * 1000) >>> 32),
+                    tiny.nextInt(5, 1005));
+        }
+        // bounded longs use whole outputs and leave the bank
+        long y = expected.nextLong();
+        assertEquals(y < 0, tiny.nextBoolean());
+        assertEquals(expected.nextLong(1000), tiny.nextLong(1000));
+        assertEquals(expected.nextLong(-3, 3), tiny.nextLong(-3, 3));
+        assertEquals((int) (y >>> 32) & 0x7fffffff, tiny.nextBits(31));
+        try {
+            tiny.nextInt(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testSeedAndDiscard() {
+        PackedTinyMT64 tiny = new PackedTinyMT64(TinyMT64.getDefault(5));
+        tiny.nextBoolean();
+        tiny.setSeed(1);
+        TinyMT64 expected = TinyMT64.getDefault(1);
+        assertEquals(expected.nextInt(), tiny.nextInt());
+        tiny.getGenerator().setSeed(5);
+        tiny.discardBits();
+        expected.setSeed(5);
+        assertEquals(expected.nextInt(), tiny.nextInt());
+        try {
+            tiny.nextBits(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            tiny.nextBits(33);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+/**
+ * checks every row of the parameter tables in resources: the characteristic
+ * polynomial is primitive, and the weight and delta are as stated. This
+ * takes minutes on a single processor, so this is not in PartialTests.
+ */
+public class ParameterResourceTest {
+
+    private static void checkResource(final String name, final int rows)
+            throws IOException {
+        List<String> lines;
+        try (InputStream in = ParameterResourceTest.class.getClassLoader()
+                .getResourceAsStream(name)) {
+            assertNotNull(name, in);
+            lines = new BufferedReader(new InputStreamReader(in,
+                    StandardCharsets.US_ASCII)).lines()
+                    .filter(line -> !line.startsWith("#"))
+                    .collect(Collectors.toList());
+        }
+        assertEquals(rows, lines.size());
+        lines.parallelStream().forEach(TinyMTDCTest::check);
+    }
+
+    @Test
+    public void testTinyMT32Table() throws IOException {
+        checkResource("tinymt32dc.0.65536.txt", 65536);
+    }
+
+    @Test
+    public void testTinyMT32ThreadLocalTable() throws IOException {
+        checkResource("tinymt32dc.1.1024.txt", 1024);
+    }
+
+    @Test
+    public void testTinyMT64Table() throws IOException {
+        checkResource("tinymt64dc.0.65536.txt", 65536);
+    }
+}
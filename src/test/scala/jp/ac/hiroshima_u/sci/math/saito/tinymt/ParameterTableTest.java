@@ -0,0 +1,120 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+public class ParameterTableTest {
+    private static final String TEXT =
+            "# charactristic, type, id, mat1, mat2, tmat, weight, delta\n"
+            + "d8524022ed8dff4a8dcc50c798faba43,32,0,8f7011ee,fc78ff1f,3793fdff,63,0\n"
+            + "8ee476cb10b7c7e20dd10725924e9877,32,0,877810ef,fc38ff0f,c7fb7fff,63,0\n"
+            + "9898245c4fccabd1617bb16fff089643,32,1,ae5015cb,f578fd5f,93fc9ffd,65,1\n"
+            + "945e0ad4a30ec19432dfa9d5959e5d5d,64,0,fa051f40,ffd0fff4,58d02ffeffbfffbc,65,0\n";
+
+    @Test
+    public void testParse() throws IOException {
+        ParameterTable table = ParameterTable.parse(new StringReader(TEXT),
+                "d8524022ed8dff4a8dcc50c798faba43");
+        assertEquals(3, table.size());
+        assertEquals(new F2Polynomial("8ee476cb10b7c7e20dd10725924e9877", 16),
+                table.getCharacteristic(0));
+        assertEquals(0, table.getId(0));
+        assertEquals(0x877810ef, table.getMat1(0));
+        assertEquals(0xfc38ff0f, table.getMat2(0));
+        assertEquals(0xc7fb7fff, (int) table.getTmat(0));
+        assertEquals(63, table.getWeight(0));
+        assertEquals(0, table.getDelta(0));
+        assertEquals(1, table.getId(1));
+        assertEquals(1, table.getDelta(1));
+        assertEquals(new F2Polynomial("945e0ad4a30ec19432dfa9d5959e5d5d", 16),
+                table.getCharacteristic(2));
+        assertEquals(0x58d02ffeffbfffbcL, table.getTmat(2));
+        try {
+            table.getId(3);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testParseMany() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            sb.append("8ee476cb10b7c7e20dd10725924e9877,32,").append(i)
+                    .append(",877810ef,fc38ff0f,c7fb7fff,63,0\n");
+        }
+        ParameterTable table = ParameterTable.parse(
+                new StringReader(sb.toString()), "none");
+        assertEquals(3000, table.size());
+        for (int i = 0; i < 3000; i++) {
+            assertEquals(i, table.getId(i));
+        }
+    }
+
+    @Test
+    public void testLoad() throws IOException {
+        ParameterTable table = ParameterTable.load(new String[] {
+                "no-such-resource.txt", "tinymt32dc.1.1024.txt" },
+                "d8524022ed8dff4a8dcc50c798faba43");
+        assertEquals(1024, table.size());
+        assertEquals(new F2Polynomial("80227acb382d7b47f3714bd1223bedaf", 16),
+                table.getCharacteristic(0));
+        assertEquals(0xda251b45, table.getMat1(0));
+        try {
+            ParameterTable.load(new String[] {"no-such-resource.txt" }, "");
+            fail();
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testWriteAndMap() throws IOException {
+        ParameterTable table = ParameterTable.parse(new StringReader(TEXT));
+        Path file = Files.createTempFile("tinymt", ".bin");
+        try {
+            table.write(file);
+            assertEquals(ParameterTable.HEADER_SIZE
+                    + 4 * ParameterTable.RECORD_SIZE, Files.size(file));
+            ParameterTable mapped = ParameterTable.map(file);
+            assertEquals(4, mapped.size());
+            for (int i = 0; i < 4; i++) {
+                assertEquals(table.getCharacteristic(i),
+                        mapped.getCharacteristic(i));
+                assertEquals(table.getType(i), mapped.getType(i));
+                assertEquals(table.getId(i), mapped.getId(i));
+                assertEquals(table.getMat1(i), mapped.getMat1(i));
+                assertEquals(table.getMat2(i), mapped.getMat2(i));
+                assertEquals(table.getTmat(i), mapped.getTmat(i));
+                assertEquals(table.getWeight(i), mapped.getWeight(i));
+                assertEquals(table.getDelta(i), mapped.getDelta(i));
+            }
+            assertEquals(32, mapped.getType(0));
+            assertEquals(64, mapped.getType(3));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testMapInvalid() throws IOException {
+        Path file = Files.createTempFile("tinymt", ".bin");
+        try {
+            Files.write(file, new byte[ParameterTable.HEADER_SIZE]);
+            ParameterTable.map(file);
+            fail();
+        } catch (IOException e) {
+            // expected
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
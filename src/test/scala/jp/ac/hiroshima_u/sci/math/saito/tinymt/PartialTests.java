@@ -7,7 +7,14 @@ import org.junit.runners.Suite.SuiteClasses;
 @RunWith(Suite.class)
 @SuiteClasses({ PolynomialTest.class, 
         TinyMT32ParameterTest.class, TinyMT32Test.class,
-        TinyMT64ParameterTest.class, TinyMT64Test.class })
+        TinyMT64ParameterTest.class, TinyMT64Test.class,
+        JumpPolynomialCacheTest.class, ParameterTableTest.class,
+        InterleavedTinyMT32Test.class,
+        InterleavedTinyMT64Test.class, BufferedTinyMT32Test.class,
+        BufferedTinyMT64Test.class, ZigguratTest.class,
+        AliasTableTest.class, RandomSamplingTest.class,
+        StripedRandomTest.class, SpecializedTinyMTTest.class,
+        PackedTinyMT64Test.class, TinyMTDCTest.class })
 public class PartialTests {
 
 }
@@ -82,4 +82,34 @@ public class PolynomialTest extends TestCase {
         F2Polynomial p = new F2Polynomial("101");
         assertTrue(p.equals(p));
 	}
+
+	@Test
+	public void testPowerModLarge() {
+		F2Polynomial mod = new F2Polynomial("d8524022ed8dff4a8dcc50c798faba43", 16);
+		BigInteger pow = new BigInteger("300");
+		assertEquals(F2Polynomial.X.power(pow).mod(mod),
+				F2Polynomial.X.powerMod(pow, mod));
+		F2Polynomial x = new F2Polynomial("123456789abcdef0123456789abcdef", 16);
+		assertEquals(x.mul(x).mul(x).mod(mod),
+				x.powerMod(new BigInteger("3"), mod));
+		assertEquals(new F2Polynomial("1"),
+				x.powerMod(BigInteger.ZERO, mod));
+	}
+
+	@Test
+	public void testPowerModJump() {
+		F2Polynomial mod = new F2Polynomial("d8524022ed8dff4a8dcc50c798faba43", 16);
+		assertEquals(new F2Polynomial("c1118b8caf7a3e7b9af8e9bc86806e9", 16),
+				F2Polynomial.X.powerMod(BigInteger.ONE.shiftLeft(64), mod));
+	}
+
+	@Test
+	public void testMulModMultiWord() {
+		F2Polynomial x = new F2Polynomial("8000000000000000000000000000000000000001", 16);
+		F2Polynomial y = new F2Polynomial("10000000000000001", 16);
+		assertEquals(new F2Polynomial("80000000000000008000000000000000000000010000000000000001", 16),
+				x.mul(y));
+		assertEquals(new F2Polynomial("0"), x.mul(y).mod(y));
+		assertEquals(new F2Polynomial("0"), x.mul(y).mod(x));
+	}
 }
@@ -0,0 +1,178 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import org.junit.Test;
+
+public class RandomSamplingTest {
+    private static final int[][] PERMUTATIONS = permutations();
+
+    private static int[][] permutations() {
+        List<int[]> list = new ArrayList<int[]>();
+        for (int a = 0; a < 4; a++) {
+            for (int b = 0; b < 4; b++) {
+                for (int c = 0; c < 4; c++) {
+                    int d = 6 - a - b - c;
+                    if (a != b && a != c && b != c && d != a && d != b
+                            && d != c && d >= 0 && d < 4) {
+                        list.add(new int[] {a, b, c, d });
+                    }
+                }
+            }
+        }
+        return list.toArray(new int[0][]);
+    }
+
+    private static int indexOf(final int[] permutation) {
+        for (int i = 0; i < PERMUTATIONS.length; i++) {
+            if (Arrays.equals(PERMUTATIONS[i], permutation)) {
+                return i;
+            }
+        }
+        throw new AssertionError(Arrays.toString(permutation));
+    }
+
+    private static void assertUniform(final int[] count, final int total) {
+        double p = 1.0 / count.length;
+        double sigma = Math.sqrt(total * p * (1 - p));
+        for (int c : count) {
+            assertEquals(total * p, c, 5 * sigma);
+        }
+    }
+
+    @Test
+    public void testShuffle() {
+        assertEquals(24, PERMUTATIONS.length);
+        TinyMT32 tiny = TinyMT32.getDefault(1);
+        int total = 240000;
+        int[] count = new int[24];
+        for (int i = 0; i < total; i++) {
+            int[] array = {0, 1, 2, 3 };
+            RandomSampling.shuffle(tiny, array);
+            count[indexOf(array)]++;
+        }
+        assertUniform(count, total);
+    }
+
+    @Test
+    public void testParallelShuffleUniform() {
+        TinyMT64 tiny = TinyMT64.getDefault(1);
+        int total = 24000;
+        int[] count = new int[24];
+        for (int i = 0; i < total; i++) {
+            int[] array = {0, 1, 2, 3 };
+            RandomSampling.parallelShuffle(tiny, array, 1);
+            count[indexOf(array)]++;
+        }
+        assertUniform(count, total);
+    }
+
+    @Test
+    public void testParallelShuffle() {
+        int[] array1 = IntStream.range(0, 300001).toArray();
+        int[] array2 = array1.clone();
+        RandomSampling.parallelShuffle(TinyMT32.getDefault(1), array1);
+        RandomSampling.parallelShuffle(TinyMT32.getDefault(1), array2);
+        assertArrayEquals(array1, array2);
+        assertTrue(array1[0] != 0 || array1[1] != 1);
+        Arrays.sort(array1);
+        assertArrayEquals(IntStream.range(0, 300001).toArray(), array1);
+        long[] longs = LongStream.range(0, 200000).toArray();
+        RandomSampling.parallelShuffle(TinyMT64.getDefault(1), longs, 1000);
+        int fixed = 0;
+        for (int i = 0; i < longs.length; i++) {
+            if (longs[i] == i) {
+                fixed++;
+            }
+        }
+        assertTrue(fixed < 10);
+        Arrays.sort(longs);
+        assertArrayEquals(LongStream.range(0, 200000).toArray(), longs);
+    }
+
+    @Test
+    public void testShuffleList() {
+        TinyMT64 tiny = TinyMT64.getDefault(1);
+        List<Integer> array = new ArrayList<Integer>();
+        List<Integer> linked = new LinkedList<Integer>();
+        for (int i = 0; i < 100; i++) {
+            array.add(i);
+            linked.add(i);
+        }
+        RandomSampling.shuffle(tiny, array);
+        RandomSampling.shuffle(tiny, linked);
+        assertTrue(!array.equals(linked));
+        Integer[] objects = linked.toArray(new Integer[0]);
+        Arrays.sort(objects);
+        for (int i = 0; i < objects.length; i++) {
+            assertEquals(i, objects[i].intValue());
+        }
+    }
+
+    @Test
+    public void testSampleIndices() {
+        TinyMT32 tiny = TinyMT32.getDefault(1);
+        int total = 100000;
+        int[] count = new int[10];
+        for (int i = 0; i < total; i++) {
+            int[] sample = RandomSampling.sampleIndices(tiny, 10, 3);
+            assertEquals(3, sample.length);
+            assertEquals(3, IntStream.of(sample).distinct().count());
+            for (int s : sample) {
+                count[s]++;
+            }
+        }
+        assertUniform(count, 3 * total);
+        int[] all = RandomSampling.sampleIndices(tiny, 1000, 1000);
+        Arrays.sort(all);
+        assertArrayEquals(IntStream.range(0, 1000).toArray(), all);
+        try {
+            RandomSampling.sampleIndices(tiny, 3, 4);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testReservoir() {
+        TinyMT64 tiny = TinyMT64.getDefault(1);
+        int total = 20000;
+        int[] count = new int[100];
+        int[] lcount = new int[100];
+        int[] ocount = new int[100];
+        for (int i = 0; i < total; i++) {
+            int[] sample = RandomSampling.sample(tiny,
+                    IntStream.range(0, 100).iterator(), 5);
+            assertEquals(5, IntStream.of(sample).distinct().count());
+            for (int s : sample) {
+                count[s]++;
+            }
+            for (long s : RandomSampling.sample(tiny,
+                    LongStream.range(0, 100).iterator(), 5)) {
+                lcount[(int) s]++;
+            }
+            for (Integer s : RandomSampling.sample(tiny,
+                    IntStream.range(0, 100).boxed().iterator(), 5)) {
+                ocount[s]++;
+            }
+        }
+        assertUniform(count, 5 * total);
+        assertUniform(lcount, 5 * total);
+        assertUniform(ocount, 5 * total);
+        assertArrayEquals(new int[] {0, 1, 2 }, RandomSampling.sample(tiny,
+                IntStream.range(0, 3).iterator(), 5));
+        assertEquals(0, RandomSampling.sample(tiny,
+                IntStream.range(0, 3).iterator(), 0).length);
+    }
+}
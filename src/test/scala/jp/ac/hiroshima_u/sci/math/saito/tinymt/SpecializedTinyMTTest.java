@@ -0,0 +1,139 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.random.RandomGenerator;
+
+import org.junit.Test;
+
+public class SpecializedTinyMTTest {
+
+    private static void assertSameSequence(final RandomGenerator expected,
+            final RandomGenerator actual) {
+        for (int i = 0; i < 1100; i++) {
+            switch (i % 11) {
+            case 0:
+                assertEquals(expected.nextInt(), actual.nextInt());
+                break;
+            case 1:
+                assertEquals(expected.nextLong(), actual.nextLong());
+                break;
+            case 2:
+                assertEquals(expected.nextDouble(), actual.nextDouble(), 0.0);
+                break;
+            case 3:
+                assertEquals(expected.nextInt(1000), actual.nextInt(1000));
+                break;
+            case 4:
+                assertEquals(expected.nextInt(-5, 7), actual.nextInt(-5, 7));
+                break;
+            case 5:
+                assertEquals(expected.nextLong(1000), actual.nextLong(1000));
+                break;
+            case 6:
+                assertEquals(expected.nextLong(-7, Long.MAX_VALUE),
+                        actual.nextLong(-7, Long.MAX_VALUE));
+                break;
+            case 7:
+                assertEquals(expected.nextGaussian(), actual.nextGaussian(),
+                        0.0);
+                break;
+            case 8:
+                assertEquals(expected.nextExponential(),
+                        actual.nextExponential(), 0.0);
+                break;
+            case 9:
+                byte[] e = new byte[7];
+                byte[] a = new byte[7];
+                expected.nextBytes(e);
+                actual.nextBytes(a);
+                assertArrayEquals(e, a);
+                assertEquals(expected.nextBoolean(), actual.nextBoolean());
+                break;
+            default:
+                assertEquals(expected.nextFloat(), actual.nextFloat(), 0.0f);
+                break;
+            }
+        }
+    }
+
+    @Test
+    public void testTinyMT32() {
+        TinyMT32 tiny = TinyMT32.getDefault(1234);
+        tiny.nextInt();
+        int[] status = tiny.getStatus();
+        RandomGenerator specialized = SpecializedTinyMT.of(tiny);
+        assertArrayEquals(status, tiny.getStatus());
+        assertSameSequence(tiny, specialized);
+    }
+
+    @Test
+    public void testTinyMT64() {
+        TinyMT64 tiny = TinyMT64.getDefault(1234);
+        tiny.nextLong();
+        RandomGenerator specialized = SpecializedTinyMT.of(tiny);
+        assertSameSequence(tiny, specialized);
+    }
+
+    @Test
+    public void testParameters() throws IOException {
+        TinyMT32[] tiny = TinyMT32.getTinyMTArray(3, 1);
+        RandomGenerator[] specialized = new RandomGenerator[tiny.length];
+        for (int i = 0; i < tiny.length; i++) {
+            specialized[i] = SpecializedTinyMT.of(tiny[i]);
+            assertTrue(specialized[i].getClass().isHidden());
+        }
+        assertNotSame(specialized[0].getClass(), specialized[1].getClass());
+        assertNotSame(specialized[1].getClass(), specialized[2].getClass());
+        int count = SpecializedTinyMT.classCount();
+        RandomGenerator again = SpecializedTinyMT.of(tiny[1]);
+        assertSame(specialized[1].getClass(), again.getClass());
+        assertEquals(count, SpecializedTinyMT.classCount());
+        for (int i = 0; i < tiny.length; i++) {
+            assertSameSequence(tiny[i], specialized[i]);
+        }
+    }
+
+    @Test
+    public void testSameMatDifferentTmat() throws IOException {
+        // same mat1 and mat2 as the default parameter, so same
+        // characteristic polynomial, but different tmat
+        ParameterTable table = ParameterTable.parse(new StringReader(
+                "d8524022ed8dff4a8dcc50c798faba43,32,0,8f7011ee,fc78ff1f,"
+                + "3793fdff,63,0\n"
+                + "d8524022ed8dff4a8dcc50c798faba43,32,0,8f7011ee,fc78ff1f,"
+                + "12345678,63,0\n"));
+        TinyMT32[] tiny = TinyMT32.getTinyMTArray(table, 0, 2, 1);
+        RandomGenerator first = SpecializedTinyMT.of(tiny[0]);
+        RandomGenerator second = SpecializedTinyMT.of(tiny[1]);
+        assertNotSame(first.getClass(), second.getClass());
+        assertSameSequence(tiny[0], first);
+        assertSameSequence(tiny[1], second);
+    }
+
+    @Test
+    public void testBounded() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int rows = SpecializedTinyMT.MAX_CLASSES + 10;
+        for (int i = 0; i < rows; i++) {
+            sb.append("945e0ad4a30ec19432dfa9d5959e5d5d,64,0,fa051f40,"
+                    + "ffd0fff4,").append(String.format("%016x", i + 1))
+                    .append(",65,0\n");
+        }
+        ParameterTable table = ParameterTable.parse(
+                new StringReader(sb.toString()));
+        TinyMT64[] tiny = TinyMT64.getTinyMTArray(table, 0, rows, 1);
+        for (int i = 0; i < rows; i++) {
+            RandomGenerator specialized = SpecializedTinyMT.of(tiny[i]);
+            assertEquals(tiny[i].nextLong(), specialized.nextLong());
+        }
+        assertTrue(SpecializedTinyMT.classCount()
+                <= SpecializedTinyMT.MAX_CLASSES);
+    }
+}
@@ -0,0 +1,114 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class StripedRandomTest {
+
+    @Test
+    public void testCurrent() {
+        StripedRandom random = StripedRandom.current();
+        assertSame(random, StripedRandom.current());
+        assertTrue(random.stripes() >= 16);
+        assertEquals(0, random.stripes() & (random.stripes() - 1));
+        for (int i = 0; i < 1000; i++) {
+            int x = random.nextInt(-3, 3);
+            assertTrue(-3 <= x && x < 3);
+            double d = random.nextDouble();
+            assertTrue(0 <= d && d < 1.0);
+        }
+        int[] array = random.apply(g -> {
+            int[] a = new int[100];
+            g.nextInts(a);
+            return a;
+        });
+        assertEquals(100, array.length);
+    }
+
+    @Test
+    public void testRelease() {
+        StripedRandom random = StripedRandom.current();
+        for (int i = 0; i < random.stripes() * 2; i++) {
+            try {
+                random.nextInt(0);
+                fail();
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        random.nextInt();
+    }
+
+    @Test
+    public void testThreads() throws Exception {
+        final int threads = 8;
+        final int count = 50000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Future<?>[] futures = new Future<?>[threads * 4];
+            for (int t = 0; t < futures.length; t++) {
+                futures[t] = executor.submit(() -> {
+                    long[] a = new long[count];
+                    for (int i = 0; i < count; i++) {
+                        a[i] = StripedRandom.current().nextLong();
+                    }
+                    return a;
+                });
+            }
+            Set<Long> all = new HashSet<Long>();
+            for (Future<?> f : futures) {
+                for (long x : (long[]) f.get()) {
+                    all.add(x);
+                }
+            }
+            assertEquals(futures.length * count, all.size());
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    @Test
+    public void testAllBorrowed() throws Exception {
+        final StripedRandom random = StripedRandom.current();
+        final int stripes = random.stripes();
+        final CountDownLatch borrowed = new CountDownLatch(stripes);
+        final CountDownLatch done = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(stripes + 1);
+        try {
+            // every stripe is held by a thread blocked in apply
+            for (int t = 0; t < stripes; t++) {
+                executor.submit(() -> random.apply(g -> {
+                    borrowed.countDown();
+                    try {
+                        done.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return g.nextInt();
+                }));
+            }
+            borrowed.await();
+            Future<Integer> waiting = executor.submit(() -> random.nextInt());
+            Thread.sleep(50);
+            assertTrue(!waiting.isDone());
+            done.countDown();
+            waiting.get(1, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package jp.ac.hiroshima_u.sci.math.saito.tinymt;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
@@ -70,16 +71,16 @@ public class TinyMT32ParameterTest {
 	@Test
 	public void testGetParameters() throws IOException {
 		TinyMT32Parameter[] p = TinyMT32Parameter.getParameters(2);
-		//8ee476cb10b7c7e20dd10725924e9877,32,0,877810ef,fc38ff0f,c7fb7fff,63,0
-		//8331a00cb24d95a8e116e35435103213,32,0,837c106f,fc18ff07,eeb9bdff,51,0
+		//e558930f6ddacc99b3c2240c1e3d63bb,32,0,aa873c28,90f271a3,fd77fcff,65,0
+		//da1e8667fa201d57454af2a5e60d5795,32,0,85b0dc90,60cca3c9,2ffaf7ff,65,0
 		F2Polynomial[] pol = new F2Polynomial[]{
-				new F2Polynomial("8ee476cb10b7c7e20dd10725924e9877", 16),
-				new F2Polynomial("8331a00cb24d95a8e116e35435103213", 16)};
+				new F2Polynomial("e558930f6ddacc99b3c2240c1e3d63bb", 16),
+				new F2Polynomial("da1e8667fa201d57454af2a5e60d5795", 16)};
 		int[] id = {0, 0};
-		int[] mat1 = {0x877810ef, 0x837c106f};
-		int[] mat2 = {0xfc38ff0f, 0xfc18ff07};
-		int[] tmat = {0xc7fb7fff, 0xeeb9bdff};
-		int[] weight = {63, 51};
+		int[] mat1 = {0xaa873c28, 0x85b0dc90};
+		int[] mat2 = {0x90f271a3, 0x60cca3c9};
+		int[] tmat = {0xfd77fcff, 0x2ffaf7ff};
+		int[] weight = {65, 65};
 		int[] delta = {0, 0};
 		for (int i = 0; i < 2; i++) {
 			assertEquals(pol[i], p[i].getCharacteristic());
@@ -95,17 +96,17 @@ public class TinyMT32ParameterTest {
     @Test
     public void testGetParametersStartCount() throws IOException {
         TinyMT32Parameter[] p = TinyMT32Parameter.getParameters(2, 2);
-        //bc8ca81cb620b9610108b0fa2036f9ef,32,0,718e0e31,fb88fee3,11dbffff,57,0
-        //97d57e00bc69e5ca2b9a5041d979eaff,32,0,50af0a15,fa80fea1,9ddc99ff,69,1
+        //d757fb8711195979d9db97adbf563cfd,32,0,4641a668,3cc0e319,f7fbafff,79,0
+        //c6b8b56e929ad25c7d228ba856737c3d,32,0,bdf7e1ec,94c628d9,f57eb77d,67,0
         F2Polynomial[] pol = new F2Polynomial[]{
-                new F2Polynomial("bc8ca81cb620b9610108b0fa2036f9ef", 16),
-                new F2Polynomial("97d57e00bc69e5ca2b9a5041d979eaff", 16)};
+                new F2Polynomial("d757fb8711195979d9db97adbf563cfd", 16),
+                new F2Polynomial("c6b8b56e929ad25c7d228ba856737c3d", 16)};
         int[] id = {0, 0};
-        int[] mat1 = {0x718e0e31, 0x50af0a15};
-        int[] mat2 = {0xfb88fee3, 0xfa80fea1};
-        int[] tmat = {0x11dbffff, 0x9ddc99ff};
-        int[] weight = {57, 69};
-        int[] delta = {0, 1};
+        int[] mat1 = {0x4641a668, 0xbdf7e1ec};
+        int[] mat2 = {0x3cc0e319, 0x94c628d9};
+        int[] tmat = {0xf7fbafff, 0xf57eb77d};
+        int[] weight = {79, 67};
+        int[] delta = {0, 0};
         for (int i = 0; i < 2; i++) {
             assertEquals(pol[i], p[i].getCharacteristic());
             assertEquals(id[i], p[i].getId());
@@ -117,6 +118,18 @@ public class TinyMT32ParameterTest {
         }
     }
     
+    @Test
+    public void testGetParametersNotThreadLocal() throws IOException {
+        TinyMT32Parameter[] p = TinyMT32Parameter.getParameters(16);
+        for (int i = 0; i < p.length; i++) {
+            assertEquals(0, p[i].getId());
+            for (int j = 0; j < 16; j++) {
+                assertNotEquals(TinyMT32Parameter.getThreadLocalParameter(j)
+                        .getCharacteristic(), p[i].getCharacteristic());
+            }
+        }
+    }
+
     @Test
     public void testGetParametersStartCountOver() throws IOException {
         TinyMT32Parameter[] tiny =  TinyMT32Parameter.getParameters(65537, 2);
@@ -1,7 +1,22 @@
 package jp.ac.hiroshima_u.sci.math.saito.tinymt;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InvalidObjectException;
 import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import junit.framework.TestCase;
 
@@ -110,6 +125,36 @@ public class TinyMT32Test extends TestCase {
     @Test
     public void testGetTinyMTArray() throws IOException {
         TinyMT32[] tiny = TinyMT32.getTinyMTArray(3, 1);
+        int[][] c_data = {
+                { 0x2f4fa6cc, 0x919a39fb, 0x99c38395, 0xb954d355, 0xac212930,
+                        0x093110d2, 0xe28101f0, 0x0644a3ce, 0x9edefc80,
+                        0x99f85421 },
+                { 0x84b2654f, 0xe4777d5c, 0xaf6d7d18, 0xf8d6955e, 0x40fffea7,
+                        0x6559c33a, 0xa5f66c29, 0xf71c39c1, 0x5674cb98,
+                        0x3adb9d5e },
+                { 0xd4046958, 0xcdb1a276, 0x6e2380b7, 0x17bb196d, 0x062c996b,
+                        0xa380d041, 0xe2e79bec, 0x1d07ab78, 0xe8769f82,
+                        0x6955b721 }, };
+        int[] output = new int[10];
+        for (int i = 0; i < c_data.length; i++) {
+            for (int j = 0; j < output.length; j++) {
+                output[j] = tiny[i].nextInt();
+            }
+            assertTrue("line:" + i, Arrays.equals(output, c_data[i]));
+        }
+    }
+
+    public void testGetTinyMTArrayCTable() throws IOException {
+        // rows of tinymt32dc.0.65536.txt made by the C TinyMTDC, and the
+        // outputs of the C TinyMT32 from them with seed 1
+        ParameterTable table = ParameterTable.parse(new StringReader(
+                "8ee476cb10b7c7e20dd10725924e9877,32,0,877810ef,fc38ff0f,"
+                + "c7fb7fff,63,0\n"
+                + "8331a00cb24d95a8e116e35435103213,32,0,837c106f,fc18ff07,"
+                + "eeb9bdff,51,0\n"
+                + "bc8ca81cb620b9610108b0fa2036f9ef,32,0,718e0e31,fb88fee3,"
+                + "11dbffff,57,0\n"));
+        TinyMT32[] tiny = TinyMT32.getTinyMTArray(table, 0, 3, 1);
         int[][] c_data = {
                 { 0xcaa912db, 0xa4f185e2, 0xf539b757, 0x3791a9b8, 0xb03509bf,
                         0x88a4100e, 0xd1072c63, 0x05a3c8e2, 0x89f1f44f,
@@ -222,4 +267,433 @@ public class TinyMT32Test extends TestCase {
 //        assertEquals(65535, tiny.length);
 //    }
 
+    @Test
+    public void testNextInts() {
+        TinyMT32 tiny = TinyMT32.getDefault(1);
+        TinyMT32 tiny2 = TinyMT32.getDefault(1);
+        int[] output = new int[100];
+        tiny2.nextInts(output, 3, 90);
+        for (int i = 0; i < output.length; i++) {
+            if (i < 3 || i >= 93) {
+                assertEquals(0, output[i]);
+            } else {
+                assertEquals("i:" + i, tiny.nextInt(), output[i]);
+            }
+        }
+        assertEquals(tiny.nextInt(), tiny2.nextInt());
+    }
+
+    @Test
+    public void testNextLongs() {
+        TinyMT32 tiny = TinyMT32.getDefault(1);
+        TinyMT32 tiny2 = TinyMT32.getDefault(1);
+        long[] output = new long[100];
+        tiny2.nextLongs(output);
+        for (int i = 0; i < output.length; i++) {
+            assertEquals("i:" + i, tiny.nextLong(), output[i]);
+        }
+        assertEquals(tiny.nextInt(), tiny2.nextInt());
+    }
+
+    @Test
+    public void testNextDoubles() {
+        TinyMT32 tiny = TinyMT32.getDefault(1);
+        TinyMT32 tiny2 = TinyMT32.getDefault(1);
+        double[] output = new double[100];
+        tiny2.nextDoubles(output);
+        for (int i = 0; i < output.length; i++) {
+            assertEquals("i:" + i, tiny.nextDouble(), output[i], 0.0);
+        }
+        assertEquals(tiny.nextInt(), tiny2.nextInt());
+    }
+
+    @Test
+    public void testNextIntsRange() {
+        TinyMT32 tiny = TinyMT32.getDefault(1);
+        try {
+            tiny.nextInts(new int[10], 5, 6);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testGetJumped() {
+        TinyMT32 tiny = TinyMT32.getDefault(1);
+        TinyMT32 jumped = tiny.getJumped(1000);
+        TinyMT32 jumped2 = tiny.getJumped(new BigInteger("1000"));
+        for (int i = 0; i < 1000; i++) {
+            tiny.nextInt();
+        }
+        for (int i = 0; i < 10; i++) {
+            int expected = tiny.nextInt();
+            assertEquals(expected, jumped.nextInt());
+            assertEquals(expected, jumped2.nextInt());
+        }
+    }
+
+    @Test
+    public void testGetJumpedLarge() {
+        TinyMT32[] tiny = TinyMT32.getDefaultArray(2, 1L, 3L);
+        TinyMT32 jumped = TinyMT32.getDefault(1).getJumped(
+                BigInteger.ONE.shiftLeft(64).multiply(
+                        new BigInteger("3")));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(tiny[1].nextInt(), jumped.nextInt());
+        }
+    }
+
+    @Test
+    public void testAdvance() {
+        TinyMT32 tiny = TinyMT32.getDefault(1);
+        TinyMT32 tiny2 = TinyMT32.getDefault(1);
+        int[] output = new int[300];
+        for (int i = 0; i < output.length; i++) {
+            output[i] = tiny.nextInt();
+        }
+        tiny2.advance(123L);
+        assertEquals(output[123], tiny2.nextInt());
+        tiny2.advance(new BigInteger("100"));
+        assertEquals(output[224], tiny2.nextInt());
+        tiny2.advance(-200L);
+        assertEquals(output[25], tiny2.nextInt());
+        tiny2.advance(0);
+        assertEquals(output[26], tiny2.nextInt());
+    }
+
+    public void testCopyAndJump() {
+        TinyMT32 tiny = TinyMT32.getDefault(1);
+        TinyMT32 copy = tiny.copy();
+        assertEquals(tiny.nextInt(), copy.nextInt());
+        TinyMT32 before = tiny.copyAndJump();
+        assertEquals(copy.nextInt(), before.nextInt());
+        TinyMT32 expected = TinyMT32.getDefault(1);
+        expected.advance(BigInteger.ONE.shiftLeft(64).add(BigInteger.ONE));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(expected.nextInt(), tiny.nextInt());
+        }
+        assertEquals(0x1.0p64, tiny.jumpDistance(), 0.0);
+    }
+
+    public void testCopyAndLeap() {
+        TinyMT32 tiny = new TinyMT32(1);
+        TinyMT32 expected = tiny.getJumped(BigInteger.ONE.shiftLeft(96));
+        TinyMT32 before = tiny.copyAndLeap();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(expected.nextInt(), tiny.nextInt());
+        }
+        assertEquals(TinyMT32.getDefault(1).nextInt(), before.nextInt());
+        assertEquals(0x1.0p96, tiny.leapDistance(), 0.0);
+    }
+
+    public void testRandomGeneratorFactory() {
+        RandomGenerator rg = RandomGeneratorFactory.of("TinyMT32").create(1L);
+        TinyMT32 tiny = TinyMT32.getDefault(1);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(tiny.nextInt(), rg.nextInt());
+        }
+    }
+
+    public void testStreams() {
+        TinyMT32 tiny = TinyMT32.getDefault(1);
+        TinyMT32 expected = TinyMT32.getDefault(1);
+        int[] array = tiny.ints(100).toArray();
+        assertEquals(100, array.length);
+        for (int i = 0; i < array.length; i++) {
+            assertEquals(expected.nextInt(), array[i]);
+        }
+        assertEquals(expected.nextDouble(), tiny.doubles().findFirst()
+                .getAsDouble(), 0.0);
+        assertTrue(tiny.ints(1000, -5, 5).allMatch(x -> -5 <= x && x < 5));
+        double[] parallel1 = TinyMT32.getDefault(2).doubles(10000, 1.0, 2.0)
+                .parallel().toArray();
+        double[] parallel2 = TinyMT32.getDefault(2).doubles(10000, 1.0, 2.0)
+                .parallel().toArray();
+        assertTrue(Arrays.equals(parallel1, parallel2));
+        for (double d : parallel1) {
+            assertTrue(1.0 <= d && d < 2.0);
+        }
+        assertEquals(10000, Arrays.stream(parallel1).distinct().count());
+    }
+
+    public void testGetTinyMTArrayTable() throws IOException {
+        ParameterTable table = ParameterTable.load(
+                new String[] {"tinymt32dc.1.1024.txt" }, "none");
+        TinyMT32[] tiny = TinyMT32.getTinyMTArray(table, 1, 3, 1);
+        assertEquals(3, tiny.length);
+        for (int i = 0; i < tiny.length; i++) {
+            TinyMT32 expected = TinyMT32.getThreadLlocal(i + 1);
+            expected.setSeed(1);
+            for (int j = 0; j < 10; j++) {
+                assertEquals(expected.nextInt(), tiny[i].nextInt());
+            }
+        }
+        assertEquals(2, TinyMT32.getTinyMTArray(table, 1022, 3, 1).length);
+    }
+
+    public void testNextBytesBuffer() {
+        ByteOrder[] orders = { ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN };
+        for (ByteOrder order : orders) {
+            for (int extra = 0; extra < 4; extra++) {
+                TinyMT32 tiny = TinyMT32.getDefault(1);
+                TinyMT32 expected = TinyMT32.getDefault(1);
+                ByteBuffer buffer = ByteBuffer.allocateDirect(
+                        1 + 10 * 4 + extra);
+                buffer.put((byte) 0).order(order);
+                tiny.nextBytes(buffer);
+                assertFalse(buffer.hasRemaining());
+                buffer.position(1);
+                for (int i = 0; i < 10; i++) {
+                    assertEquals(expected.nextInt(), buffer.getInt());
+                }
+                if (extra > 0) {
+                    ByteBuffer last = ByteBuffer.allocate(4).order(order);
+                    last.putInt(expected.nextInt());
+                    for (int i = 0; i < extra; i++) {
+                        assertEquals(last.get(i), buffer.get());
+                    }
+                }
+                assertEquals(expected.nextInt(), tiny.nextInt());
+            }
+        }
+    }
+
+    @Test
+    public void testBoundedInt() {
+        TinyMT32 tiny = TinyMT32.getDefault(1);
+        TinyMT32 expected = TinyMT32.getDefault(1);
+        int[] bounds = {1, 2, 3, 1000, 1 << 30, Integer.MAX_VALUE };
+        for (int bound : bounds) {
+            for (int i = 0; i < 100; i++) {
+                long r = expected.nextInt() & 0xffffffffL;
+                assertEquals((int) ((r * bound) >>> 32), tiny.nextInt(bound));
+            }
+        }
+        for (int i = 0; i < 100; i++) {
+            long r = expected.nextInt() & 0xffffffffL;
+            assertEquals(-5 + (int) ((r * 10) >>> 32), tiny.nextInt(-5, 5));
+            r = expected.nextInt() & 0xffffffffL;
+            assertEquals(Integer.MIN_VALUE + (int) ((r * 0xffffffffL) >>> 32),
+                    tiny.nextInt(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        }
+        int[] count = new int[3];
+        for (int i = 0; i < 30000; i++) {
+            count[tiny.nextInt(3)]++;
+        }
+        for (int c : count) {
+            assertTrue(9500 < c && c < 10500);
+        }
+        try {
+            tiny.nextInt(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            tiny.nextInt(5, 5);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testBoundedLong() {
+        TinyMT32 tiny = TinyMT32.getDefault(1);
+        TinyMT32 expected = TinyMT32.getDefault(1);
+        BigInteger two64 = BigInteger.ONE.shiftLeft(64);
+        long[] bounds = {1, 3, 1000, 1L << 40, Long.MAX_VALUE };
+        for (long bound : bounds) {
+            for (int i = 0; i < 100; i++) {
+                BigInteger r = BigInteger.valueOf(expected.nextLong())
+                        .mod(two64);
+                assertEquals(r.multiply(BigInteger.valueOf(bound))
+                        .shiftRight(64).longValue(), tiny.nextLong(bound));
+            }
+        }
+        BigInteger range = BigInteger.valueOf(Long.MAX_VALUE)
+                .subtract(BigInteger.valueOf(Long.MIN_VALUE));
+        for (int i = 0; i < 100; i++) {
+            BigInteger r = BigInteger.valueOf(expected.nextLong()).mod(two64);
+            assertEquals(Long.MIN_VALUE + r.multiply(range).shiftRight(64)
+                    .longValue(),
+                    tiny.nextLong(Long.MIN_VALUE, Long.MAX_VALUE));
+        }
+        try {
+            tiny.nextLong(-1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testBoundedInts() {
+        TinyMT32 tiny = TinyMT32.getDefault(1);
+        TinyMT32 expected = TinyMT32.getDefault(1);
+        int[] array = new int[102];
+        int[] bounds = {1, 7, 100000, Integer.MAX_VALUE };
+        for (int bound : bounds) {
+            tiny.nextInts(array, 1, 100, bound);
+            for (int i = 0; i < 100; i++) {
+                assertEquals(expected.nextInt(bound), array[1 + i]);
+            }
+        }
+        assertEquals(0, array[0]);
+        assertEquals(0, array[101]);
+        assertEquals(expected.nextInt(), tiny.nextInt());
+    }
+
+    @Test
+    public void testSplit() {
+        TinyMT32 tiny = TinyMT32.getDefault(1);
+        TinyMT32 expected = TinyMT32.getDefault(1);
+        BigInteger jump = BigInteger.ONE.shiftLeft(125);
+        TinyMT32 child1 = tiny.split();
+        TinyMT32 child2 = tiny.split();
+        TinyMT32 grandchild = child1.split();
+        TinyMT32[] jumped = {expected.getJumped(jump),
+                expected.getJumped(jump.shiftRight(1)),
+                expected.getJumped(jump.add(jump.shiftRight(1))) };
+        TinyMT32[] split = {child1, child2, grandchild };
+        for (int i = 0; i < split.length; i++) {
+            for (int j = 0; j < 10; j++) {
+                assertEquals(jumped[i].nextInt(), split[i].nextInt());
+            }
+        }
+        for (int j = 0; j < 10; j++) {
+            assertEquals(expected.nextInt(), tiny.nextInt());
+        }
+        TinyMT32 again = TinyMT32.getDefault(1);
+        again.split();
+        assertEquals(TinyMT32.getDefault(1).getJumped(jump.shiftRight(1))
+                .nextInt(), again.split().nextInt());
+    }
+
+    @Test
+    public void testSplitLevels() {
+        TinyMT32 tiny = TinyMT32.getDefault(1);
+        Set<Long> first = new HashSet<Long>();
+        for (int i = 0; i < 100; i++) {
+            first.add(tiny.split().nextLong());
+        }
+        assertEquals(100, first.size());
+        // splits after 62 levels use nextLong() of the parent
+        TinyMT32 expected = TinyMT32.getDefault(1);
+        for (int i = 62; i < 100; i++) {
+            expected.nextLong();
+        }
+        assertEquals(expected.nextLong(), tiny.nextLong());
+        TinyMT32 source = TinyMT32.getDefault(2);
+        TinyMT32 other = TinyMT32.getDefault(1).split(source);
+        assertTrue(other.nextLong() != TinyMT32.getDefault(1).nextLong());
+        TinyMT32 sourceExpected = TinyMT32.getDefault(2);
+        sourceExpected.nextLong();
+        assertEquals(sourceExpected.nextLong(), source.nextLong());
+    }
+
+    @Test
+    public void testSplits() {
+        List<Long> sequential = TinyMT32.getDefault(1).splits(1000)
+                .map(g -> g.nextLong()).collect(Collectors.toList());
+        assertEquals(1000, new HashSet<Long>(sequential).size());
+        List<Long> parallel = TinyMT32.getDefault(1).splits(1000).parallel()
+                .map(g -> g.nextLong()).collect(Collectors.toList());
+        assertEquals(1000, new HashSet<Long>(parallel).size());
+        assertTrue(RandomGeneratorFactory.of("TinyMT32").isSplittable());
+        assertEquals(10, TinyMT32.getDefault(1).rngs(10).count());
+    }
+
+    @Test
+    public void testSaveState() {
+        TinyMT32 tiny = TinyMT32.getDefault(1);
+        tiny.nextLong();
+        tiny.split();
+        long[] state = tiny.saveState();
+        assertEquals(TinyMT32.STATE_LONGS, state.length);
+        ByteBuffer buffer = ByteBuffer.allocate(TinyMT32.STATE_BYTES + 1);
+        tiny.saveState(buffer);
+        assertEquals(TinyMT32.STATE_BYTES, buffer.position());
+        long expected = tiny.nextLong();
+        TinyMT32 child = tiny.split();
+        TinyMT32 restored = TinyMT32.getDefault(2);
+        restored.restoreState(state);
+        assertEquals(expected, restored.nextLong());
+        assertEquals(child.nextLong(), restored.split().nextLong());
+        restored.setSeed(3);
+        buffer.flip();
+        restored.restoreState(buffer);
+        assertEquals(expected, restored.nextLong());
+        long[] other = state.clone();
+        other[2] ^= 2;
+        try {
+            restored.restoreState(other);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        other = state.clone();
+        other[0] = 0;
+        other[1] = 0;
+        try {
+            restored.restoreState(other);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            restored.restoreState(ByteBuffer.allocate(TinyMT32.STATE_BYTES - 1));
+            fail();
+        } catch (java.nio.BufferUnderflowException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testSerialize() throws Exception {
+        TinyMT32 tiny = TinyMT32.getDefault(1);
+        tiny.nextLong();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(tiny);
+        }
+        TinyMT32 restored;
+        try (ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()))) {
+            restored = (TinyMT32) in.readObject();
+        }
+        assertTrue(Arrays.equals(tiny.saveState(), restored.saveState()));
+        assertEquals(tiny.getId(), restored.getId());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(tiny.nextLong(), restored.nextLong());
+        }
+    }
+
+    @Test
+    public void testSerializeTampered() throws Exception {
+        TinyMT32 tiny = TinyMT32.getDefault(1);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(tiny);
+        }
+        // flip the lowest bit of mat1 in the stream
+        byte[] stream = bytes.toByteArray();
+        ByteBuffer buffer = ByteBuffer.wrap(stream);
+        int index = -1;
+        for (int i = 0; i + 4 <= stream.length; i++) {
+            if (buffer.getInt(i) == 0x8f7011ee) {
+                index = i;
+            }
+        }
+        assertTrue(index >= 0);
+        stream[index + 3] ^= 1;
+        try (ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(stream))) {
+            in.readObject();
+            fail();
+        } catch (InvalidObjectException e) {
+            // expected
+        }
+    }
 }
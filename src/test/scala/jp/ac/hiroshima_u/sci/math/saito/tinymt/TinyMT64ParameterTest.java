@@ -39,16 +39,16 @@ public class TinyMT64ParameterTest {
     @Test
     public void testGetParameters() throws IOException {
         TinyMT64Parameter[] p = TinyMT64Parameter.getParameters(2);
-        //c8a646f09f334156a307970051b83461,64,0,daa51b54,fed47fb5,a853e7ffeffefffe,55,0
-        //c6d63a1d259b079d5c056853ebd36cb7,64,0,c0bf1817,fe047f81,7fc75ff6ffffffbc,67,0
+        //aa28f2d9993419db45067fc494d665c5,64,0,130b50f8,04ff8bdc,fb7ffffffffffffe,63,0
+        //863e6aec3e8c5398b491350f1a3e2013,64,0,2673e467,71661d1a,ceffbfffffbffffe,59,0
         F2Polynomial[] pol = new F2Polynomial[]{
-                new F2Polynomial("c8a646f09f334156a307970051b83461", 16),
-                new F2Polynomial("c6d63a1d259b079d5c056853ebd36cb7", 16)};
+                new F2Polynomial("aa28f2d9993419db45067fc494d665c5", 16),
+                new F2Polynomial("863e6aec3e8c5398b491350f1a3e2013", 16)};
         int[] id = {0, 0};
-        long[] mat1 = {0xdaa51b54L, 0xc0bf1817L};
-        long[] mat2 = {0xfed47fb5L, 0xfe047f81L};
-        long[] tmat = {0xa853e7ffeffefffeL, 0x7fc75ff6ffffffbcL};
-        int[] weight = {55, 67};
+        long[] mat1 = {0x130b50f8L, 0x2673e467L};
+        long[] mat2 = {0x04ff8bdcL, 0x71661d1aL};
+        long[] tmat = {0xfb7ffffffffffffeL, 0xceffbfffffbffffeL};
+        int[] weight = {63, 59};
         int[] delta = {0, 0};
         for (int i = 0; i < 2; i++) {
             assertEquals(pol[i], p[i].getCharacteristic());
@@ -64,16 +64,16 @@ public class TinyMT64ParameterTest {
     @Test
     public void testGetParametersStartCount() throws IOException {
         TinyMT64Parameter[] p = TinyMT64Parameter.getParameters(2, 2);
-        //9f0678a5b7b90af5e7cb430d1e7c272b,64,0,c03f1807,fe00ff80,14727d7fff7f7ffe,69,0
-        //c488d75651a5baac842c1dae4f85e6f7,64,0,443b0887,fa247e89,f0d0e77bef7fdffa,65,0
+        //8a13435b2e1aa5c97968043fe58ce423,64,0,4850f33d,cb61202e,7e7be7ffffbffff6,59,0
+        //f3ee06e727ea9cd6d227cf2f6e5edfbf,64,0,a61fa349,dfbd4b65,c7ff26fffefffff6,81,0
         F2Polynomial[] pol = new F2Polynomial[]{
-                new F2Polynomial("9f0678a5b7b90af5e7cb430d1e7c272b", 16),
-                new F2Polynomial("c488d75651a5baac842c1dae4f85e6f7", 16)};
+                new F2Polynomial("8a13435b2e1aa5c97968043fe58ce423", 16),
+                new F2Polynomial("f3ee06e727ea9cd6d227cf2f6e5edfbf", 16)};
         int[] id = {0, 0};
-        long[] mat1 = {0xc03f1807L, 0x443b0887L};
-        long[] mat2 = {0xfe00ff80L, 0xfa247e89L};
-        long[] tmat = {0x14727d7fff7f7ffeL, 0xf0d0e77bef7fdffaL};
-        int[] weight = {69, 65};
+        long[] mat1 = {0x4850f33dL, 0xa61fa349L};
+        long[] mat2 = {0xcb61202eL, 0xdfbd4b65L};
+        long[] tmat = {0x7e7be7ffffbffff6L, 0xc7ff26fffefffff6L};
+        int[] weight = {59, 81};
         int[] delta = {0, 0};
         for (int i = 0; i < 2; i++) {
             assertEquals(pol[i], p[i].getCharacteristic());
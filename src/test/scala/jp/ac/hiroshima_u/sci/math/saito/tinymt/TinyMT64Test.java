@@ -2,8 +2,23 @@ package jp.ac.hiroshima_u.sci.math.saito.tinymt;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InvalidObjectException;
 import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.junit.Test;
 
@@ -127,21 +142,21 @@ public class TinyMT64Test {
     public void testGetTinyMTArray() throws IOException {
         TinyMT64[] tiny = TinyMT64.getTinyMTArray(3, 1);
         long[][] c_data = {
-                { 0x6fcd21fba3f6fb57L, 0xea60c3bb3d026591L, 
-                  0xb5cabe6a77d72ce7L, 0x582ed743750b72d6L, 
-                  0x14806cf8429f6de8L, 0x492799f0225d8ccaL, 
-                  0x43766e8c99eb7660L, 0xd11af09580830601L, 
-                  0x6f112a2830d5da5bL, 0x1736965121ab4540L},
-                { 0xf6a173715a0a8789L, 0x5a106ea7fdb897f9L, 
-                  0xe9547e119fb93c5fL, 0x366d85ae7ada861bL, 
-                  0x8558e7e21f552d0aL, 0x941d0dca5e86b65dL, 
-                  0xdcdee576166da1a0L, 0x7d5eb3bab44d9b9dL, 
-                  0x8f123facd7c27d66L, 0xbe170ac3a1799707L},
-                { 0xe8b7f4d2b4ad997cL, 0x099edf7b774353d1L, 
-                  0xd565ebadb00a07d7L, 0x6f836bdec50af268L, 
-                  0x6cb78bec1d66bed5L, 0x7f6efc2e687ce4efL, 
-                  0xe35cda577f0279fdL, 0x7aff1333c6b3bddcL, 
-                  0x513f719e5c79071eL, 0xeabd98dbbe2b164bL}};
+                { 0x57af62852e8723b5L, 0x657e624bc8f4a211L, 
+                  0xcec9006a5f85e6a3L, 0x5315a3598bc68bd0L, 
+                  0x6951436ea61cc6aaL, 0xe6f6465cae2165daL, 
+                  0xe142041d893f57ccL, 0xe7231bd94ebc4420L, 
+                  0x51bbb45c94820134L, 0x6ef7eb94742d6b9cL},
+                { 0xb0100603c437ac3aL, 0xf49fe8303db4fbfbL, 
+                  0x5cb24ccbf2302d90L, 0xff58a43bb665d61dL, 
+                  0xea5371737224747fL, 0xa494168522a3f93aL, 
+                  0x0546277a00ba67aaL, 0x34b6b6658e728d6aL, 
+                  0x3c0e50d82fa89093L, 0x6031662471beba35L},
+                { 0xa79f730e2af4f900L, 0xceaa8bafbfe38712L, 
+                  0x0f3a2d971891882fL, 0xec28731d1998456aL, 
+                  0xacc44e9a3d9a3e5aL, 0x5f8a146a801be5faL, 
+                  0xae93df197f486383L, 0xd19c31c18289d6dfL, 
+                  0x45a1bd152fb22228L, 0x0135d3f3c434e034L}};
         long[] output = new long[10];
         for (int i = 0; i < c_data.length; i++) {
             for (int j = 0; j < output.length; j++) {
@@ -250,4 +265,479 @@ public class TinyMT64Test {
             assertEquals(c_data[i], tiny.nextInt());
         }
     }
+
+    @Test
+    public void testNextInts() {
+        TinyMT64 tiny = TinyMT64.getDefault(1);
+        TinyMT64 tiny2 = TinyMT64.getDefault(1);
+        int[] output = new int[100];
+        tiny2.nextInts(output, 3, 90);
+        for (int i = 0; i < output.length; i++) {
+            if (i < 3 || i >= 93) {
+                assertEquals(0, output[i]);
+            } else {
+                assertEquals("i:" + i, tiny.nextInt(), output[i]);
+            }
+        }
+        assertEquals(tiny.nextInt(), tiny2.nextInt());
+    }
+
+    @Test
+    public void testNextLongs() {
+        TinyMT64 tiny = TinyMT64.getDefault(1);
+        TinyMT64 tiny2 = TinyMT64.getDefault(1);
+        long[] output = new long[100];
+        tiny2.nextLongs(output);
+        for (int i = 0; i < output.length; i++) {
+            assertEquals("i:" + i, tiny.nextLong(), output[i]);
+        }
+        assertEquals(tiny.nextInt(), tiny2.nextInt());
+    }
+
+    @Test
+    public void testNextDoubles() {
+        TinyMT64 tiny = TinyMT64.getDefault(1);
+        TinyMT64 tiny2 = TinyMT64.getDefault(1);
+        double[] output = new double[100];
+        tiny2.nextDoubles(output);
+        for (int i = 0; i < output.length; i++) {
+            assertEquals("i:" + i, tiny.nextDouble(), output[i], 0.0);
+        }
+        assertEquals(tiny.nextInt(), tiny2.nextInt());
+    }
+
+    @Test
+    public void testNextIntsRange() {
+        TinyMT64 tiny = TinyMT64.getDefault(1);
+        try {
+            tiny.nextInts(new int[10], 5, 6);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testGetJumped() {
+        TinyMT64 tiny = TinyMT64.getDefault(1);
+        TinyMT64 jumped = tiny.getJumped(1000);
+        TinyMT64 jumped2 = tiny.getJumped(new BigInteger("1000"));
+        for (int i = 0; i < 1000; i++) {
+            tiny.nextLong();
+        }
+        for (int i = 0; i < 10; i++) {
+            long expected = tiny.nextLong();
+            assertEquals(expected, jumped.nextLong());
+            assertEquals(expected, jumped2.nextLong());
+        }
+    }
+
+    @Test
+    public void testGetJumpedLarge() {
+        TinyMT64[] tiny = TinyMT64.getDefaultArray(2, 1L, 3L);
+        TinyMT64 jumped = TinyMT64.getDefault(1).getJumped(
+                BigInteger.ONE.shiftLeft(64).multiply(
+                        new BigInteger("3")));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(tiny[1].nextLong(), jumped.nextLong());
+        }
+    }
+
+    @Test
+    public void testAdvance() {
+        TinyMT64 tiny = TinyMT64.getDefault(1);
+        TinyMT64 tiny2 = TinyMT64.getDefault(1);
+        long[] output = new long[300];
+        for (int i = 0; i < output.length; i++) {
+            output[i] = tiny.nextLong();
+        }
+        tiny2.advance(123L);
+        assertEquals(output[123], tiny2.nextLong());
+        tiny2.advance(new BigInteger("100"));
+        assertEquals(output[224], tiny2.nextLong());
+        tiny2.advance(-200L);
+        assertEquals(output[25], tiny2.nextLong());
+        tiny2.advance(0);
+        assertEquals(output[26], tiny2.nextLong());
+    }
+
+    @Test
+    public void testCopyAndJump() {
+        TinyMT64 tiny = TinyMT64.getDefault(1);
+        TinyMT64 copy = tiny.copy();
+        assertEquals(tiny.nextLong(), copy.nextLong());
+        TinyMT64 before = tiny.copyAndJump();
+        assertEquals(copy.nextLong(), before.nextLong());
+        TinyMT64 expected = TinyMT64.getDefault(1);
+        expected.advance(BigInteger.ONE.shiftLeft(64).add(BigInteger.ONE));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(expected.nextLong(), tiny.nextLong());
+        }
+        assertEquals(0x1.0p64, tiny.jumpDistance(), 0.0);
+    }
+
+    @Test
+    public void testCopyAndLeap() {
+        TinyMT64 tiny = new TinyMT64(1);
+        TinyMT64 expected = tiny.getJumped(BigInteger.ONE.shiftLeft(96));
+        TinyMT64 before = tiny.copyAndLeap();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(expected.nextLong(), tiny.nextLong());
+        }
+        assertEquals(TinyMT64.getDefault(1).nextLong(), before.nextLong());
+        assertEquals(0x1.0p96, tiny.leapDistance(), 0.0);
+    }
+
+    @Test
+    public void testRandomGeneratorFactory() {
+        RandomGenerator rg = RandomGeneratorFactory.of("TinyMT64").create(1L);
+        TinyMT64 tiny = TinyMT64.getDefault(1);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(tiny.nextLong(), rg.nextLong());
+        }
+    }
+
+    @Test
+    public void testStreams() {
+        TinyMT64 tiny = TinyMT64.getDefault(1);
+        TinyMT64 expected = TinyMT64.getDefault(1);
+        long[] array = tiny.longs(100).toArray();
+        assertEquals(100, array.length);
+        for (int i = 0; i < array.length; i++) {
+            assertEquals(expected.nextLong(), array[i]);
+        }
+        assertEquals(expected.nextDouble(), tiny.doubles().findFirst()
+                .getAsDouble(), 0.0);
+        assertTrue(tiny.longs(1000, -5, 5).allMatch(x -> -5 <= x && x < 5));
+        double[] parallel1 = TinyMT64.getDefault(2).doubles(10000, 1.0, 2.0)
+                .parallel().toArray();
+        double[] parallel2 = TinyMT64.getDefault(2).doubles(10000, 1.0, 2.0)
+                .parallel().toArray();
+        assertTrue(Arrays.equals(parallel1, parallel2));
+        for (double d : parallel1) {
+            assertTrue(1.0 <= d && d < 2.0);
+        }
+        assertEquals(10000, Arrays.stream(parallel1).distinct().count());
+    }
+
+    @Test
+    public void testGetTinyMTArrayCTable() throws IOException {
+        // rows of tinymt64dc.0.65536.txt made by the C TinyMTDC, and the
+        // outputs of the C TinyMT64 from them with seed 1
+        ParameterTable table = ParameterTable.parse(new StringReader(
+                "c8a646f09f334156a307970051b83461,64,0,daa51b54,fed47fb5,"
+                + "a853e7ffeffefffe,55,0\n"
+                + "c6d63a1d259b079d5c056853ebd36cb7,64,0,c0bf1817,fe047f81,"
+                + "7fc75ff6ffffffbc,67,0\n"
+                + "9f0678a5b7b90af5e7cb430d1e7c272b,64,0,c03f1807,fe00ff80,"
+                + "14727d7fff7f7ffe,69,0\n"));
+        TinyMT64[] tiny = TinyMT64.getTinyMTArray(table, 0, 3, 1);
+        long[][] c_data = {
+                { 0x6fcd21fba3f6fb57L, 0xea60c3bb3d026591L, 
+                  0xb5cabe6a77d72ce7L, 0x582ed743750b72d6L, 
+                  0x14806cf8429f6de8L, 0x492799f0225d8ccaL, 
+                  0x43766e8c99eb7660L, 0xd11af09580830601L, 
+                  0x6f112a2830d5da5bL, 0x1736965121ab4540L},
+                { 0xf6a173715a0a8789L, 0x5a106ea7fdb897f9L, 
+                  0xe9547e119fb93c5fL, 0x366d85ae7ada861bL, 
+                  0x8558e7e21f552d0aL, 0x941d0dca5e86b65dL, 
+                  0xdcdee576166da1a0L, 0x7d5eb3bab44d9b9dL, 
+                  0x8f123facd7c27d66L, 0xbe170ac3a1799707L},
+                { 0xe8b7f4d2b4ad997cL, 0x099edf7b774353d1L, 
+                  0xd565ebadb00a07d7L, 0x6f836bdec50af268L, 
+                  0x6cb78bec1d66bed5L, 0x7f6efc2e687ce4efL, 
+                  0xe35cda577f0279fdL, 0x7aff1333c6b3bddcL, 
+                  0x513f719e5c79071eL, 0xeabd98dbbe2b164bL}};
+        for (int i = 0; i < c_data.length; i++) {
+            for (int j = 0; j < c_data[i].length; j++) {
+                assertEquals("line:" + i, c_data[i][j], tiny[i].nextLong());
+            }
+        }
+    }
+
+    @Test
+    public void testGetTinyMTArrayTable() throws IOException {
+        ParameterTable table = ParameterTable.parse(new StringReader(
+                "945e0ad4a30ec19432dfa9d5959e5d5d,64,0,fa051f40,ffd0fff4,"
+                + "58d02ffeffbfffbc,65,0\n"
+                + "d8524022ed8dff4a8dcc50c798faba43,32,0,8f7011ee,fc78ff1f,"
+                + "3793fdff,63,0\n"));
+        TinyMT64[] tiny = TinyMT64.getTinyMTArray(table, 0, 1, 1);
+        TinyMT64 expected = TinyMT64.getDefault(1);
+        for (int j = 0; j < 10; j++) {
+            assertEquals(expected.nextLong(), tiny[0].nextLong());
+        }
+        try {
+            TinyMT64.getTinyMTArray(table, 1, 1, 1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testNextBytesBuffer() {
+        ByteOrder[] orders = { ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN };
+        for (ByteOrder order : orders) {
+            for (int extra = 0; extra < 8; extra++) {
+                TinyMT64 tiny = TinyMT64.getDefault(1);
+                TinyMT64 expected = TinyMT64.getDefault(1);
+                ByteBuffer buffer = ByteBuffer.allocateDirect(
+                        1 + 10 * 8 + extra);
+                buffer.put((byte) 0).order(order);
+                tiny.nextBytes(buffer);
+                assertFalse(buffer.hasRemaining());
+                buffer.position(1);
+                for (int i = 0; i < 10; i++) {
+                    assertEquals(expected.nextLong(), buffer.getLong());
+                }
+                if (extra > 0) {
+                    ByteBuffer last = ByteBuffer.allocate(8).order(order);
+                    last.putLong(expected.nextLong());
+                    for (int i = 0; i < extra; i++) {
+                        assertEquals(last.get(i), buffer.get());
+                    }
+                }
+                assertEquals(expected.nextLong(), tiny.nextLong());
+            }
+        }
+    }
+
+    @Test
+    public void testBoundedInt() {
+        TinyMT64 tiny = TinyMT64.getDefault(1);
+        TinyMT64 expected = TinyMT64.getDefault(1);
+        int[] bounds = {1, 2, 3, 1000, 1 << 30, Integer.MAX_VALUE };
+        for (int bound : bounds) {
+            for (int i = 0; i < 100; i++) {
+                long r = expected.nextInt() & 0xffffffffL;
+                assertEquals((int) ((r * bound) >>> 32), tiny.nextInt(bound));
+            }
+        }
+        for (int i = 0; i < 100; i++) {
+            long r = expected.nextInt() & 0xffffffffL;
+            assertEquals(-5 + (int) ((r * 10) >>> 32), tiny.nextInt(-5, 5));
+            r = expected.nextInt() & 0xffffffffL;
+            assertEquals(Integer.MIN_VALUE + (int) ((r * 0xffffffffL) >>> 32),
+                    tiny.nextInt(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        }
+        int[] count = new int[3];
+        for (int i = 0; i < 30000; i++) {
+            count[tiny.nextInt(3)]++;
+        }
+        for (int c : count) {
+            assertTrue(9500 < c && c < 10500);
+        }
+        try {
+            tiny.nextInt(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            tiny.nextInt(5, 5);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testBoundedLong() {
+        TinyMT64 tiny = TinyMT64.getDefault(1);
+        TinyMT64 expected = TinyMT64.getDefault(1);
+        BigInteger two64 = BigInteger.ONE.shiftLeft(64);
+        long[] bounds = {1, 3, 1000, 1L << 40, Long.MAX_VALUE };
+        for (long bound : bounds) {
+            for (int i = 0; i < 100; i++) {
+                BigInteger r = BigInteger.valueOf(expected.nextLong())
+                        .mod(two64);
+                assertEquals(r.multiply(BigInteger.valueOf(bound))
+                        .shiftRight(64).longValue(), tiny.nextLong(bound));
+            }
+        }
+        BigInteger range = BigInteger.valueOf(Long.MAX_VALUE)
+                .subtract(BigInteger.valueOf(Long.MIN_VALUE));
+        for (int i = 0; i < 100; i++) {
+            BigInteger r = BigInteger.valueOf(expected.nextLong()).mod(two64);
+            assertEquals(Long.MIN_VALUE + r.multiply(range).shiftRight(64)
+                    .longValue(),
+                    tiny.nextLong(Long.MIN_VALUE, Long.MAX_VALUE));
+        }
+        try {
+            tiny.nextLong(-1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testBoundedInts() {
+        TinyMT64 tiny = TinyMT64.getDefault(1);
+        TinyMT64 expected = TinyMT64.getDefault(1);
+        int[] array = new int[102];
+        int[] bounds = {1, 7, 100000, Integer.MAX_VALUE };
+        for (int bound : bounds) {
+            tiny.nextInts(array, 1, 100, bound);
+            for (int i = 0; i < 100; i++) {
+                assertEquals(expected.nextInt(bound), array[1 + i]);
+            }
+        }
+        assertEquals(0, array[0]);
+        assertEquals(0, array[101]);
+        assertEquals(expected.nextInt(), tiny.nextInt());
+    }
+
+    @Test
+    public void testSplit() {
+        TinyMT64 tiny = TinyMT64.getDefault(1);
+        TinyMT64 expected = TinyMT64.getDefault(1);
+        BigInteger jump = BigInteger.ONE.shiftLeft(125);
+        TinyMT64 child1 = tiny.split();
+        TinyMT64 child2 = tiny.split();
+        TinyMT64 grandchild = child1.split();
+        TinyMT64[] jumped = {expected.getJumped(jump),
+                expected.getJumped(jump.shiftRight(1)),
+                expected.getJumped(jump.add(jump.shiftRight(1))) };
+        TinyMT64[] split = {child1, child2, grandchild };
+        for (int i = 0; i < split.length; i++) {
+            for (int j = 0; j < 10; j++) {
+                assertEquals(jumped[i].nextLong(), split[i].nextLong());
+            }
+        }
+        for (int j = 0; j < 10; j++) {
+            assertEquals(expected.nextLong(), tiny.nextLong());
+        }
+        TinyMT64 again = TinyMT64.getDefault(1);
+        again.split();
+        assertEquals(TinyMT64.getDefault(1).getJumped(jump.shiftRight(1))
+                .nextLong(), again.split().nextLong());
+    }
+
+    @Test
+    public void testSplitLevels() {
+        TinyMT64 tiny = TinyMT64.getDefault(1);
+        Set<Long> first = new HashSet<Long>();
+        for (int i = 0; i < 100; i++) {
+            first.add(tiny.split().nextLong());
+        }
+        assertEquals(100, first.size());
+        // splits after 62 levels use nextLong() of the parent
+        TinyMT64 expected = TinyMT64.getDefault(1);
+        for (int i = 62; i < 100; i++) {
+            expected.nextLong();
+        }
+        assertEquals(expected.nextLong(), tiny.nextLong());
+        TinyMT64 source = TinyMT64.getDefault(2);
+        TinyMT64 other = TinyMT64.getDefault(1).split(source);
+        assertTrue(other.nextLong() != TinyMT64.getDefault(1).nextLong());
+        TinyMT64 sourceExpected = TinyMT64.getDefault(2);
+        sourceExpected.nextLong();
+        assertEquals(sourceExpected.nextLong(), source.nextLong());
+    }
+
+    @Test
+    public void testSplits() {
+        List<Long> sequential = TinyMT64.getDefault(1).splits(1000)
+                .map(g -> g.nextLong()).collect(Collectors.toList());
+        assertEquals(1000, new HashSet<Long>(sequential).size());
+        List<Long> parallel = TinyMT64.getDefault(1).splits(1000).parallel()
+                .map(g -> g.nextLong()).collect(Collectors.toList());
+        assertEquals(1000, new HashSet<Long>(parallel).size());
+        assertTrue(RandomGeneratorFactory.of("TinyMT64").isSplittable());
+        assertEquals(10, TinyMT64.getDefault(1).rngs(10).count());
+    }
+
+    @Test
+    public void testSaveState() {
+        TinyMT64 tiny = TinyMT64.getDefault(1);
+        tiny.nextLong();
+        tiny.split();
+        long[] state = tiny.saveState();
+        assertEquals(TinyMT64.STATE_LONGS, state.length);
+        ByteBuffer buffer = ByteBuffer.allocate(TinyMT64.STATE_BYTES + 1);
+        tiny.saveState(buffer);
+        assertEquals(TinyMT64.STATE_BYTES, buffer.position());
+        long expected = tiny.nextLong();
+        TinyMT64 child = tiny.split();
+        TinyMT64 restored = TinyMT64.getDefault(2);
+        restored.restoreState(state);
+        assertEquals(expected, restored.nextLong());
+        assertEquals(child.nextLong(), restored.split().nextLong());
+        restored.setSeed(3);
+        buffer.flip();
+        restored.restoreState(buffer);
+        assertEquals(expected, restored.nextLong());
+        long[] other = state.clone();
+        other[2] ^= 2;
+        try {
+            restored.restoreState(other);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        other = state.clone();
+        other[0] = 0;
+        other[1] = 0;
+        try {
+            restored.restoreState(other);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            restored.restoreState(ByteBuffer.allocate(TinyMT64.STATE_BYTES - 1));
+            fail();
+        } catch (java.nio.BufferUnderflowException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testSerialize() throws Exception {
+        TinyMT64 tiny = TinyMT64.getDefault(1);
+        tiny.nextLong();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(tiny);
+        }
+        TinyMT64 restored;
+        try (ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()))) {
+            restored = (TinyMT64) in.readObject();
+        }
+        assertTrue(Arrays.equals(tiny.saveState(), restored.saveState()));
+        assertEquals(tiny.getId(), restored.getId());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(tiny.nextLong(), restored.nextLong());
+        }
+    }
+
+    @Test
+    public void testSerializeTampered() throws Exception {
+        TinyMT64 tiny = TinyMT64.getDefault(1);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(tiny);
+        }
+        // flip the lowest bit of mat1 in the stream
+        byte[] stream = bytes.toByteArray();
+        ByteBuffer buffer = ByteBuffer.wrap(stream);
+        int index = -1;
+        for (int i = 0; i + 4 <= stream.length; i++) {
+            if (buffer.getInt(i) == 0xfa051f40) {
+                index = i;
+            }
+        }
+        assertTrue(index >= 0);
+        stream[index + 3] ^= 1;
+        try (ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(stream))) {
+            in.readObject();
+            fail();
+        } catch (InvalidObjectException e) {
+            // expected
+        }
+    }
 }
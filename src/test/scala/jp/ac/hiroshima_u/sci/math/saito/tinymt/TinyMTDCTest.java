@@ -0,0 +1,129 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class TinyMTDCTest {
+
+    // characteristic polynomial of a row is primitive, and has its weight
+    // and delta
+    static void check(final String line) {
+        String[] s = line.split(",");
+        int type = Integer.parseInt(s[1]);
+        int mat1 = (int) Long.parseLong(s[3], 16);
+        int mat2 = (int) Long.parseLong(s[4], 16);
+        long tmat = Long.parseUnsignedLong(s[5], 16);
+        F2Polynomial poly = TinyMTDC.characteristic(type, mat1, mat2);
+        assertEquals(s[0], poly.toString(16));
+        assertEquals(Integer.parseInt(s[6]), TinyMTDC.weight(poly));
+        assertEquals(Integer.parseInt(s[7]),
+                new TinyMTDC.Outputs(type, mat1, mat2).delta(tmat, 1000));
+    }
+
+    @Test
+    public void testDefault() {
+        check("d8524022ed8dff4a8dcc50c798faba43,32,0,"
+                + "8f7011ee,fc78ff1f,3793fdff,63,0");
+        check("945e0ad4a30ec19432dfa9d5959e5d5d,64,0,"
+                + "fa051f40,ffd0fff4,58d02ffeffbfffbc,65,0");
+    }
+
+    @Test
+    public void testTable() {
+        check("ca585ed049a98cf59a35bff7cc8d90dd,32,1,"
+                + "994d1328,a590a965,7906fbff,69,2");
+        // rows of tinymt32dc.0.65536.txt and tinymt64dc.0.65536.txt made by
+        // the C TinyMTDC
+        check("8ee476cb10b7c7e20dd10725924e9877,32,0,"
+                + "877810ef,fc38ff0f,c7fb7fff,63,0");
+        check("c8a646f09f334156a307970051b83461,64,0,"
+                + "daa51b54,fed47fb5,a853e7ffeffefffe,55,0");
+        TinyMT32Parameter p = TinyMT32Parameter.getThreadLocalParameter(5);
+        check(p.getCharacteristic().toString(16) + ",32,1,"
+                + Integer.toHexString(p.getMat1()) + ","
+                + Integer.toHexString(p.getMat2()) + ","
+                + Integer.toHexString(p.getTmat()) + ","
+                + p.getWeight() + "," + p.getDelta());
+    }
+
+    @Test
+    public void testSearchTmat() {
+        // the default parameters have tmat of delta 0
+        TinyMTDC.Outputs outputs = new TinyMTDC.Outputs(TinyMTDC.TINYMT32,
+                0x8f7011ee, 0xfc78ff1f);
+        assertEquals(0, outputs.delta(outputs.searchTmat(16), 1000));
+        List<String> lines = new ArrayList<String>();
+        TinyMTDC.create(TinyMTDC.TINYMT64, 0, 1, 16,
+                ForkJoinPool.commonPool(), lines::add);
+        int zero = 0;
+        for (String line : lines) {
+            if (line.endsWith(",0")) {
+                zero++;
+            }
+        }
+        assertTrue("delta 0 in " + zero + " of 16", zero >= 12);
+    }
+
+    @Test
+    public void testReducible() {
+        // period is not 2^127 - 1 when mat1 and mat2 are 0
+        assertNull(TinyMTDC.characteristic(TinyMTDC.TINYMT32, 0, 0));
+        assertNull(TinyMTDC.characteristic(TinyMTDC.TINYMT64, 0, 0));
+    }
+
+    @Test
+    public void testCreate32() {
+        List<String> lines = new ArrayList<String>();
+        TinyMTDC.create(TinyMTDC.TINYMT32, 3, 1234, 3, new ForkJoinPool(1),
+                lines::add);
+        assertEquals(3, lines.size());
+        for (String line : lines) {
+            check(line);
+            assertTrue(line.contains(",32,3,"));
+        }
+        // result does not depend on parallelism
+        ParameterTable table = TinyMTDC.createTable(TinyMTDC.TINYMT32, 3,
+                1234, 3, ForkJoinPool.commonPool());
+        assertEquals(3, table.size());
+        TinyMT32[] tiny = TinyMT32.getTinyMTArray(table, 0, 3, 1);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(lines.get(i).split(",")[0],
+                    tiny[i].getCharacteristic());
+            tiny[i].nextInt();
+        }
+    }
+
+    @Test
+    public void testCreate64() throws IOException {
+        StringWriter writer = new StringWriter();
+        TinyMTDC.writeText(TinyMTDC.TINYMT64, 2, 5678, 2,
+                ForkJoinPool.commonPool(), writer);
+        String[] lines = writer.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("#"));
+        check(lines[1]);
+        check(lines[2]);
+        assertTrue(lines[1].contains(",64,2,"));
+    }
+
+    @Test
+    public void testUnknownType() {
+        try {
+            TinyMTDC.create(16, 0, 0, 1, ForkJoinPool.commonPool(),
+                    line -> { });
+            fail("type 16 is unknown");
+        } catch (IllegalArgumentException e) {
+            assertTrue(true);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package jp.ac.hiroshima_u.sci.math.saito.tinymt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.commons.math.MathException;
+import org.apache.commons.math.special.Erf;
+import org.junit.Test;
+
+public class ZigguratTest {
+    private static final int SIZE = 1000000;
+
+    private static void assertFraction(final double expected,
+            final int count) {
+        double sigma = Math.sqrt(expected * (1 - expected) / SIZE);
+        double actual = (double) count / SIZE;
+        assertTrue("expected:" + expected + " actual:" + actual,
+                Math.abs(expected - actual) < 5 * sigma + 1.0 / SIZE);
+    }
+
+    @Test
+    public void testNormal() throws MathException {
+        double[] points = {-4.0, -3.0, -1.0, 0.0, 0.5, 2.0, 3.7 };
+        int[] count = new int[points.length];
+        TinyMT64 tiny = TinyMT64.getDefault(1);
+        double sum = 0;
+        double sum2 = 0;
+        for (int i = 0; i < SIZE; i++) {
+            double x = Ziggurat.normal(tiny);
+            sum += x;
+            sum2 += x * x;
+            for (int j = 0; j < points.length; j++) {
+                if (x < points[j]) {
+                    count[j]++;
+                }
+            }
+        }
+        for (int j = 0; j < points.length; j++) {
+            double p = 0.5 * (1 + Erf.erf(points[j] / Math.sqrt(2)));
+            assertFraction(p, count[j]);
+        }
+        assertEquals(0.0, sum / SIZE, 0.005);
+        assertEquals(1.0, sum2 / SIZE, 0.01);
+    }
+
+    @Test
+    public void testExponential() {
+        double[] points = {0.1, 1.0, 3.0, 7.0, 8.0, 10.0 };
+        int[] count = new int[points.length];
+        TinyMT32 tiny = TinyMT32.getDefault(1);
+        double sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            double x = Ziggurat.exponential(tiny);
+            assertTrue(x >= 0);
+            sum += x;
+            for (int j = 0; j < points.length; j++) {
+                if (x > points[j]) {
+                    count[j]++;
+                }
+            }
+        }
+        for (int j = 0; j < points.length; j++) {
+            assertFraction(Math.exp(-points[j]), count[j]);
+        }
+        assertEquals(1.0, sum / SIZE, 0.01);
+    }
+
+    @Test
+    public void testGaussianIsPolar() {
+        // nextGaussian is the polar method of commons-math, which caches
+        // the second value
+        TinyMT32 tiny = TinyMT32.getDefault(1);
+        TinyMT32 expected = TinyMT32.getDefault(1);
+        for (int i = 0; i < 100; i++) {
+            double v1;
+            double v2;
+            double s;
+            do {
+                v1 = 2 * expected.nextDouble() - 1;
+                v2 = 2 * expected.nextDouble() - 1;
+                s = v1 * v1 + v2 * v2;
+            } while (s >= 1 || s == 0);
+            double m = Math.sqrt(-2 * Math.log(s) / s);
+            assertEquals(v1 * m, tiny.nextGaussian(), 1e-12);
+            assertEquals(v2 * m, tiny.nextGaussian(), 1e-12);
+        }
+        assertEquals(expected.nextLong(), tiny.nextLong());
+    }
+
+    @Test
+    public void testNormals() {
+        TinyMT32 tiny = TinyMT32.getDefault(1);
+        TinyMT32 expected = TinyMT32.getDefault(1);
+        double[] array = new double[102];
+        tiny.nextGaussians(array, 1, 100);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(expected.nextGaussianZiggurat(), array[1 + i],
+                    0.0);
+        }
+        assertEquals(0.0, array[0], 0.0);
+        assertEquals(0.0, array[101], 0.0);
+        assertEquals(expected.nextLong(), tiny.nextLong());
+    }
+}